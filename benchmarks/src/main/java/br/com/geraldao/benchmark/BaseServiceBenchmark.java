@@ -0,0 +1,265 @@
+package br.com.geraldao.benchmark;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.com.geraldao.benchmark.entity.Customer;
+import br.com.geraldao.benchmark.entity.Purchase;
+import br.com.geraldao.constant.Operator;
+import br.com.geraldao.constant.QueryOrder;
+import br.com.geraldao.dao.BaseService;
+import br.com.geraldao.entity.BaseEntity;
+import br.com.geraldao.predicate.PredicateBuilder;
+
+/**
+ * {@link BaseService} over Hibernate and an in-memory H2 database seeded with customers and their purchases. Each operation runs on a cleared persistence context, as a request would.<br>
+ * Compared settings: {@code batchSize} is {@code hibernate.jdbc.batch_size} and {@code readOnly} loads the entities of the finders as read-only (writes always use a read-write persistence context). The {@link Counters} report, per iteration, the JDBC statements prepared and the entities loaded, inserted and updated along with the
+ * number of invocations, so {@code statements / invocations} is the statement count of one operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BaseServiceBenchmark {
+
+    private static final String[] CITIES    = { "Porto Alegre", "Sao Paulo", "Recife", "Curitiba", "Manaus", "Natal", "Belem", "Vitoria" };
+    private static final int      CUSTOMERS = 10000;
+
+    private Database              database;
+    private EntityManager         em;
+    private EntityManager         writer;
+    private Service               service;
+    private Service               writeService;
+
+    /**
+     * Persistence unit seeded once per trial, shared by the benchmark and the {@link Counters}
+     */
+    @State(Scope.Benchmark)
+    public static class Database {
+
+        @Param({ "1", "50" })
+        public int                   batchSize;
+
+        @Param({ "false", "true" })
+        public boolean               readOnly;
+
+        /**
+         * Customers saved by each {@code saveBatch}, each one with 2 purchases on the insert benchmark
+         */
+        @Param({ "100" })
+        public int                   items;
+
+        private EntityManagerFactory emf;
+        private long[]               customerIds;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            Map<String, String> properties = new HashMap<>();
+            properties.put("javax.persistence.jdbc.url", "jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1");
+            properties.put("hibernate.jdbc.batch_size", String.valueOf(batchSize));
+            emf = Persistence.createEntityManagerFactory("geraldao-benchmark", properties);
+            seed();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            emf.close();
+        }
+
+        private void seed() {
+            EntityManager seeder = emf.createEntityManager();
+            customerIds = new long[CUSTOMERS];
+            seeder.getTransaction().begin();
+            for (int i = 0; i < CUSTOMERS; i++) {
+                Customer customer = customer(i);
+                seeder.persist(customer);
+                seeder.persist(new Purchase(customer, BigDecimal.valueOf(i, 2), "OPEN"));
+                seeder.persist(new Purchase(customer, BigDecimal.valueOf(i * 7, 2), "CLOSED"));
+                customerIds[i] = customer.getId();
+                if (i % 500 == 0) {
+                    seeder.flush();
+                    seeder.clear();
+                }
+            }
+            seeder.getTransaction().commit();
+            seeder.close();
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void open(Database database) {
+        this.database = database;
+        em = database.emf.createEntityManager();
+        em.unwrap(Session.class).setDefaultReadOnly(database.readOnly);
+        service = new Service(em);
+        writer = database.emf.createEntityManager();
+        writeService = new Service(writer);
+    }
+
+    @TearDown(Level.Iteration)
+    public void close() {
+        em.close();
+        writer.close();
+    }
+
+    @Benchmark
+    public List<Customer> findAllByParams(Counters counters) {
+        List<Long> ids = randomIds(20);
+        List<Customer> found = service.findAllByParams(Customer.class, PredicateBuilder.where("active", true).and("id", Operator.IN, ids).andIsNotNull("email").build());
+        em.clear();
+        return found;
+    }
+
+    @Benchmark
+    public List<Purchase> findAllByParamsOrdered(Counters counters) {
+        List<Customer> customers = Collections.singletonList(em.getReference(Customer.class, database.customerIds[ThreadLocalRandom.current().nextInt(database.customerIds.length)]));
+        List<Purchase> found = service.findAllOrderedByParams(Purchase.class, PredicateBuilder.where("customer", Operator.IN, customers).build(), QueryOrder.DESC, "amount");
+        em.clear();
+        return found;
+    }
+
+    @Benchmark
+    public boolean entityExists(Counters counters) {
+        return service.entityExists(Customer.class, PredicateBuilder.where("email", "customer" + ThreadLocalRandom.current().nextInt(CUSTOMERS * 2) + "@example.com").build());
+    }
+
+    @Benchmark
+    public boolean updateByParams(Counters counters) {
+        writer.getTransaction().begin();
+        boolean updated = writeService.updateByParams(Customer.class, Collections.singletonMap("active", ThreadLocalRandom.current().nextBoolean()), PredicateBuilder.where("id", Operator.IN, randomIds(10)).build());
+        writer.getTransaction().commit();
+        return updated;
+    }
+
+    @Benchmark
+    public int saveBatchInsert(Counters counters) {
+        List<BaseEntity> batch = new ArrayList<>(database.items * 3);
+        for (int i = 0; i < database.items; i++) {
+            Customer customer = customer(ThreadLocalRandom.current().nextInt(CUSTOMERS));
+            batch.add(customer);
+            batch.add(new Purchase(customer, BigDecimal.valueOf(i, 2), "OPEN"));
+            batch.add(new Purchase(customer, BigDecimal.valueOf(i * 3, 2), "CLOSED"));
+        }
+        writer.getTransaction().begin();
+        writeService.saveBatch(batch);
+        writer.getTransaction().commit();
+        writer.clear();
+        return batch.size();
+    }
+
+    @Benchmark
+    public int saveBatchMerge(Counters counters) {
+        List<Customer> batch = new ArrayList<>(database.items);
+        for (Long id : randomIds(database.items)) {
+            Customer customer = customer(id.intValue());
+            customer.setId(id);
+            batch.add(customer);
+        }
+        writer.getTransaction().begin();
+        writeService.saveBatch(batch);
+        writer.getTransaction().commit();
+        writer.clear();
+        return batch.size();
+    }
+
+    private List<Long> randomIds(int count) {
+        Long[] ids = new Long[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = database.customerIds[ThreadLocalRandom.current().nextInt(database.customerIds.length)];
+        }
+        return Arrays.asList(ids);
+    }
+
+    private static Customer customer(int i) {
+        Customer customer = new Customer("Customer " + i, "customer" + i + "@example.com", CITIES[i % CITIES.length]);
+        customer.setNotes("Notes of customer " + i);
+        return customer;
+    }
+
+    /**
+     * Statements and entities counted by Hibernate {@link Statistics} during each invocation
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+        public long        invocations;
+        public long        statements;
+        public long        entitiesLoaded;
+        public long        entitiesInserted;
+        public long        entitiesUpdated;
+
+        private Statistics statistics;
+        private long       statementsBefore;
+        private long       loadedBefore;
+        private long       insertedBefore;
+        private long       updatedBefore;
+
+        @Setup(Level.Iteration)
+        public void reset(Database database) {
+            statistics = database.emf.unwrap(SessionFactory.class).getStatistics();
+            invocations = statements = entitiesLoaded = entitiesInserted = entitiesUpdated = 0;
+        }
+
+        @Setup(Level.Invocation)
+        public void before() {
+            statementsBefore = statistics.getPrepareStatementCount();
+            loadedBefore = statistics.getEntityLoadCount();
+            insertedBefore = statistics.getEntityInsertCount();
+            updatedBefore = statistics.getEntityUpdateCount();
+        }
+
+        @TearDown(Level.Invocation)
+        public void after() {
+            invocations++;
+            statements += statistics.getPrepareStatementCount() - statementsBefore;
+            entitiesLoaded += statistics.getEntityLoadCount() - loadedBefore;
+            entitiesInserted += statistics.getEntityInsertCount() - insertedBefore;
+            entitiesUpdated += statistics.getEntityUpdateCount() - updatedBefore;
+        }
+    }
+
+    private static class Service extends BaseService {
+        private final EntityManager em;
+
+        private Service(EntityManager em) {
+            this.em = em;
+        }
+
+        @Override
+        protected EntityManager getEm() {
+            return em;
+        }
+    }
+
+}
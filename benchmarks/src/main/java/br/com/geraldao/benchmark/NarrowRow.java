@@ -0,0 +1,41 @@
+package br.com.geraldao.benchmark;
+
+import javax.persistence.Column;
+
+/**
+ * Row mapped by {@link br.com.geraldao.query.QueryResultReader} with few columns
+ */
+public class NarrowRow {
+
+    private Integer id;
+    private String  login;
+    private Boolean active;
+
+    @Column(name = "Id")
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    @Column(name = "Login")
+    public String getLogin() {
+        return login;
+    }
+
+    public void setLogin(String login) {
+        this.login = login;
+    }
+
+    @Column(name = "Active")
+    public Boolean getActive() {
+        return active;
+    }
+
+    public void setActive(Boolean active) {
+        this.active = active;
+    }
+
+}
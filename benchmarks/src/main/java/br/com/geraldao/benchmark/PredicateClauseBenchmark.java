@@ -0,0 +1,89 @@
+package br.com.geraldao.benchmark;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.com.geraldao.constant.Operator;
+import br.com.geraldao.predicate.PredicateBuilder;
+import br.com.geraldao.predicate.PredicateClause;
+
+/**
+ * Walk of {@link PredicateClause#generator(Root, CriteriaBuilder)} over stub criteria objects, so only the library cost is measured (the JPA provider cost is measured by the JPA benchmarks). Depth 1 is a flat clause of 4 conditions, each extra level nests another block of 4 conditions.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PredicateClauseBenchmark {
+
+    @Param({ "1", "4", "16" })
+    public int              depth;
+
+    private PredicateClause clause;
+    private Root<Object>    root;
+    private CriteriaBuilder cb;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        clause = clause(depth);
+        Predicate predicate = (Predicate) stub(CriteriaBuilder.In.class, null, null);
+        root = (Root<Object>) stub(Root.class, predicate, null);
+        cb = (CriteriaBuilder) stub(CriteriaBuilder.class, predicate, root);
+    }
+
+    @Benchmark
+    public List<Predicate> generator() {
+        return clause.generator(root, cb);
+    }
+
+    private static PredicateClause clause(int depth) {
+        PredicateBuilder builder = PredicateBuilder.where("login", "victor").and("id", Operator.IN, Arrays.asList(1, 2, 3, 4)).or("name", Operator.CONTAINS, "vic").andIsNotNull("oldPassword");
+        if (depth > 1) {
+            builder.orBlock(clause(depth - 1));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Proxy answering every call with the first given object compatible with the method return type
+     */
+    private static Object stub(Class<?> type, Object first, Object second) {
+        Object[] answers = { first, second };
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (method.getReturnType().isInstance(proxy)) {
+                return proxy;
+            }
+            for (Object answer : answers) {
+                if (answer != null && method.getReturnType().isInstance(answer)) {
+                    return answer;
+                }
+            }
+            return null;
+        };
+        return Proxy.newProxyInstance(PredicateClauseBenchmark.class.getClassLoader(), new Class<?>[] { type }, handler);
+    }
+
+}
@@ -0,0 +1,89 @@
+package br.com.geraldao.benchmark;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.com.geraldao.query.QueryResultReader;
+
+/**
+ * Mapping of a single row by {@link QueryResultReader} on each of its modes, for narrow (3 columns) and wide (16 columns) rows.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryResultReaderBenchmark {
+
+    private static final String[] NARROW_LABELS = { "Id", "Login", "Active" };
+    private static final String[] WIDE_LABELS   = { "Id", "Code", "Name", "Description", "Amount", "Quantity", "Active", "Created", "Updated", "Owner", "Team", "Status", "Score", "Email", "Phone", "Notes" };
+
+    public enum Mode {
+        COMPLEX_OBJECT, WRAPPER_BY_NAME, WRAPPER_BY_POSITION, ARRAY_RESULT
+    }
+
+    @Param({ "narrow", "wide" })
+    public String                shape;
+
+    @Param
+    public Mode                  mode;
+
+    private ResultSet            rs;
+    private QueryResultReader<?> reader;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        boolean wide = "wide".equals(shape);
+        String[] labels = wide ? WIDE_LABELS : NARROW_LABELS;
+        Object[] row = wide ? wideRow() : new Object[] { 31, "victor", true };
+        rs = SyntheticResultSet.create(labels, new Object[][] { row });
+        rs.next();
+
+        switch (mode) {
+            case COMPLEX_OBJECT:
+                reader = wide ? new QueryResultReader<>(WideRow.class) : new QueryResultReader<>(NarrowRow.class);
+                break;
+            case WRAPPER_BY_NAME:
+                reader = new QueryResultReader<>(String.class, labels[labels.length - 1]);
+                break;
+            case WRAPPER_BY_POSITION:
+                reader = new QueryResultReader<>(Integer.class, 1);
+                break;
+            case ARRAY_RESULT:
+                List<Object> columns = new ArrayList<>(Arrays.asList((Object[]) labels));
+                columns.set(0, 1);
+                reader = new QueryResultReader<Object[]>(columns);
+                break;
+        }
+    }
+
+    @Benchmark
+    public Object read() throws SQLException {
+        return reader.get(rs);
+    }
+
+    private static Object[] wideRow() {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        return new Object[] { 31L, 7, "Victor", "Customer account", 1530.75d, 12, true, now, now, "backoffice", "sales", 2, 8.5d, "victor@example.com", "+55 11 5555-0000", "No notes" };
+    }
+
+}
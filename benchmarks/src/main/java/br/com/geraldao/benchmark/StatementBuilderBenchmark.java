@@ -0,0 +1,85 @@
+package br.com.geraldao.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.com.geraldao.query.ProcedureBuilder;
+import br.com.geraldao.query.QueryBuilder;
+import br.com.geraldao.query.StatementBuilder;
+
+/**
+ * SQL generation ({@link StatementBuilder#build()}) and parameter binding ({@link StatementBuilder#buildStatement(PreparedStatement)}) over a no-op {@link PreparedStatement}, so only the library cost is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatementBuilderBenchmark {
+
+    @Param({ "1", "10", "100" })
+    public int                  parameters;
+
+    private PreparedStatement   statement;
+    private List<Object>        values;
+    private Map<String, Object> named;
+    private String              namedQuery;
+    private StatementBuilder    procedure;
+    private StatementBuilder    query;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        statement = (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { PreparedStatement.class }, (proxy, method, args) -> null);
+        values = new ArrayList<>();
+        named = new HashMap<>();
+        StringBuilder sql = new StringBuilder("SELECT * FROM TUnpbxUser WHERE 1 = 1");
+        for (int i = 0; i < parameters; i++) {
+            Object value = i % 3 == 0 ? new Date() : i % 3 == 1 ? Integer.valueOf(i) : "value" + i;
+            values.add(value);
+            named.put("p" + i, value);
+            sql.append(" AND column").append(i).append(" = :p").append(i);
+        }
+        namedQuery = sql.toString();
+        procedure = ProcedureBuilder.create("Sp_UnPbxCleanUserConnection", values);
+        query = QueryBuilder.create(namedQuery.replaceAll(":p[0-9]+", "?"), values);
+    }
+
+    @Benchmark
+    public String procedureBuild() {
+        return procedure.build();
+    }
+
+    @Benchmark
+    public PreparedStatement buildStatement() throws SQLException {
+        return query.buildStatement(statement);
+    }
+
+    @Benchmark
+    public PreparedStatement namedParametersCreateAndBind() throws SQLException {
+        StatementBuilder builder = QueryBuilder.create(namedQuery, named);
+        builder.build();
+        return builder.buildStatement(statement);
+    }
+
+}
@@ -0,0 +1,85 @@
+package br.com.geraldao.benchmark;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * In-memory {@link ResultSet} with fixed rows, answering {@code next}, {@code getObject} (by position or label) and {@code wasNull}, which is what the library reads. Lookups by label do not allocate, so the benchmarks measure the mapping itself.
+ */
+public class SyntheticResultSet implements InvocationHandler {
+
+    private static final Method        NEXT;
+    private static final Method        GET_BY_INDEX;
+    private static final Method        GET_BY_LABEL;
+    private static final Method        WAS_NULL;
+    private static final Method        BEFORE_FIRST;
+
+    static {
+        try {
+            NEXT = ResultSet.class.getMethod("next");
+            GET_BY_INDEX = ResultSet.class.getMethod("getObject", int.class);
+            GET_BY_LABEL = ResultSet.class.getMethod("getObject", String.class);
+            WAS_NULL = ResultSet.class.getMethod("wasNull");
+            BEFORE_FIRST = ResultSet.class.getMethod("beforeFirst");
+        } catch (NoSuchMethodException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final Map<String, Integer> columns = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final Object[][]           rows;
+    private int                        cursor  = -1;
+    private Object                     last;
+
+    private SyntheticResultSet(String[] labels, Object[][] rows) {
+        for (int i = 0; i < labels.length; i++) {
+            columns.put(labels[i], i);
+        }
+        this.rows = rows;
+    }
+
+    /**
+     * @param labels
+     *            - column labels
+     * @param rows
+     *            - values of each row, in label order
+     * @return ResultSet positioned before the first row
+     */
+    public static ResultSet create(String[] labels, Object[][] rows) {
+        return (ResultSet) Proxy.newProxyInstance(SyntheticResultSet.class.getClassLoader(), new Class<?>[] { ResultSet.class }, new SyntheticResultSet(labels, rows));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.equals(GET_BY_LABEL)) {
+            Integer column = columns.get(args[0]);
+            if (column == null) {
+                throw new SQLException("Column " + args[0] + " not found");
+            }
+            return last = rows[cursor][column];
+        }
+        if (method.equals(GET_BY_INDEX)) {
+            return last = rows[cursor][(Integer) args[0] - 1];
+        }
+        if (method.equals(NEXT)) {
+            return ++cursor < rows.length;
+        }
+        if (method.equals(WAS_NULL)) {
+            return last == null;
+        }
+        if (method.equals(BEFORE_FIRST)) {
+            cursor = -1;
+            return null;
+        }
+        if (method.getName().equals("close")) {
+            return null;
+        }
+        throw new SQLException(method.getName() + " is not supported by SyntheticResultSet");
+    }
+
+}
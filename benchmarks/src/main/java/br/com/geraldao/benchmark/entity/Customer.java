@@ -0,0 +1,112 @@
+package br.com.geraldao.benchmark.entity;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.Lob;
+import javax.persistence.OneToMany;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+
+import br.com.geraldao.entity.BaseEntity;
+
+@Entity
+@Table(name = "Customer")
+public class Customer extends BaseEntity {
+
+    private static final long serialVersionUID = -2170963447532938133L;
+    private String            name;
+    private String            email;
+    private String            city;
+    private Boolean           active;
+    private Date              createdAt;
+    private String            notes;
+    private List<Purchase>    purchases        = new ArrayList<>();
+
+    public Customer() {
+    }
+
+    public Customer(String name, String email, String city) {
+        this.name = name;
+        this.email = email;
+        this.city = city;
+        this.active = true;
+        this.createdAt = new Date();
+    }
+
+    @Column(name = "Name")
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    @Column(name = "Email")
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    @Column(name = "City")
+    public String getCity() {
+        return city;
+    }
+
+    public void setCity(String city) {
+        this.city = city;
+    }
+
+    @Column(name = "Active")
+    public Boolean getActive() {
+        return active;
+    }
+
+    public void setActive(Boolean active) {
+        this.active = active;
+    }
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "CreatedAt")
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Date createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    @Lob
+    @Column(name = "Notes")
+    public String getNotes() {
+        return notes;
+    }
+
+    public void setNotes(String notes) {
+        this.notes = notes;
+    }
+
+    @OneToMany(mappedBy = "customer", fetch = FetchType.LAZY)
+    public List<Purchase> getPurchases() {
+        return purchases;
+    }
+
+    public void setPurchases(List<Purchase> purchases) {
+        this.purchases = purchases;
+    }
+
+    @Override
+    public String toString() {
+        return "Customer [id=" + getId() + ", name=" + name + ", email=" + email + ", city=" + city + "]";
+    }
+
+}
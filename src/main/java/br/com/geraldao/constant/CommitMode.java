@@ -0,0 +1,20 @@
+package br.com.geraldao.constant;
+
+/**
+ * How the transactions of a parallel {@code BaseService.saveBatchParallel} are committed.
+ * <ul>
+ * <li>{@link #ALL_OR_NOTHING}</li>
+ * <li>{@link #PER_PARTITION}</li>
+ * </ul>
+ *
+ */
+public enum CommitMode {
+    /**
+     * Partitions are committed only after every one of them was saved and flushed. If any partition fails, all of them are rolled back. The commits are sequential, not two-phase, so a failure while committing leaves the partitions committed before it.
+     */
+    ALL_OR_NOTHING,
+    /**
+     * Each partition commits as soon as it is saved. Failed partitions are rolled back and reported, the others stay committed.
+     */
+    PER_PARTITION;
+}
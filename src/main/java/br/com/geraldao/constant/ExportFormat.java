@@ -0,0 +1,20 @@
+package br.com.geraldao.constant;
+
+/**
+ * Formats written by {@code QueryService.export}.
+ * <ul>
+ * <li>{@link #CSV}</li>
+ * <li>{@link #JSON_LINES}</li>
+ * </ul>
+ *
+ */
+public enum ExportFormat {
+    /**
+     * Comma separated values (RFC 4180). The first line of each result set has the column labels. EG: id,login
+     */
+    CSV,
+    /**
+     * One JSON object per line, using column labels as keys. EG: {"id":1,"login":"victor"}
+     */
+    JSON_LINES;
+}
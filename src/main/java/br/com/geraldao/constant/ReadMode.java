@@ -0,0 +1,25 @@
+package br.com.geraldao.constant;
+
+/**
+ * How the entities returned by the {@code BaseService} finders are kept by the persistence context.
+ * <ul>
+ * <li>{@link #MANAGED}</li>
+ * <li>{@link #READ_ONLY}</li>
+ * <li>{@link #DETACHED}</li>
+ * </ul>
+ *
+ */
+public enum ReadMode {
+    /**
+     * Entities are managed and their changes are saved on flush. The provider keeps a snapshot of each one to find its changes.
+     */
+    MANAGED,
+    /**
+     * Entities are loaded with the provider read-only hints: they stay managed, but no snapshot is kept and they are not dirty checked on flush, so their changes are <b>not</b> saved.
+     */
+    READ_ONLY,
+    /**
+     * Same as {@link #READ_ONLY}, and the entities are detached once loaded so they do not stay on the persistence context. Associations not loaded with them can no longer be loaded.
+     */
+    DETACHED;
+}
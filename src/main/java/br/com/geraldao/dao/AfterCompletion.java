@@ -0,0 +1,82 @@
+package br.com.geraldao.dao;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.persistence.EntityManager;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Runs an action after the transaction of an EntityManager completes, committed or rolled back. JPA has no such callback for RESOURCE_LOCAL transactions, so the action is registered on the action queue of the provider session through reflection. Only Hibernate is supported; other
+ * providers never run the action.
+ *
+ * @see PersistenceContextLookup
+ */
+class AfterCompletion {
+    private final static Logger                                         LOGGER   = Logger.getLogger(AfterCompletion.class);
+    private static final ConcurrentHashMap<Class<?>, Optional<Methods>> SESSIONS = new ConcurrentHashMap<>();
+
+    private AfterCompletion() {
+    }
+
+    /**
+     * @return <b>true</b> if the action will run when the transaction completes, <b>false</b> if the EntityManager is not joined to a transaction or the provider is not supported
+     */
+    static boolean register(EntityManager em, Runnable action) {
+        if (!em.isJoinedToTransaction()) {
+            return false;
+        }
+        Object session = em.getDelegate();
+        Optional<Methods> methods = SESSIONS.computeIfAbsent(session.getClass(), AfterCompletion::resolve);
+        if (!methods.isPresent()) {
+            return false;
+        }
+        try {
+            Methods m = methods.get();
+            Object process = Proxy.newProxyInstance(m.processClass.getClassLoader(), new Class<?>[] { m.processClass }, (proxy, method, args) -> {
+                switch (method.getName()) {
+                case "doAfterTransactionCompletion":
+                    action.run();
+                    return null;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "AfterCompletion [" + action + "]";
+                default:
+                    return null;
+                }
+            });
+            m.registerProcess.invoke(m.getActionQueue.invoke(session), process);
+            return true;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOGGER.debug("Unable to register an action after the transaction completion: " + e);
+            return false;
+        }
+    }
+
+    private static Optional<Methods> resolve(Class<?> sessionClass) {
+        try {
+            ClassLoader loader = sessionClass.getClassLoader();
+            Methods methods = new Methods();
+            methods.processClass = Class.forName("org.hibernate.action.spi.AfterTransactionCompletionProcess", false, loader);
+            methods.getActionQueue = sessionClass.getMethod("getActionQueue");
+            methods.registerProcess = methods.getActionQueue.getReturnType().getMethod("registerProcess", methods.processClass);
+            return Optional.of(methods);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            LOGGER.debug(sessionClass.getName() + " has no action queue, nothing runs after the transaction completion");
+            return Optional.empty();
+        }
+    }
+
+    private static class Methods {
+        private Class<?> processClass;
+        private Method   getActionQueue;
+        private Method   registerProcess;
+    }
+
+}
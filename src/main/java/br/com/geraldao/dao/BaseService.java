@@ -1,15 +1,38 @@
 package br.com.geraldao.dao;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import javax.persistence.EntityManager;
+import javax.persistence.EntityTransaction;
 import javax.persistence.PersistenceUnitUtil;
 import javax.persistence.Query;
 import javax.persistence.TypedQuery;
@@ -20,13 +43,22 @@ import javax.persistence.criteria.CriteriaUpdate;
 import javax.persistence.criteria.Order;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.ManagedType;
+import javax.persistence.metamodel.PluralAttribute;
 
 import org.apache.log4j.Logger;
 
+import br.com.geraldao.constant.CommitMode;
 import br.com.geraldao.constant.QueryOrder;
+import br.com.geraldao.constant.ReadMode;
 import br.com.geraldao.entity.BaseEntity;
 import br.com.geraldao.predicate.PredicateBuilder;
 import br.com.geraldao.predicate.PredicateClause;
+import br.com.geraldao.predicate.PredicateTemplate;
+import br.com.geraldao.query.FetchPlan;
+import br.com.geraldao.query.Projection;
+import br.com.geraldao.query.QueryResultReader;
 
 /**
  * Generic JPA Service
@@ -35,7 +67,18 @@ import br.com.geraldao.predicate.PredicateClause;
  *
  */
 public abstract class BaseService extends QueryService {
-    private final static Logger LOGGER = Logger.getLogger(BaseService.class);
+    private final static Logger              LOGGER                 = Logger.getLogger(BaseService.class);
+    private final static SingleFlight        FIND_BY_ID             = new SingleFlight();
+    private final static FindByIdBatcher     FIND_BY_ID_BATCHES     = new FindByIdBatcher();
+    private final static CountCache          PAGE_COUNTS            = new CountCache();
+    private final static String              HIBERNATE_FETCH_SIZE   = "org.hibernate.fetchSize";
+    private final static String              ECLIPSELINK_FETCH_SIZE = "eclipselink.jdbc.fetch-size";
+    private final static String              HIBERNATE_READ_ONLY    = "org.hibernate.readOnly";
+    private final static String              ECLIPSELINK_READ_ONLY  = "eclipselink.read-only";
+    private final static int                 STATEMENTS_SIZE        = 2048;
+    private final static Map<String, String> STATEMENTS             = new ConcurrentHashMap<>();
+    private final static String              ID_SHAPE               = PredicateTemplate.shape(PredicateBuilder.where("id", 0L).build());
+    private final static int                 ID_PAGE_SIZE           = 10000;
 
     /**
      * @see EntityManager
@@ -45,7 +88,142 @@ public abstract class BaseService extends QueryService {
     abstract protected EntityManager getEm();
 
     /**
-     * Returns a JDBC Connection unwraping from entityManager the {@code Connection.class}. If vendor doesn't support this unwrap, a {@code RuntimeException} will be thrown. If connection acquired is null, a {@code NullPointerException} will be thrown.
+     * Enables request coalescing for {@link #findById(Class, Object)}. While an entity is being loaded, concurrent calls for the same entity class and id made on the same persistence context wait for it and share the loaded instance, the one that persistence context would
+     * return anyway. Calls made on other persistence contexts are never coalesced, so each caller only receives entities managed by its own EntityManager.
+     * 
+     * @return <b>false</b> by default
+     */
+    protected boolean coalesceFindById() {
+        return false;
+    }
+
+    /**
+     * Enables batching for {@link #findById(Class, Object)}. Concurrent calls for the same entity class made on the same persistence context are loaded by a single {@code IN} query, executed by the first caller on that persistence context, so every caller receives entities
+     * managed by its own EntityManager. Calls made on other persistence contexts are never batched together. The queries of a persistence context run one at a time, so calls made while one runs are loaded together by the next.<br>
+     * The first caller only waits for the calls which have already started and not joined a batch, never longer than this window, so a thread calling {@code findById} alone, EG in a loop, is not delayed. Such a loop still runs a query per id: to load many ids from one thread
+     * use {@link #findByIdLoader(Class)} or {@link #findByIds(Class, Collection)}.
+     * 
+     * @return maximum time, in milliseconds, the first caller waits for the calls already started. <b>0</b> (default) disables batching
+     * @see #findByIdLoader(Class)
+     */
+    protected long findByIdBatchWindowMillis() {
+        return 0;
+    }
+
+    /**
+     * Maximum values bound in a single {@code IN} list by the methods which load many ids. Bigger lists are split in chunks of this size.
+     * 
+     * @return <b>1000</b> by default
+     */
+    protected int inListChunkSize() {
+        return 1000;
+    }
+
+    /**
+     * Rows fetched per round trip by {@code streamAll} methods, also the number of entities returned between each detach.
+     * 
+     * @return <b>500</b> by default
+     * @see #streamAllOrderedByParams(Class, PredicateClause, QueryOrder, String...)
+     */
+    protected int streamFetchSize() {
+        return 500;
+    }
+
+    /**
+     * Creates the EntityManagers used by {@link #saveBatchParallel(Collection, int, CommitMode)} and {@link #findByIds(Class, Collection, int)}, one per partition. They are closed by the caller.
+     * 
+     * @return a new EntityManager of the {@link #getEm()} factory by default
+     */
+    protected EntityManager createEntityManager() {
+        return getEm().getEntityManagerFactory().createEntityManager();
+    }
+
+    /**
+     * Reads an entity from the persistence context of the EntityManager without going to the database, used by {@link #findByIds(Class, Collection)}. Supports Hibernate, override for other providers.
+     * 
+     * @return the managed entity, or <b>null</b> if it is not managed
+     */
+    protected <T> T findInPersistenceContext(EntityManager em, Class<T> entityClass, Object id) {
+        return PersistenceContextLookup.find(em, entityClass, id);
+    }
+
+    /**
+     * Items saved by {@code saveBatch} between each flush and clear of the persistence context. <b>0</b> keeps every item managed until the transaction ends.<br>
+     * Clearing detaches every entity of {@link #getEm()}, not only the saved ones: changes made afterwards to an entity loaded or saved before are no longer written. Only enable it for services whose batches run on an EntityManager of their own, EG imports.
+     * 
+     * @return <b>0</b> (never flush nor clear) by default
+     * @see #saveBatch(Iterator)
+     */
+    protected int batchFlushSize() {
+        return 0;
+    }
+
+    /**
+     * Cross-request cache read by {@link #findById(Class, Object)} before the database. {@code save}, {@code saveBatch}, {@code remove}, {@code removeByParams} and {@code updateByParams} of this service invalidate it. Override returning a shared instance to enable it.
+     * 
+     * @return <b>null</b> (no cache) by default
+     * @see EntityCache
+     */
+    protected EntityCache entityCache() {
+        return null;
+    }
+
+    /**
+     * Filter of existing ids read by {@link #findById(Class, Object)}, {@link #entityExists(Class, PredicateClause)} with a single id condition and {@link #findExistingKeys(Class, String, Collection)} of ids, so lookups of ids that surely do not exist do not go to the database. Ids
+     * saved by this service are added to it. Override returning a shared instance to enable it, and build it on startup with {@link #warmUpNegativeLookupFilter(Class...)}.
+     * 
+     * @return <b>null</b> (no filter) by default
+     * @see NegativeLookupFilter
+     */
+    protected NegativeLookupFilter negativeLookupFilter() {
+        return null;
+    }
+
+    /**
+     * Time the total counted by {@link #findPage(Class, PredicateClause, QueryOrder, int, int, String...)} is reused by the next pages of the same query. Writes of the entity class made by this service drop it.
+     * 
+     * @return <b>0</b> (count every full page) by default
+     */
+    protected long pageCountTtlMillis() {
+        return 0;
+    }
+
+    /**
+     * Enables JPQL templates for the finders, {@code removeByParams} and {@code updateByParams}. Their statement is built once per entity, {@link PredicateTemplate#shape(PredicateClause) shape} of the predicate clause, order and columns, and reused with only the values bound, instead of building a criteria query on every call. Finders with a
+     * {@link FetchPlan} always use criteria queries. Field names, order columns and updated fields are written on the statement, so each one is checked against the metamodel of the entity first and an {@link IllegalArgumentException} is thrown for names which are not attribute
+     * paths. Values are converted to the type of their attribute before they are bound, see {@link PredicateTemplate#convert(Object, Class)}.
+     * 
+     * @return <b>false</b> (build criteria queries) by default
+     * @see PredicateTemplate
+     */
+    protected boolean cacheQueryTemplates() {
+        return false;
+    }
+
+    /**
+     * Size from which the {@code IN} and {@code NOT IN} lists of numbers or strings of the query templates are staged as {@link br.com.geraldao.entity.InListValue} rows and compared against a subquery, instead of binding every value. The statement then has a single shape whatever
+     * the list size and the database plans it once. Lists are only staged within a transaction and are deleted after the statement runs. {@code InListValue} must be listed on the persistence unit.
+     * 
+     * @return <b>0</b> (always bind the values) by default
+     * @see #cacheQueryTemplates()
+     */
+    protected int inListStagingThreshold() {
+        return 0;
+    }
+
+    /**
+     * How the entities returned by the {@code findAll}, {@code findFirst}, {@code findPage} and {@code streamAll} methods of this service are kept by the persistence context. Services of read-only endpoints may return {@link ReadMode#READ_ONLY} or {@link ReadMode#DETACHED}, so no
+     * snapshot is kept per entity and flushes do not dirty check them. Single calls may choose another mode, see {@link #findAllOrderedByParams(Class, PredicateClause, FetchPlan, ReadMode, QueryOrder, String...)}.
+     * 
+     * @return {@link ReadMode#MANAGED} by default
+     */
+    protected ReadMode readMode() {
+        return ReadMode.MANAGED;
+    }
+
+    /**
+     * Returns a JDBC Connection unwraping from entityManager the {@code Connection.class}. If vendor doesn't support this unwrap, a {@code RuntimeException} will be thrown. If connection acquired is null, a {@code NullPointerException} will be thrown.<br>
+     * The connection is owned by the caller: the {@link QueryService} methods close it after each statement. Override it to hand out connections of a pool. It is not used by the DTO native queries, see {@link #entityManagerConnection()}.
      */
     @Override
     protected Connection connection() {
@@ -63,7 +241,23 @@ public abstract class BaseService extends QueryService {
     }
 
     /**
-     * Searchs for an entity class according to predicateClause.
+     * JDBC connection of {@link #getEm()}, used by the DTO native queries so they run on its transaction. Supports Hibernate and providers which unwrap a {@code Connection}, override for others. The connection belongs to the EntityManager and is never closed.<br>
+     * It differs from {@link #connection()}, whose connection is closed after each statement and may come from anywhere: a native query reading through {@code connection()} would not see the pending changes of the EntityManager, and closing the connection of the
+     * EntityManager would end its transaction. Override {@code connection()} for the {@link QueryService} methods and this method only to reach the connection of another JPA provider.
+     * 
+     * @return the connection of the EntityManager
+     * @see #findAllByNativeQuery(String, QueryResultReader, Object...)
+     */
+    protected Connection entityManagerConnection() {
+        Connection connection = EntityManagerConnection.of(getEm());
+        if (connection == null) {
+            throw new IllegalStateException("Unable to get the connection of the EntityManager. BaseService entityManagerConnection() method must be overrided according to JPA plataform vendor");
+        }
+        return connection;
+    }
+
+    /**
+     * Searchs for an entity class according to predicateClause. The query selects a constant limited to one row instead of counting, so the database stops at the first match.
      * 
      * @param entity
      *            - desired mapped entity
@@ -74,19 +268,111 @@ public abstract class BaseService extends QueryService {
      * @see PredicateBuilder
      */
     public <T> boolean entityExists(Class<T> entity, PredicateClause predicateClause) {
+        if (predicateClause != null && ID_SHAPE.equals(PredicateTemplate.shape(predicateClause)) && !mightExist(entity, PredicateTemplate.values(predicateClause).get(0))) {
+            return false;
+        }
         EntityManager em = getEm();
+        if (cacheQueryTemplates()) {
+            PredicateTemplate template = template(em, predicateClause);
+            String jpql = statement("exists " + entity.getName() + condition(template), () -> "select 1 from " + entityName(em, entity) + " " + PredicateTemplate.ALIAS + where(em, entity, template));
+            try (InListStaging staging = new InListStaging(em)) {
+                return !bind(em.createQuery(jpql, Integer.class), em, entity, template, predicateClause, staging).setMaxResults(1).getResultList().isEmpty();
+            }
+        }
         CriteriaBuilder cb = em.getCriteriaBuilder();
-        CriteriaQuery<Long> cq = cb.createQuery(Long.class);
+        CriteriaQuery<Integer> cq = cb.createQuery(Integer.class);
         Root<T> root = cq.from(entity);
-        cq.select(cb.count(root));
+        cq.select(cb.literal(1));
+        return !em.createQuery(restrict(cb, cq, root, predicateClause, null)).setMaxResults(1).getResultList().isEmpty();
+    }
 
-        if (predicateClause != null) {
-            List<Predicate> predicates = predicateClause.generator(root, cb);
-            Predicate[] conditions = predicates.toArray(new Predicate[predicates.size()]);
-            cq.where(conditions);
+    /**
+     * Checks which keys exist with a single query per {@link #inListChunkSize()} distinct keys, instead of an {@link #entityExists(Class, PredicateClause)} per key.
+     * 
+     * @param entityClass
+     *            - desired mapped entity
+     * @param field
+     *            - attribute holding the keys, EG: <b>id</b> or an unique code
+     * @param keys
+     *            - keys to check, of the same type as the attribute
+     * @return keys found, an empty set when none exists
+     * @see #findExistingKeys(Class, String, Collection, PredicateClause)
+     */
+    public <T, K> Set<K> findExistingKeys(Class<T> entityClass, String field, Collection<K> keys) {
+        return findExistingKeys(entityClass, field, keys, null);
+    }
+
+    /**
+     * Checks which keys exist among the entities matching predicateClause, with a single query per {@link #inListChunkSize()} distinct keys
+     * 
+     * @param entityClass
+     *            - desired mapped entity
+     * @param field
+     *            - attribute holding the keys, EG: <b>id</b> or an unique code
+     * @param keys
+     *            - keys to check, of the same type as the attribute
+     * @param predicateClause
+     *            - further conditions the entities must match, may be <b>null</b>
+     * @return keys found, an empty set when none exists
+     * @see PredicateTemplate
+     */
+    public <T, K> Set<K> findExistingKeys(Class<T> entityClass, String field, Collection<K> keys, PredicateClause predicateClause) {
+        if (field == null) {
+            throw new IllegalArgumentException("You must inform the field holding the keys");
+        }
+        Set<K> found = new HashSet<>();
+        if (keys == null || keys.isEmpty()) {
+            return found;
+        }
+        EntityManager em = getEm();
+        PredicateTemplate template = template(em, predicateClause);
+        String alias = PredicateTemplate.ALIAS;
+        String jpql = statement("keys " + entityClass.getName() + "." + field + condition(template),
+                () -> "select distinct " + alias + "." + checkAttribute(em, entityClass, field) + " from " + entityName(em, entityClass) + " " + alias + " where " + alias + "." + field + " in (:keys)" + (template == null ? "" : " and " + condition(em, entityClass, template)));
+        List<K> values = new ArrayList<>(new LinkedHashSet<>(keys));
+        if ("id".equals(field)) {
+            values.removeIf(key -> !mightExist(entityClass, key));
+        }
+        if (values.isEmpty()) {
+            return found;
+        }
+        int chunkSize = inListChunkSize();
+        try (InListStaging staging = new InListStaging(em)) {
+            Query query = bind(em.createQuery(jpql), em, entityClass, template, predicateClause, staging);
+            for (int i = 0; i < values.size(); i += chunkSize) {
+                query.setParameter("keys", values.subList(i, Math.min(values.size(), i + chunkSize)));
+                for (Object key : query.getResultList()) {
+                    @SuppressWarnings("unchecked")
+                    K existing = (K) key;
+                    found.add(existing);
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Same as {@link #findExistingKeys(Class, String, Collection)}, answering by position
+     * 
+     * @param entityClass
+     *            - desired mapped entity
+     * @param field
+     *            - attribute holding the keys, EG: <b>id</b> or an unique code
+     * @param keys
+     *            - keys to check, of the same type as the attribute
+     * @return bit <b>i</b> is set when <b>keys.get(i)</b> exists
+     */
+    public <T, K> BitSet findExistingPositions(Class<T> entityClass, String field, List<K> keys) {
+        BitSet positions = new BitSet(keys == null ? 0 : keys.size());
+        Set<K> found = findExistingKeys(entityClass, field, keys);
+        if (!found.isEmpty()) {
+            for (int i = 0; i < keys.size(); i++) {
+                if (found.contains(keys.get(i))) {
+                    positions.set(i);
+                }
+            }
         }
-        Long resultList = em.createQuery(cq).getSingleResult();
-        return resultList > 0;
+        return positions;
     }
 
     /**
@@ -102,9 +388,13 @@ public abstract class BaseService extends QueryService {
         EntityManager em = getEm();
         if (entity.getId() == null) {
             em.persist(entity);
+            added(entity);
             return Optional.of(entity);
         } else {
-            return Optional.of(em.merge(entity));
+            invalidate(em, entity.getClass(), entity.getId());
+            T merged = em.merge(entity);
+            added(merged);
+            return Optional.of(merged);
         }
     }
 
@@ -113,17 +403,309 @@ public abstract class BaseService extends QueryService {
      * 
      * @param items
      *            - Collection with items to save
+     * @return {@link BatchResult} with what was done
+     * @see #saveBatch(Iterator)
      */
-    public <T extends BaseEntity> void saveBatch(Collection<T> items) {
-        EntityManager em = getEm();
-        for (Iterator<T> iterator = items.iterator(); iterator.hasNext();) {
-            T t = (T) iterator.next();
-            if (t.getId() == null) {
-                em.persist(t);
+    public <T extends BaseEntity> BatchResult saveBatch(Collection<T> items) {
+        return saveBatch(items.iterator());
+    }
+
+    /**
+     * Method responsible for saving (creating new objects) or updating on database. The stream is consumed but not closed.
+     * 
+     * @param items
+     *            - Stream with items to save
+     * @return {@link BatchResult} with what was done
+     * @see #saveBatch(Iterator)
+     */
+    public <T extends BaseEntity> BatchResult saveBatch(Stream<T> items) {
+        return saveBatch(items.iterator());
+    }
+
+    /**
+     * Method responsible for saving (creating new objects) or updating on database. New items are persisted as they come and existing items are merged after them. When {@link #batchFlushSize()} is enabled, items are consumed in chunks of that size and each chunk is flushed and the
+     * persistence context is cleared. This way inserts and updates reach the JDBC driver grouped (set the provider batch size, EG: <b>hibernate.jdbc.batch_size</b>, to the same value) and memory stays flat however many items are saved, but every entity managed by
+     * {@link #getEm()}, including the saved ones, is detached afterwards.
+     * 
+     * @param items
+     *            - Iterator with items to save
+     * @return {@link BatchResult} with what was done
+     */
+    public <T extends BaseEntity> BatchResult saveBatch(Iterator<T> items) {
+        BatchResult result = new BatchResult();
+        saveBatch(getEm(), items, batchFlushSize(), result);
+        return result;
+    }
+
+    /**
+     * Saves the items in parallel. The items are split into contiguous partitions, each one saved as {@link #saveBatch(Iterator)} does by a {@link #createEntityManager()} of its own, in its own transaction, on its own thread.<br>
+     * Items are not saved through {@link #getEm()} nor its transaction, so the persistence unit must be RESOURCE_LOCAL and items of a partition must not reference new items of another.
+     * 
+     * @param items
+     *            - Collection with items to save
+     * @param parallelism
+     *            - maximum partitions saved at the same time
+     * @param commitMode
+     *            - {@link CommitMode#ALL_OR_NOTHING} or {@link CommitMode#PER_PARTITION}
+     * @return {@link BatchResult} summing the committed partitions
+     * @throws RuntimeException
+     *             error of the first failed partition when {@link CommitMode#ALL_OR_NOTHING}, after every partition was rolled back. Errors of the other partitions are suppressed on it
+     * @throws IllegalStateException
+     *             if the calling thread is interrupted. The partitions still running are cancelled and every partition not committed yet is rolled back, once all of them have stopped, and the interrupt flag is kept
+     */
+    public <T extends BaseEntity> BatchResult saveBatchParallel(Collection<T> items, int parallelism, CommitMode commitMode) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be greater than zero");
+        }
+        List<T> values = new ArrayList<>(items);
+        BatchResult result = new BatchResult();
+        int partitions = Math.min(parallelism, values.size());
+        if (partitions == 0) {
+            return result;
+        }
+        int partitionSize = (values.size() + partitions - 1) / partitions;
+        boolean commitEach = commitMode == CommitMode.PER_PARTITION;
+        int flushSize = batchFlushSize();
+        ExecutorService executor = newExecutor("geraldao-save-", partitions);
+        List<EntityManager> ems = new ArrayList<>();
+        List<Future<BatchResult>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < values.size(); i += partitionSize) {
+                EntityManager em = createEntityManager();
+                ems.add(em);
+                List<T> partition = values.subList(i, Math.min(values.size(), i + partitionSize));
+                futures.add(executor.submit(() -> savePartition(em, partition, flushSize, commitEach)));
+            }
+            RuntimeException failure = null;
+            for (Future<BatchResult> future : futures) {
+                try {
+                    result.add(future.get());
+                } catch (ExecutionException e) {
+                    RuntimeException cause = e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : new IllegalStateException("Partition was not saved", e);
+                    if (commitEach) {
+                        result.failed(cause);
+                    } else if (failure == null) {
+                        failure = cause;
+                    } else {
+                        failure.addSuppressed(cause);
+                    }
+                }
+            }
+            if (!commitEach) {
+                if (failure != null) {
+                    throw failure;
+                }
+                for (int i = 0; i < ems.size(); i++) {
+                    try {
+                        ems.get(i).getTransaction().commit();
+                    } catch (RuntimeException e) {
+                        LOGGER.error("Partition " + i + " of " + ems.size() + " failed to commit, the previous partitions stay committed");
+                        throw e;
+                    }
+                }
+            }
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while saving " + futures.size() + " partitions, the ones not committed were rolled back", e);
+        } finally {
+            // the partitions own their EntityManagers until their threads are gone
+            stop(executor, futures);
+            ems.forEach(em -> {
+                rollback(em);
+                if (em.isOpen()) {
+                    em.close();
+                }
+            });
+        }
+    }
+
+    /**
+     * Cancels the tasks not done and waits for every thread of the executor to end, keeping the interrupt flag of the caller
+     */
+    private static void stop(ExecutorService executor, List<? extends Future<?>> futures) {
+        futures.forEach(future -> future.cancel(true));
+        executor.shutdownNow();
+        boolean interrupted = Thread.interrupted();
+        try {
+            while (true) {
+                try {
+                    if (executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                        return;
+                    }
+                    LOGGER.warn("Waiting for the partitions to stop before closing their EntityManagers");
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Saves a partition within a new transaction, left active for the caller to commit unless <b>commit</b> is set
+     */
+    private <T extends BaseEntity> BatchResult savePartition(EntityManager em, List<T> items, int flushSize, boolean commit) {
+        BatchResult result = new BatchResult();
+        EntityTransaction transaction = em.getTransaction();
+        transaction.begin();
+        try {
+            saveBatch(em, items.iterator(), flushSize, result);
+            em.flush();
+            if (commit) {
+                transaction.commit();
+            }
+            return result;
+        } catch (RuntimeException e) {
+            rollback(em);
+            throw e;
+        }
+    }
+
+    private static ExecutorService newExecutor(String name, int threads) {
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, name + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static void rollback(EntityManager em) {
+        if (em.isOpen() && em.getTransaction().isActive()) {
+            em.getTransaction().rollback();
+        }
+    }
+
+    private <T extends BaseEntity> void saveBatch(EntityManager em, Iterator<T> items, int flushSize, BatchResult result) {
+        List<T> existing = new ArrayList<>();
+        int pending = 0;
+        while (items.hasNext()) {
+            T item = items.next();
+            if (item.getId() == null) {
+                em.persist(item);
+                added(item);
+                result.inserted();
             } else {
-                em.merge(t);
+                existing.add(item);
+            }
+            if (flushSize > 0 && ++pending == flushSize) {
+                mergeAll(em, existing, result);
+                flushAndClear(em, result);
+                pending = 0;
             }
         }
+        mergeAll(em, existing, result);
+        if (pending > 0) {
+            flushAndClear(em, result);
+        }
+    }
+
+    private <T extends BaseEntity> void mergeAll(EntityManager em, List<T> items, BatchResult result) {
+        for (T item : items) {
+            invalidate(em, item.getClass(), item.getId());
+            added(em.merge(item));
+            result.merged();
+        }
+        items.clear();
+    }
+
+    private void flushAndClear(EntityManager em, BatchResult result) {
+        em.flush();
+        em.clear();
+        result.flushed();
+    }
+
+    private void added(BaseEntity entity) {
+        PAGE_COUNTS.invalidate(entity.getClass());
+        NegativeLookupFilter filter = negativeLookupFilter();
+        if (filter != null && entity.getId() != null) {
+            filter.add(entity.getClass(), entity.getId());
+        }
+    }
+
+    /**
+     * @return <b>false</b> if the {@link #negativeLookupFilter()} knows the id does not exist
+     */
+    private boolean mightExist(Class<?> entityClass, Object id) {
+        NegativeLookupFilter filter = negativeLookupFilter();
+        if (filter == null || !(id instanceof Long || id instanceof Integer) || !BaseEntity.class.isAssignableFrom(entityClass) || !filter.isFiltered(entityClass)) {
+            return true;
+        }
+        return filter.mightContain(entityClass, ((Number) id).longValue(), ids(entityClass));
+    }
+
+    /**
+     * Builds the {@link #negativeLookupFilter()} of the entity classes now, EG on startup, instead of in background on their first lookup
+     * 
+     * @param entityClasses
+     *            - filtered entity classes
+     */
+    public void warmUpNegativeLookupFilter(Class<?>... entityClasses) {
+        NegativeLookupFilter filter = negativeLookupFilter();
+        if (filter == null) {
+            return;
+        }
+        for (Class<?> entityClass : entityClasses) {
+            if (BaseEntity.class.isAssignableFrom(entityClass) && filter.isFiltered(entityClass)) {
+                filter.build(entityClass, ids(entityClass));
+            }
+        }
+    }
+
+    /**
+     * Reads the ids of the class on a new EntityManager, so building the filter neither joins the caller's transaction nor fills its persistence context
+     */
+    private NegativeLookupFilter.IdSource ids(Class<?> entityClass) {
+        return sized -> {
+            EntityManager em = createEntityManager();
+            try {
+                String entityName = entityName(em, entityClass);
+                LongConsumer ids = sized.apply(em.createQuery("select count(e.id) from " + entityName + " e", Long.class).getSingleResult());
+                TypedQuery<Long> query = em.createQuery("select e.id from " + entityName + " e where e.id > :last order by e.id", Long.class).setMaxResults(ID_PAGE_SIZE);
+                List<Long> page = query.setParameter("last", Long.MIN_VALUE).getResultList();
+                while (!page.isEmpty()) {
+                    page.forEach(ids::accept);
+                    page = page.size() < ID_PAGE_SIZE ? Collections.emptyList() : query.setParameter("last", page.get(page.size() - 1)).getResultList();
+                }
+            } finally {
+                em.close();
+            }
+        };
+    }
+
+    /**
+     * Evicts what a write of the entity makes stale, when the write is made and again after its transaction completes, so what a concurrent reader loads before the commit is not kept. Only Hibernate runs the second eviction.
+     */
+    private void invalidate(EntityManager em, Class<?> entityClass, Object id) {
+        EntityCache cache = entityCache();
+        Runnable evict = () -> {
+            PAGE_COUNTS.invalidate(entityClass);
+            if (cache != null) {
+                cache.invalidate(entityClass, id);
+            }
+        };
+        evict.run();
+        if (cache != null || pageCountTtlMillis() > 0) {
+            AfterCompletion.register(em, evict);
+        }
+    }
+
+    private void invalidateAll(EntityManager em, Class<?> entityClass) {
+        EntityCache cache = entityCache();
+        Runnable evict = () -> {
+            PAGE_COUNTS.invalidate(entityClass);
+            if (cache != null) {
+                cache.invalidateAll(entityClass);
+            }
+        };
+        evict.run();
+        if (cache != null || pageCountTtlMillis() > 0) {
+            AfterCompletion.register(em, evict);
+        }
     }
 
     /**
@@ -135,6 +717,7 @@ public abstract class BaseService extends QueryService {
     public <T extends BaseEntity> void remove(T entity) {
         EntityManager em = getEm();
         BaseEntity ref = em.getReference(entity.getClass(), entity.getId());
+        invalidate(em, entity.getClass(), entity.getId());
         em.remove(ref);
     }
 
@@ -152,6 +735,14 @@ public abstract class BaseService extends QueryService {
      */
     public <T> boolean removeByParams(Class<T> entityClass, PredicateClause predicateClause) {
         EntityManager em = getEm();
+        invalidateAll(em, entityClass);
+        if (cacheQueryTemplates()) {
+            PredicateTemplate template = template(em, predicateClause);
+            String jpql = statement("delete " + entityName(em, entityClass) + condition(template), () -> "delete from " + entityName(em, entityClass) + " " + PredicateTemplate.ALIAS + where(em, entityClass, template));
+            try (InListStaging staging = new InListStaging(em)) {
+                return bind(em.createQuery(jpql), em, entityClass, template, predicateClause, staging).executeUpdate() > 0;
+            }
+        }
         CriteriaBuilder cb = em.getCriteriaBuilder();
         CriteriaDelete<T> delete = cb.createCriteriaDelete(entityClass);
         Root<T> root = delete.from(entityClass);
@@ -168,6 +759,97 @@ public abstract class BaseService extends QueryService {
         return false;
     }
 
+    /**
+     * Removes the items matching predicateClause in chunks: the ids of the next chunk are read in id order and deleted by a bounded {@code IN} statement, until no item is left. Each statement locks at most {@link ChunkedDelete#getChunkSize()} rows, and the transaction can be committed
+     * between chunks. Like {@link #removeByParams(Class, PredicateClause)}, cascades are not applied and entities already managed are not detached.
+     * 
+     * @param entityClass
+     *            - Entity (table) which item(s) should be removed.
+     * @param predicateClause
+     *            - Where condition to select and remove items, <b>null</b> removes every item
+     * @param chunks
+     *            - chunk size, commits, pauses and progress of the delete
+     * @return rows deleted
+     * @see ChunkedDelete
+     */
+    public <T extends BaseEntity> long removeInChunks(Class<T> entityClass, PredicateClause predicateClause, ChunkedDelete chunks) {
+        EntityManager em = getEm();
+        invalidateAll(em, entityClass);
+        int chunkSize = chunks.getChunkSize();
+        PredicateTemplate template = template(em, predicateClause);
+        String alias = PredicateTemplate.ALIAS;
+        String jpql = statement("chunkIds " + entityClass.getName() + condition(template),
+                () -> "select " + alias + ".id from " + entityName(em, entityClass) + " " + alias + " where " + (template == null ? "" : "(" + condition(em, entityClass, template) + ") and ") + alias + ".id > :last order by " + alias + ".id");
+        long deleted = 0;
+        Long last = Long.MIN_VALUE;
+        List<Long> ids;
+        do {
+            try (InListStaging staging = new InListStaging(em)) {
+                ids = bind(em.createQuery(jpql, Long.class), em, entityClass, template, predicateClause, staging).setParameter("last", last).setMaxResults(chunkSize).getResultList();
+            }
+            if (ids.isEmpty()) {
+                break;
+            }
+            deleted += removeByIds(em, entityClass, ids, chunkSize);
+            last = ids.get(ids.size() - 1);
+            chunks.chunkDeleted(em, deleted, ids.size() == chunkSize);
+        } while (ids.size() == chunkSize);
+        return deleted;
+    }
+
+    /**
+     * Removes the items by id with {@code IN} statements of up to {@link #inListChunkSize()} ids, instead of a {@link #remove(BaseEntity)} per item. See {@link #removeAll(Collection, ChunkedDelete)}
+     * 
+     * @param items
+     *            - items to remove
+     * @return rows deleted
+     */
+    public <T extends BaseEntity> long removeAll(Collection<T> items) {
+        return removeAll(items, ChunkedDelete.of(inListChunkSize()));
+    }
+
+    /**
+     * Removes the items by id, grouped by entity class, with {@code IN} statements of up to {@link ChunkedDelete#getChunkSize()} ids, each list padded to the next power of two (repeating its last id) so few distinct statements are prepared. Items without id are ignored and managed items
+     * are detached. Cascades and orphan removals of the mapping are not applied.
+     * 
+     * @param items
+     *            - items to remove
+     * @param chunks
+     *            - chunk size, commits, pauses and progress of the delete
+     * @return rows deleted
+     * @see ChunkedDelete
+     */
+    public <T extends BaseEntity> long removeAll(Collection<T> items, ChunkedDelete chunks) {
+        EntityManager em = getEm();
+        Map<Class<?>, List<Long>> byClass = new LinkedHashMap<>();
+        for (T item : items) {
+            if (item.getId() != null) {
+                invalidate(em, item.getClass(), item.getId());
+                byClass.computeIfAbsent(item.getClass(), type -> new ArrayList<>()).add(item.getId());
+                if (em.contains(item)) {
+                    em.detach(item);
+                }
+            }
+        }
+        int chunkSize = chunks.getChunkSize();
+        long deleted = 0;
+        int classes = byClass.size();
+        for (Map.Entry<Class<?>, List<Long>> group : byClass.entrySet()) {
+            classes--;
+            List<Long> ids = new ArrayList<>(new LinkedHashSet<>(group.getValue()));
+            for (int i = 0; i < ids.size(); i += chunkSize) {
+                deleted += removeByIds(em, group.getKey(), ids.subList(i, Math.min(ids.size(), i + chunkSize)), chunkSize);
+                chunks.chunkDeleted(em, deleted, classes > 0 || i + chunkSize < ids.size());
+            }
+        }
+        return deleted;
+    }
+
+    private int removeByIds(EntityManager em, Class<?> entityClass, List<Long> ids, int chunkSize) {
+        String jpql = statement("deleteIds " + entityClass.getName(), () -> "delete from " + entityName(em, entityClass) + " " + PredicateTemplate.ALIAS + " where " + PredicateTemplate.ALIAS + ".id in (:ids)");
+        return em.createQuery(jpql).setParameter("ids", padded(ids, chunkSize)).executeUpdate();
+    }
+
     /**
      * Method responsible to update all items according to desired arguments.
      * 
@@ -185,13 +867,17 @@ public abstract class BaseService extends QueryService {
 
     public <T> boolean updateByParams(Class<T> entityClass, Map<String, Object> values, PredicateClause predicateClause) {
         EntityManager em = getEm();
+        if (values == null || values.isEmpty()) {
+            throw new IllegalArgumentException("You must set values to update");
+        }
+        invalidateAll(em, entityClass);
+        if (cacheQueryTemplates()) {
+            return updateByTemplate(em, entityClass, values, predicateClause);
+        }
         CriteriaBuilder cb = em.getCriteriaBuilder();
         CriteriaUpdate<T> update = cb.createCriteriaUpdate(entityClass);
         Root<T> root = update.from(entityClass);
 
-        if (values == null || values.isEmpty()) {
-            throw new IllegalArgumentException("You must set values to update");
-        }
         values.forEach((k, v) -> update.set(k, v));
         if (predicateClause != null) {
             List<Predicate> predicates = predicateClause.generator(root, cb);
@@ -208,65 +894,587 @@ public abstract class BaseService extends QueryService {
         return false;
     }
 
-    // ***************************************************************************
-    // ----------------------------- SEARCH QUERIES ----------------------------- //
-    // ***************************************************************************
+    private <T> boolean updateByTemplate(EntityManager em, Class<T> entityClass, Map<String, Object> values, PredicateClause predicateClause) {
+        if (predicateClause == null) {
+            LOGGER.debug("Be careful, you just entered on Isaac mode");
+        }
+        List<String> fields = new ArrayList<>(values.keySet());
+        PredicateTemplate template = template(em, predicateClause);
+        String jpql = statement("update " + entityName(em, entityClass) + fields + condition(template), () -> {
+            StringBuilder update = new StringBuilder("update ").append(entityName(em, entityClass)).append(' ').append(PredicateTemplate.ALIAS).append(" set ");
+            for (int i = 0; i < fields.size(); i++) {
+                update.append(i > 0 ? ", " : "").append(PredicateTemplate.ALIAS).append('.').append(checkAttribute(em, entityClass, fields.get(i))).append(" = :v").append(i);
+            }
+            return update.append(where(em, entityClass, template)).toString();
+        });
+        try (InListStaging staging = new InListStaging(em)) {
+            Query query = bind(em.createQuery(jpql), em, entityClass, template, predicateClause, staging);
+            for (int i = 0; i < fields.size(); i++) {
+                query.setParameter("v" + i, PredicateTemplate.convert(values.get(fields.get(i)), attributeType(em, entityClass, fields.get(i))));
+            }
+            return query.executeUpdate() > 0;
+        }
+    }
+
+    /**
+     * Applies many updates of an entity class, each with its own values, with few statements instead of an {@link #updateByParams(Class, Map, PredicateClause)} per update. Updates are grouped by the fields they change, and each group is sent in chunks of up to
+     * {@link #inListChunkSize()} bound values:
+     * <ul>
+     * <li>updates by id as <b>set e.field = case e.id when :i0 then :v0_0 ... else e.field end where e.id in (:ids)</b>, each chunk padded to the next power of two (repeating its last id) so few distinct statements are prepared</li>
+     * <li>updates by condition, in the order they were added, grouping each run of consecutive updates of the same fields and {@link PredicateTemplate#shape(PredicateClause) shape} as <b>set e.field = case when (condition1) then :v1_0 when (condition0) then :v0_0 else e.field end
+     * where (condition0) or (condition1)</b></li>
+     * </ul>
+     * Updates by id run before updates by condition. Conditions see the rows as they were before their statement, and a row matched by many updates takes the values of the last one added, as if they had been run one by one. Interleaving updates of different fields or shapes
+     * splits them in more statements.
+     * 
+     * @param entityClass
+     *            - Entity (table) which items should be updated.
+     * @param updates
+     *            - values of each id or condition
+     * @return rows updated by all statements
+     * @see BulkUpdate
+     */
+    public <T> int updateBatch(Class<T> entityClass, BulkUpdate updates) {
+        if (updates == null || updates.size() == 0) {
+            return 0;
+        }
+        EntityManager em = getEm();
+        invalidateAll(em, entityClass);
+        int updated = 0;
+        Map<List<String>, List<Long>> byId = new LinkedHashMap<>();
+        updates.getById().forEach((id, values) -> byId.computeIfAbsent(fields(values), fields -> new ArrayList<>()).add(id));
+        for (Map.Entry<List<String>, List<Long>> group : byId.entrySet()) {
+            updated += updateByIds(em, entityClass, group.getKey(), group.getValue(), updates.getById());
+        }
+        try (InListStaging staging = new InListStaging(em)) {
+            // only consecutive updates are grouped, so an update never runs before one added ahead of it
+            List<String> key = null;
+            List<BulkUpdate.Where> run = new ArrayList<>();
+            for (BulkUpdate.Where where : updates.getWhere()) {
+                List<String> whereKey = new ArrayList<>(fields(where.getValues()));
+                whereKey.add(template(em, where.getPredicateClause()).getShape());
+                if (!whereKey.equals(key) && !run.isEmpty()) {
+                    updated += updateByConditions(em, staging, entityClass, key.subList(0, key.size() - 1), run);
+                    run = new ArrayList<>();
+                }
+                key = whereKey;
+                run.add(where);
+            }
+            if (!run.isEmpty()) {
+                updated += updateByConditions(em, staging, entityClass, key.subList(0, key.size() - 1), run);
+            }
+        }
+        return updated;
+    }
+
+    private <T> int updateByIds(EntityManager em, Class<T> entityClass, List<String> fields, List<Long> ids, Map<Long, Map<String, Object>> values) {
+        // each row binds its id in the case of every field and in the id list, plus a value per field
+        int chunkSize = Math.max(1, inListChunkSize() / (2 * fields.size() + 1));
+        int updated = 0;
+        for (int i = 0; i < ids.size(); i += chunkSize) {
+            List<Long> chunk = padded(ids.subList(i, Math.min(ids.size(), i + chunkSize)), chunkSize);
+            String jpql = statement("updateIds " + entityClass.getName() + fields + chunk.size(), () -> {
+                String alias = PredicateTemplate.ALIAS;
+                StringBuilder update = new StringBuilder("update ").append(entityName(em, entityClass)).append(' ').append(alias).append(" set ");
+                for (int f = 0; f < fields.size(); f++) {
+                    String field = alias + "." + checkAttribute(em, entityClass, fields.get(f));
+                    update.append(f > 0 ? ", " : "").append(field).append(" = case ").append(alias).append(".id");
+                    for (int row = 0; row < chunk.size(); row++) {
+                        update.append(" when :i").append(row).append(" then :v").append(row).append('_').append(f);
+                    }
+                    update.append(" else ").append(field).append(" end");
+                }
+                return update.append(" where ").append(alias).append(".id in (:ids)").toString();
+            });
+            Query query = em.createQuery(jpql).setParameter("ids", chunk);
+            for (int row = 0; row < chunk.size(); row++) {
+                query.setParameter("i" + row, chunk.get(row));
+                Map<String, Object> rowValues = values.get(chunk.get(row));
+                for (int f = 0; f < fields.size(); f++) {
+                    query.setParameter("v" + row + "_" + f, rowValues.get(fields.get(f)));
+                }
+            }
+            updated += query.executeUpdate();
+        }
+        return updated;
+    }
+
+    private <T> int updateByConditions(EntityManager em, InListStaging staging, Class<T> entityClass, List<String> fields, List<BulkUpdate.Where> updates) {
+        PredicateTemplate template = template(em, updates.get(0).getPredicateClause());
+        // each row binds its condition in the case of every field and in the where clause, plus a value per field
+        int values = template.countValues(updates.get(0).getPredicateClause());
+        int chunkSize = Math.max(1, inListChunkSize() / (fields.size() * (values + 1) + values));
+        int updated = 0;
+        for (int i = 0; i < updates.size(); i += chunkSize) {
+            List<BulkUpdate.Where> chunk = updates.subList(i, Math.min(updates.size(), i + chunkSize));
+            String jpql = statement("updateWhere " + entityClass.getName() + fields + template.getShape() + chunk.size(), () -> {
+                checkAttributes(em, entityClass, template);
+                String alias = PredicateTemplate.ALIAS;
+                StringBuilder update = new StringBuilder("update ").append(entityName(em, entityClass)).append(' ').append(alias).append(" set ");
+                for (int f = 0; f < fields.size(); f++) {
+                    String field = alias + "." + checkAttribute(em, entityClass, fields.get(f));
+                    update.append(f > 0 ? ", " : "").append(field).append(" = case");
+                    for (int row = chunk.size() - 1; row >= 0; row--) {
+                        update.append(" when (").append(template.getCondition("w" + row + "_")).append(") then :v").append(row).append('_').append(f);
+                    }
+                    update.append(" else ").append(field).append(" end");
+                }
+                update.append(" where ");
+                for (int row = 0; row < chunk.size(); row++) {
+                    update.append(row > 0 ? " or (" : "(").append(template.getCondition("w" + row + "_")).append(')');
+                }
+                return update.toString();
+            });
+            Query query = em.createQuery(jpql);
+            for (int row = 0; row < chunk.size(); row++) {
+                BulkUpdate.Where where = chunk.get(row);
+                bind(query, em, entityClass, template, where.getPredicateClause(), staging, "w" + row + "_");
+                for (int f = 0; f < fields.size(); f++) {
+                    query.setParameter("v" + row + "_" + f, where.getValues().get(fields.get(f)));
+                }
+            }
+            updated += query.executeUpdate();
+        }
+        return updated;
+    }
+
+    /**
+     * Sorted fields of the values, the key of their update group
+     */
+    private static List<String> fields(Map<String, Object> values) {
+        return new ArrayList<>(new TreeSet<>(values.keySet()));
+    }
+
+    // ***************************************************************************
+    // ----------------------------- SEARCH QUERIES ----------------------------- //
+    // ***************************************************************************
+    /**
+     * Search on table by id value. The {@link #entityCache()} and the {@link #negativeLookupFilter()}, when enabled, are read before the database. An entity read from the cache is a new detached copy; save it to write its changes.
+     * 
+     * @param entityClass
+     *            - Entity (table) to be searched.
+     * @param id
+     *            - value condition to seek
+     * @return - Object Encapsulated on {@link Optional} interface based on entityClass type
+     * @author victor.bello
+     * @see Optional
+     */
+    public <T extends BaseEntity> Optional<T> findById(Class<T> entityClass, Object id) {
+        EntityCache cache = entityCache();
+        EntityManager em = getEm();
+        if (cache == null || !cache.isCached(entityClass) || !cache.supports(em, entityClass)) {
+            return mightExist(entityClass, id) ? Optional.ofNullable(findByIdUncached(entityClass, id)) : Optional.empty();
+        }
+        T entity = findInPersistenceContext(em, entityClass, id);
+        if (entity == null) {
+            entity = cache.get(em, entityClass, id);
+        }
+        if (entity == null && mightExist(entityClass, id)) {
+            long generation = cache.generation(entityClass);
+            entity = findByIdUncached(entityClass, id);
+            if (entity != null) {
+                cache.put(em, entityClass, id, entity, generation);
+            }
+        }
+        return Optional.ofNullable(entity);
+    }
+
+    private <T extends BaseEntity> T findByIdUncached(Class<T> entityClass, Object id) {
+        if (!coalesceFindById()) {
+            return loadById(entityClass, id);
+        }
+        return FIND_BY_ID.execute(new ContextKey(getEm(), entityClass, id), () -> loadById(entityClass, id));
+    }
+
+    /**
+     * Search on table by id value, loading the associations of the fetch plan with it. Coalescing and batching of {@link #findById(Class, Object)} do not apply.
+     * 
+     * @param entityClass
+     *            - Entity (table) to be searched.
+     * @param id
+     *            - value condition to seek
+     * @param fetchPlan
+     *            - associations to load, may be <b>null</b>
+     * @return - Object Encapsulated on {@link Optional} interface based on entityClass type
+     * @see FetchPlan
+     */
+    public <T extends BaseEntity> Optional<T> findById(Class<T> entityClass, Object id, FetchPlan fetchPlan) {
+        if (fetchPlan == null) {
+            return findById(entityClass, id);
+        }
+        EntityManager em = getEm();
+        Map<String, Object> hints = fetchPlan.hints(em, entityClass);
+        if (!hints.isEmpty()) {
+            return Optional.ofNullable(em.find(entityClass, id, hints));
+        }
+        List<T> resultList = findAllByParams(entityClass, PredicateBuilder.where("id", id).build(), fetchPlan);
+        return resultList.isEmpty() ? Optional.empty() : Optional.of(resultList.get(0));
+    }
+
+    /**
+     * Creates a loader which registers ids and loads all of them with a single {@code IN} query (per {@link #inListChunkSize()} ids) when the first result is requested.
+     * 
+     * @param entityClass
+     *            - Entity (table) to be searched.
+     * @return {@link FindByIdLoader} bound to this service {@code EntityManager}
+     */
+    public <T extends BaseEntity> FindByIdLoader<T> findByIdLoader(Class<T> entityClass) {
+        EntityManager em = getEm();
+        return new FindByIdLoader<>(ids -> loadByIds(em, entityClass, ids));
+    }
+
+    private <T extends BaseEntity> T loadById(Class<T> entityClass, Object id) {
+        long window = findByIdBatchWindowMillis();
+        if (window <= 0 || !(id instanceof Number)) {
+            return getEm().find(entityClass, id);
+        }
+        EntityManager em = getEm();
+        return FIND_BY_ID_BATCHES.load(new ContextKey(em, entityClass, null), ((Number) id).longValue(), window, inListChunkSize(), ids -> loadByIds(em, entityClass, ids));
+    }
+
+    /**
+     * Search on table by many id values. Ids already managed by the persistence context are returned without a query; the others are loaded by {@code IN} queries of up to {@link #inListChunkSize()} ids, each list padded to the next power of two (repeating its last id) so few
+     * distinct statements are prepared.
+     * 
+     * @param entityClass
+     *            - Entity (table) to be searched.
+     * @param ids
+     *            - values condition to seek
+     * @return entities found keyed by id. Ids not found are absent
+     * @see #findInPersistenceContext(EntityManager, Class, Object)
+     */
+    public <T extends BaseEntity> Map<Long, T> findByIds(Class<T> entityClass, Collection<Long> ids) {
+        return findByIds(entityClass, ids, 1);
+    }
+
+    /**
+     * Same as {@link #findByIds(Class, Collection)}, loading up to <b>parallelism</b> chunks at the same time. Parallel chunks are loaded by EntityManagers of {@link #createEntityManager()}, so their entities are returned <b>detached</b>; with a single chunk or a parallelism of <b>1</b>
+     * everything is loaded by {@link #getEm()}.
+     * 
+     * @param entityClass
+     *            - Entity (table) to be searched.
+     * @param ids
+     *            - values condition to seek
+     * @param parallelism
+     *            - maximum chunks loaded at the same time
+     * @return entities found keyed by id. Ids not found are absent
+     */
+    public <T extends BaseEntity> Map<Long, T> findByIds(Class<T> entityClass, Collection<Long> ids, int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be greater than zero");
+        }
+        Map<Long, T> found = new HashMap<>();
+        if (ids == null || ids.isEmpty()) {
+            return found;
+        }
+        EntityManager em = getEm();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            T managed = id == null ? null : findInPersistenceContext(em, entityClass, id);
+            if (managed != null) {
+                found.put(id, managed);
+            } else if (id != null && mightExist(entityClass, id)) {
+                missing.add(id);
+            }
+        }
+        int chunkSize = inListChunkSize();
+        int chunks = (missing.size() + chunkSize - 1) / chunkSize;
+        if (parallelism == 1 || chunks <= 1) {
+            found.putAll(loadByIds(em, entityClass, missing));
+            return found;
+        }
+        ExecutorService executor = newExecutor("geraldao-find-", Math.min(parallelism, chunks));
+        try {
+            List<Future<Map<Long, T>>> futures = new ArrayList<>();
+            for (int i = 0; i < missing.size(); i += chunkSize) {
+                List<Long> chunk = missing.subList(i, Math.min(missing.size(), i + chunkSize));
+                futures.add(executor.submit(() -> {
+                    EntityManager chunkEm = createEntityManager();
+                    try {
+                        return loadByIds(chunkEm, entityClass, chunk);
+                    } finally {
+                        chunkEm.close();
+                    }
+                }));
+            }
+            for (Future<Map<Long, T>> future : futures) {
+                found.putAll(future.get());
+            }
+            return found;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading " + entityClass.getSimpleName() + " ids", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private <T extends BaseEntity> Map<Long, T> loadByIds(EntityManager em, Class<T> entityClass, Collection<Long> ids) {
+        Map<Long, T> found = new HashMap<>();
+        List<Long> values = new ArrayList<>(ids);
+        int chunkSize = inListChunkSize();
+        String jpql = statement("ids " + entityClass.getName(), () -> "select e from " + entityName(em, entityClass) + " e where e.id in (:ids)");
+        for (int i = 0; i < values.size(); i += chunkSize) {
+            List<Long> chunk = padded(values.subList(i, Math.min(values.size(), i + chunkSize)), chunkSize);
+            for (T entity : em.createQuery(jpql, entityClass).setParameter("ids", chunk).getResultList()) {
+                found.put(entity.getId(), entity);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Pads the chunk to the next power of two, up to the chunk size, repeating its last id
+     */
+    private static List<Long> padded(List<Long> chunk, int chunkSize) {
+        int size = Math.min(chunkSize, Integer.highestOneBit(Math.max(1, chunk.size() - 1)) << 1);
+        if (chunk.size() <= 1 || chunk.size() >= size) {
+            return chunk;
+        }
+        List<Long> padded = new ArrayList<>(size);
+        padded.addAll(chunk);
+        Long last = chunk.get(chunk.size() - 1);
+        while (padded.size() < size) {
+            padded.add(last);
+        }
+        return padded;
+    }
+
+    /**
+     * Method responsible to retrieve the <b>first</b> result on a table with its result ordered and filtered
+     * 
+     * @param entityClass
+     *            - Entity (table) to be searched.
+     * @param predicateClause
+     *            - Where condition to filter
+     * @param order
+     *            - Return ordem of the results. {@link QueryOrder#ASC} will return the result in ascending order. The {@link QueryOrder#DESC} will return the result in descending order.
+     * @param columns
+     *            - When {@link QueryOrder} is passed by argument, this argument becomes required. This parameter informs the columns which should ordered by
+     * @return - Returns the <b>FIRST</b> item found encapsulated on {@link Optional} interface based on entityClass type
+     * @author victor.bello
+     * @see PredicateClause
+     * @see PredicateBuilder
+     */
+    public <T extends BaseEntity> Optional<T> findFirstOrderedByParams(Class<T> entityClass, PredicateClause predicateClause, QueryOrder order, String... columns) {
+        return findFirstOrderedByParams(entityClass, predicateClause, null, order, columns);
+    }
+
+    /**
+     * Method responsible to retrieve the <b>first</b> result on a table with its result ordered and filtered, loading the associations of the fetch plan with it
+     * 
+     * @param entityClass
+     *            - Entity (table) to be searched.
+     * @param predicateClause
+     *            - Where condition to filter
+     * @param fetchPlan
+     *            - associations to load, may be <b>null</b>
+     * @param order
+     *            - Return ordem of the results. {@link QueryOrder#ASC} will return the result in ascending order. The {@link QueryOrder#DESC} will return the result in descending order.
+     * @param columns
+     *            - When {@link QueryOrder} is passed by argument, this argument becomes required. This parameter informs the columns which should ordered by
+     * @return - Returns the <b>FIRST</b> item found encapsulated on {@link Optional} interface based on entityClass type
+     * @see FetchPlan
+     */
+    public <T extends BaseEntity> Optional<T> findFirstOrderedByParams(Class<T> entityClass, PredicateClause predicateClause, FetchPlan fetchPlan, QueryOrder order, String... columns) {
+        return findFirstOrderedByParams(entityClass, predicateClause, fetchPlan, readMode(), order, columns);
+    }
+
+    /**
+     * Method responsible to retrieve the <b>first</b> result on a table with its result ordered and filtered, kept by the persistence context as the read mode says
+     * 
+     * @param entityClass
+     *            - Entity (table) to be searched.
+     * @param predicateClause
+     *            - Where condition to filter
+     * @param fetchPlan
+     *            - associations to load, may be <b>null</b>
+     * @param readMode
+     *            - how the result is kept by the persistence context, <b>null</b> for the {@link #readMode()} of the service
+     * @param order
+     *            - Return ordem of the results. {@link QueryOrder#ASC} will return the result in ascending order. The {@link QueryOrder#DESC} will return the result in descending order.
+     * @param columns
+     *            - When {@link QueryOrder} is passed by argument, this argument becomes required. This parameter informs the columns which should ordered by
+     * @return - Returns the <b>FIRST</b> item found encapsulated on {@link Optional} interface based on entityClass type
+     * @see ReadMode
+     */
+    public <T extends BaseEntity> Optional<T> findFirstOrderedByParams(Class<T> entityClass, PredicateClause predicateClause, FetchPlan fetchPlan, ReadMode readMode, QueryOrder order, String... columns) {
+        EntityManager em = getEm();
+        ReadMode mode = readMode == null ? readMode() : readMode;
+        List<T> resultList;
+        try (InListStaging staging = new InListStaging(em)) {
+            resultList = selectQuery(em, staging, entityClass, predicateClause, fetchPlan, mode, order, columns).setFirstResult(0).setMaxResults(1).getResultList();
+        }
+        return resultList == null || resultList.isEmpty() ? Optional.empty() : Optional.ofNullable(read(em, resultList, mode).get(0));
+    }
+
+    /**
+     * Method responsible to retrieve the <b>first</b> result on a table with its result filtered
+     * 
+     * @param entityClass
+     *            - Entity (table) to be searched.
+     * @param predicateClause
+     *            - Where condition to filter
+     * @return - Returns the <b>FIRST</b> item found encapsulated on {@link Optional} interface based on entityClass type
+     * @author victor.bello
+     * @see PredicateClause
+     * @see PredicateBuilder
+     */
+    public <T extends BaseEntity> Optional<T> findFirstByParams(Class<T> entityClass, PredicateClause predicateClause) {
+        return findFirstOrderedByParams(entityClass, predicateClause, null);
+    }
+
+    /**
+     * Method responsible to retrieve the <b>first</b> result on a table with its result ordered
+     * 
+     * @param entityClass
+     *            - Entity (table) to be searched.
+     * @param order
+     *            - Return ordem of the results. {@link QueryOrder#ASC} will return the result in ascending order. The {@link QueryOrder#DESC} will return the result in descending order.
+     * @param columns
+     *            - When {@link QueryOrder} is passed by argument, this argument becomes required. This parameter informs the columns which should ordered by
+     * @return - Returns the <b>FIRST</b> item found encapsulated on {@link Optional} interface based on entityClass type
+     * @author victor.bello
+     * 
+     */
+    public <T extends BaseEntity> Optional<T> findFirstOrdered(Class<T> entityClass, QueryOrder order, String... columns) {
+        return findFirstOrderedByParams(entityClass, null, order, columns);
+    }
+
+    /**
+     * Method responsible to retrieve the <b>first</b> result on a table
+     * 
+     * @param entityClass
+     *            - Entity (table) to be searched.
+     * @return - Returns the <b>FIRST</b> item found encapsulated on {@link Optional} interface based on entityClass type
+     * @author victor.bello
+     */
+    public <T extends BaseEntity> Optional<T> findFirst(Class<T> entityClass) {
+        return findFirstOrderedByParams(entityClass, null, null);
+    }
+
+    /**
+     * Method responsible to retrieve the all results on a table
+     * 
+     * @param entityClass
+     *            - Entity (table) to be searched.
+     * @return - All items found or an empty list
+     * @see Collections#emptyList()
+     */
+    public <T extends BaseEntity> List<T> findAll(Class<T> entityClass) {
+        return findAllOrderedByParams(entityClass, null, null);
+    }
+
+    /**
+     * Method responsible to retrieve <b>all</b> results on a table with its result ordered and filtered
+     * 
+     * @param entityClass
+     *            - Entity (table) to be searched.
+     * @param predicateClause
+     *            - Where condition to filter
+     * @param order
+     *            - Return ordem of the results. {@link QueryOrder#ASC} will return the result in ascending order. The {@link QueryOrder#DESC} will return the result in descending order.
+     * @param columns
+     *            - When {@link QueryOrder} is passed by argument, this argument becomes required. This parameter informs the columns which should ordered by
+     * @return - All items found or an empty list
+     * @author victor.bello
+     * @see PredicateClause
+     * @see PredicateBuilder
+     * @see Collections#emptyList()
+     */
+    public <T extends BaseEntity> List<T> findAllOrderedByParams(Class<T> entityClass, PredicateClause predicateClause, QueryOrder order, String... columns) {
+        return findAllOrderedByParams(entityClass, predicateClause, null, order, columns);
+    }
+
     /**
-     * Search on table by id value
+     * Method responsible to retrieve <b>all</b> results on a table with its result ordered and filtered, loading the associations of the fetch plan with them
      * 
      * @param entityClass
      *            - Entity (table) to be searched.
-     * @param id
-     *            - value condition to seek
-     * @return - Object Encapsulated on {@link Optional} interface based on entityClass type
-     * @author victor.bello
-     * @see Optional
+     * @param predicateClause
+     *            - Where condition to filter
+     * @param fetchPlan
+     *            - associations to load, may be <b>null</b>
+     * @param order
+     *            - Return ordem of the results. {@link QueryOrder#ASC} will return the result in ascending order. The {@link QueryOrder#DESC} will return the result in descending order.
+     * @param columns
+     *            - When {@link QueryOrder} is passed by argument, this argument becomes required. This parameter informs the columns which should ordered by
+     * @return - All items found or an empty list
+     * @see FetchPlan
      */
-    public <T extends BaseEntity> Optional<T> findById(Class<T> entityClass, Object id) {
-        return Optional.ofNullable(getEm().find(entityClass, id));
+    public <T extends BaseEntity> List<T> findAllOrderedByParams(Class<T> entityClass, PredicateClause predicateClause, FetchPlan fetchPlan, QueryOrder order, String... columns) {
+        return findAllOrderedByParams(entityClass, predicateClause, fetchPlan, readMode(), order, columns);
     }
 
     /**
-     * Method responsible to retrieve the <b>first</b> result on a table with its result ordered and filtered
+     * Method responsible to retrieve <b>all</b> results on a table with its result ordered and filtered, kept by the persistence context as the read mode says. EG, for a read-only endpoint of a service whose entities are otherwise managed:
+     * 
+     * <pre>
+     * service.findAllOrderedByParams(User.class, predicate, null, ReadMode.DETACHED, QueryOrder.ASC, "name");
+     * </pre>
      * 
      * @param entityClass
      *            - Entity (table) to be searched.
      * @param predicateClause
      *            - Where condition to filter
+     * @param fetchPlan
+     *            - associations to load, may be <b>null</b>
+     * @param readMode
+     *            - how the results are kept by the persistence context, <b>null</b> for the {@link #readMode()} of the service
      * @param order
      *            - Return ordem of the results. {@link QueryOrder#ASC} will return the result in ascending order. The {@link QueryOrder#DESC} will return the result in descending order.
      * @param columns
      *            - When {@link QueryOrder} is passed by argument, this argument becomes required. This parameter informs the columns which should ordered by
-     * @return - Returns the <b>FIRST</b> item found encapsulated on {@link Optional} interface based on entityClass type
-     * @author victor.bello
-     * @see PredicateClause
-     * @see PredicateBuilder
+     * @return - All items found or an empty list
+     * @see ReadMode
      */
-    public <T extends BaseEntity> Optional<T> findFirstOrderedByParams(Class<T> entityClass, PredicateClause predicateClause, QueryOrder order, String... columns) {
+    public <T extends BaseEntity> List<T> findAllOrderedByParams(Class<T> entityClass, PredicateClause predicateClause, FetchPlan fetchPlan, ReadMode readMode, QueryOrder order, String... columns) {
         EntityManager em = getEm();
-        CriteriaQuery<T> cq = generateSelectQuery(em, entityClass, predicateClause, order, columns);
-        List<T> resultList = em.createQuery(cq).setFirstResult(0).setMaxResults(1).getResultList();
-        return resultList == null || resultList.isEmpty() ? Optional.empty() : Optional.ofNullable(resultList.get(0));
+        ReadMode mode = readMode == null ? readMode() : readMode;
+        List<T> resultList;
+        try (InListStaging staging = new InListStaging(em)) {
+            resultList = selectQuery(em, staging, entityClass, predicateClause, fetchPlan, mode, order, columns).getResultList();
+        }
+        return resultList == null ? Collections.emptyList() : read(em, resultList, mode);
     }
 
     /**
-     * Method responsible to retrieve the <b>first</b> result on a table with its result filtered
+     * Method responsible to retrieve <b>all</b> results on a table with its result filtered, loading the associations of the fetch plan with them
      * 
      * @param entityClass
      *            - Entity (table) to be searched.
      * @param predicateClause
      *            - Where condition to filter
-     * @return - Returns the <b>FIRST</b> item found encapsulated on {@link Optional} interface based on entityClass type
+     * @param fetchPlan
+     *            - associations to load, may be <b>null</b>
+     * @return - All items found or an empty list
+     * @see FetchPlan
+     */
+    public <T extends BaseEntity> List<T> findAllByParams(Class<T> entityClass, PredicateClause predicateClause, FetchPlan fetchPlan) {
+        return findAllOrderedByParams(entityClass, predicateClause, fetchPlan, null);
+    }
+
+    /**
+     * Method responsible to retrieve <b>all</b> results on a table with its result filtered
+     * 
+     * @param entityClass
+     *            - Entity (table) to be searched.
+     * @param predicateClause
+     *            - Where condition to filter
+     * @return - All items found or an empty list
      * @author victor.bello
      * @see PredicateClause
      * @see PredicateBuilder
+     * @see Collections#emptyList()
      */
-    public <T extends BaseEntity> Optional<T> findFirstByParams(Class<T> entityClass, PredicateClause predicateClause) {
-        return findFirstOrderedByParams(entityClass, predicateClause, null);
+    public <T extends BaseEntity> List<T> findAllByParams(Class<T> entityClass, PredicateClause predicateClause) {
+        return findAllOrderedByParams(entityClass, predicateClause, null);
     }
 
     /**
-     * Method responsible to retrieve the <b>first</b> result on a table with its result ordered
+     * Method responsible to retrieve <b>all</b> results on a table with its result ordered
      * 
      * @param entityClass
      *            - Entity (table) to be searched.
@@ -274,96 +1482,213 @@ public abstract class BaseService extends QueryService {
      *            - Return ordem of the results. {@link QueryOrder#ASC} will return the result in ascending order. The {@link QueryOrder#DESC} will return the result in descending order.
      * @param columns
      *            - When {@link QueryOrder} is passed by argument, this argument becomes required. This parameter informs the columns which should ordered by
-     * @return - Returns the <b>FIRST</b> item found encapsulated on {@link Optional} interface based on entityClass type
+     * @return - All items found or an empty list
      * @author victor.bello
-     * 
+     * @see PredicateClause
+     * @see PredicateBuilder
+     * @see Collections#emptyList()
      */
-    public <T extends BaseEntity> Optional<T> findFirstOrdered(Class<T> entityClass, QueryOrder order, String... columns) {
-        return findFirstOrderedByParams(entityClass, null, order, columns);
+    public <T extends BaseEntity> List<T> findAllOrdered(Class<T> entityClass, QueryOrder order, String... columns) {
+        return findAllOrderedByParams(entityClass, null, order, columns);
     }
 
     /**
-     * Method responsible to retrieve the <b>first</b> result on a table
+     * Method responsible to retrieve <b>all</b> results on a table with its result ordered and filtered, reading only the attributes of the projection
      * 
      * @param entityClass
      *            - Entity (table) to be searched.
-     * @return - Returns the <b>FIRST</b> item found encapsulated on {@link Optional} interface based on entityClass type
-     * @author victor.bello
+     * @param projection
+     *            - attributes to read and how each result is built
+     * @param predicateClause
+     *            - Where condition to filter
+     * @param order
+     *            - Return ordem of the results. {@link QueryOrder#ASC} will return the result in ascending order. The {@link QueryOrder#DESC} will return the result in descending order.
+     * @param columns
+     *            - When {@link QueryOrder} is passed by argument, this argument becomes required. This parameter informs the columns which should ordered by
+     * @return - All items found or an empty list
+     * @see Projection
+     * @see PredicateClause
+     * @see PredicateBuilder
      */
-    public <T extends BaseEntity> Optional<T> findFirst(Class<T> entityClass) {
-        return findFirstOrderedByParams(entityClass, null, null);
+    public <T extends BaseEntity, R> List<R> findAllProjectedByParams(Class<T> entityClass, Projection<R> projection, PredicateClause predicateClause, QueryOrder order, String... columns) {
+        EntityManager em = getEm();
+        CriteriaQuery<R> cq = generateProjectedQuery(em, entityClass, projection, predicateClause, order, columns);
+        List<R> resultList = em.createQuery(cq).getResultList();
+        return resultList == null ? Collections.emptyList() : resultList;
     }
 
     /**
-     * Method responsible to retrieve the all results on a table
+     * Method responsible to retrieve <b>all</b> results on a table with its result filtered, reading only the attributes of the projection
      * 
      * @param entityClass
      *            - Entity (table) to be searched.
+     * @param projection
+     *            - attributes to read and how each result is built
+     * @param predicateClause
+     *            - Where condition to filter
      * @return - All items found or an empty list
-     * @see Collections#emptyList()
+     * @see Projection
      */
-    public <T extends BaseEntity> List<T> findAll(Class<T> entityClass) {
-        return findAllOrderedByParams(entityClass, null, null);
+    public <T extends BaseEntity, R> List<R> findAllProjectedByParams(Class<T> entityClass, Projection<R> projection, PredicateClause predicateClause) {
+        return findAllProjectedByParams(entityClass, projection, predicateClause, null);
     }
 
     /**
-     * Method responsible to retrieve <b>all</b> results on a table with its result ordered and filtered
+     * Method responsible to retrieve the <b>first</b> result on a table with its result ordered and filtered, reading only the attributes of the projection
      * 
      * @param entityClass
      *            - Entity (table) to be searched.
+     * @param projection
+     *            - attributes to read and how the result is built
      * @param predicateClause
      *            - Where condition to filter
      * @param order
      *            - Return ordem of the results. {@link QueryOrder#ASC} will return the result in ascending order. The {@link QueryOrder#DESC} will return the result in descending order.
      * @param columns
      *            - When {@link QueryOrder} is passed by argument, this argument becomes required. This parameter informs the columns which should ordered by
-     * @return - All items found or an empty list
-     * @author victor.bello
+     * @return - Returns the <b>FIRST</b> item found encapsulated on {@link Optional}
+     * @see Projection
+     */
+    public <T extends BaseEntity, R> Optional<R> findFirstProjectedByParams(Class<T> entityClass, Projection<R> projection, PredicateClause predicateClause, QueryOrder order, String... columns) {
+        EntityManager em = getEm();
+        CriteriaQuery<R> cq = generateProjectedQuery(em, entityClass, projection, predicateClause, order, columns);
+        List<R> resultList = em.createQuery(cq).setFirstResult(0).setMaxResults(1).getResultList();
+        return resultList == null || resultList.isEmpty() ? Optional.empty() : Optional.ofNullable(resultList.get(0));
+    }
+
+    /**
+     * Method responsible to retrieve one page of the results on a table with its result ordered and filtered, along with the total of results. The total is counted only when the page does not reveal it: a page with less than <b>size</b> items is the last one, so its total is
+     * known without counting. Otherwise a count query is run, or reused for {@link #pageCountTtlMillis()}.
+     * 
+     * @param entityClass
+     *            - Entity (table) to be searched.
+     * @param predicateClause
+     *            - Where condition to filter
+     * @param order
+     *            - Return ordem of the results. {@link QueryOrder#ASC} will return the result in ascending order. The {@link QueryOrder#DESC} will return the result in descending order.
+     * @param page
+     *            - page number, starting at <b>0</b>
+     * @param size
+     *            - maximum items per page
+     * @param columns
+     *            - columns to order by, which should be unique so pages do not overlap. <b>id</b> when none is informed
+     * @return - {@link Page} with the items found and the total
      * @see PredicateClause
      * @see PredicateBuilder
-     * @see Collections#emptyList()
      */
-    public <T extends BaseEntity> List<T> findAllOrderedByParams(Class<T> entityClass, PredicateClause predicateClause, QueryOrder order, String... columns) {
+    public <T extends BaseEntity> Page<T> findPage(Class<T> entityClass, PredicateClause predicateClause, QueryOrder order, int page, int size, String... columns) {
+        if (page < 0 || size <= 0) {
+            throw new IllegalArgumentException("Page must not be negative and size must be positive");
+        }
+        String[] orderBy = columns == null || columns.length == 0 ? new String[] { "id" } : columns;
         EntityManager em = getEm();
-        CriteriaQuery<T> cq = generateSelectQuery(em, entityClass, predicateClause, order, columns);
-        List<T> resultList = em.createQuery(cq).getResultList();
-        return resultList == null ? Collections.emptyList() : resultList;
+        long offset = (long) page * size;
+        if (offset > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Page " + page + " of size " + size + " is past the maximum offset");
+        }
+        ReadMode mode = readMode();
+        List<T> items;
+        try (InListStaging staging = new InListStaging(em)) {
+            items = read(em, selectQuery(em, staging, entityClass, predicateClause, null, mode, order == null ? QueryOrder.ASC : order, orderBy).setFirstResult((int) offset).setMaxResults(size).getResultList(), mode);
+        }
+        if (!items.isEmpty() && items.size() < size) {
+            return new Page<>(items, page, size, offset + items.size());
+        }
+        if (page == 0 && items.isEmpty()) {
+            return new Page<>(items, page, size, 0);
+        }
+        long ttl = pageCountTtlMillis();
+        List<Object> key = null;
+        if (ttl > 0) {
+            key = new ArrayList<>();
+            key.add(entityClass);
+            if (predicateClause != null) {
+                key.add(PredicateTemplate.shape(predicateClause));
+                key.addAll(PredicateTemplate.values(predicateClause));
+            }
+            Long total = PAGE_COUNTS.get(key);
+            if (total != null && total >= offset + items.size() && (!items.isEmpty() || total <= offset)) {
+                return new Page<>(items, page, size, total);
+            }
+        }
+        long total = count(em, entityClass, predicateClause);
+        if (key != null) {
+            PAGE_COUNTS.put(key, total, ttl);
+        }
+        return new Page<>(items, page, size, total);
+    }
+
+    private <T> long count(EntityManager em, Class<T> entityClass, PredicateClause predicateClause) {
+        if (cacheQueryTemplates()) {
+            PredicateTemplate template = template(em, predicateClause);
+            String jpql = statement("count " + entityClass.getName() + condition(template), () -> "select count(" + PredicateTemplate.ALIAS + ") from " + entityName(em, entityClass) + " " + PredicateTemplate.ALIAS + where(em, entityClass, template));
+            try (InListStaging staging = new InListStaging(em)) {
+                return bind(em.createQuery(jpql, Long.class), em, entityClass, template, predicateClause, staging).getSingleResult();
+            }
+        }
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Long> cq = cb.createQuery(Long.class);
+        Root<T> root = cq.from(entityClass);
+        cq.select(cb.count(root));
+        return em.createQuery(restrict(cb, cq, root, predicateClause, null)).getSingleResult();
     }
 
     /**
-     * Method responsible to retrieve <b>all</b> results on a table with its result filtered
+     * Streams <b>all</b> results on a table with its result filtered, ordered by id. See {@link #streamAllOrderedByParams(Class, PredicateClause, QueryOrder, String...)}
      * 
      * @param entityClass
      *            - Entity (table) to be searched.
      * @param predicateClause
      *            - Where condition to filter
-     * @return - All items found or an empty list
-     * @author victor.bello
+     * @return - Stream of the items found, which must be closed
      * @see PredicateClause
      * @see PredicateBuilder
-     * @see Collections#emptyList()
      */
-    public <T extends BaseEntity> List<T> findAllByParams(Class<T> entityClass, PredicateClause predicateClause) {
-        return findAllOrderedByParams(entityClass, predicateClause, null);
+    public <T extends BaseEntity> Stream<T> streamAllByParams(Class<T> entityClass, PredicateClause predicateClause) {
+        return streamAllOrderedByParams(entityClass, predicateClause, QueryOrder.ASC, "id");
     }
 
     /**
-     * Method responsible to retrieve <b>all</b> results on a table with its result ordered
+     * Streams <b>all</b> results on a table with its result ordered and filtered, without loading them all at once. Rows are read through a forward-only cursor fetching {@link #streamFetchSize()} rows per round trip (or page by page when the provider has no cursor), and every
+     * {@link #streamFetchSize()} entities the ones already returned are detached, so whole tables can be walked in constant memory. EG:
+     * 
+     * <pre>
+     * try (Stream&lt;User&gt; users = service.streamAllOrderedByParams(User.class, predicate, QueryOrder.ASC, "id")) {
+     *     users.forEach(...);
+     * }
+     * </pre>
+     * 
+     * Returned entities must not be kept managed nor modified expecting them to be saved, and the {@link #getEm()} must stay open until the stream is closed.
      * 
      * @param entityClass
      *            - Entity (table) to be searched.
+     * @param predicateClause
+     *            - Where condition to filter
      * @param order
      *            - Return ordem of the results. {@link QueryOrder#ASC} will return the result in ascending order. The {@link QueryOrder#DESC} will return the result in descending order.
      * @param columns
-     *            - When {@link QueryOrder} is passed by argument, this argument becomes required. This parameter informs the columns which should ordered by
-     * @return - All items found or an empty list
-     * @author victor.bello
+     *            - When {@link QueryOrder} is passed by argument, this argument becomes required. This parameter informs the columns which should ordered by. They should be unique when the provider has no cursor, as results are paged
+     * @return - Stream of the items found, which must be closed
      * @see PredicateClause
      * @see PredicateBuilder
-     * @see Collections#emptyList()
      */
-    public <T extends BaseEntity> List<T> findAllOrdered(Class<T> entityClass, QueryOrder order, String... columns) {
-        return findAllOrderedByParams(entityClass, null, order, columns);
+    public <T extends BaseEntity> Stream<T> streamAllOrderedByParams(Class<T> entityClass, PredicateClause predicateClause, QueryOrder order, String... columns) {
+        EntityManager em = getEm();
+        int fetchSize = streamFetchSize();
+        InListStaging staging = new InListStaging(em);
+        try {
+            TypedQuery<T> query = selectQuery(em, staging, entityClass, predicateClause, null, readMode(), order, columns);
+            query.setHint(HIBERNATE_FETCH_SIZE, fetchSize);
+            query.setHint(ECLIPSELINK_FETCH_SIZE, fetchSize);
+            return EntityCursor.stream(em, query, fetchSize).onClose(staging::close);
+        } catch (RuntimeException e) {
+            try {
+                staging.close();
+            } catch (RuntimeException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
     }
 
     /**
@@ -378,11 +1703,169 @@ public abstract class BaseService extends QueryService {
         return unitUtil.isLoaded(entity);
     }
 
-    private <T extends BaseEntity> CriteriaQuery<T> generateSelectQuery(EntityManager em, Class<T> entityClass, PredicateClause predicateClause, QueryOrder order, String... columns) {
+    private <T extends BaseEntity> TypedQuery<T> selectQuery(EntityManager em, InListStaging staging, Class<T> entityClass, PredicateClause predicateClause, FetchPlan fetchPlan, ReadMode readMode, QueryOrder order, String... columns) {
+        if (fetchPlan != null || !cacheQueryTemplates()) {
+            return readOnly(withHints(em.createQuery(generateSelectQuery(em, entityClass, predicateClause, fetchPlan, order, columns)), em, entityClass, fetchPlan), readMode);
+        }
+        if (order != null && columns == null) {
+            throw new IllegalArgumentException("You have chosen to order, but haven't passed which columns to order by");
+        }
+        PredicateTemplate template = template(em, predicateClause);
+        String key = "select " + entityName(em, entityClass) + condition(template) + (order != null ? order + Arrays.toString(columns) : "");
+        String jpql = statement(key, () -> {
+            StringBuilder select = new StringBuilder("select ").append(PredicateTemplate.ALIAS).append(" from ").append(entityName(em, entityClass)).append(' ').append(PredicateTemplate.ALIAS).append(where(em, entityClass, template));
+            if (order != null && columns.length > 0) {
+                select.append(" order by ");
+                for (int i = 0; i < columns.length; i++) {
+                    select.append(i > 0 ? ", " : "").append(PredicateTemplate.ALIAS).append('.').append(checkAttribute(em, entityClass, columns[i])).append(' ').append(order);
+                }
+            }
+            return select.toString();
+        });
+        return readOnly(bind(em.createQuery(jpql, entityClass), em, entityClass, template, predicateClause, staging), readMode);
+    }
+
+    private static <Q extends Query> Q readOnly(Q query, ReadMode readMode) {
+        if (readMode != null && readMode != ReadMode.MANAGED) {
+            query.setHint(HIBERNATE_READ_ONLY, true);
+            query.setHint(ECLIPSELINK_READ_ONLY, "true");
+        }
+        return query;
+    }
+
+    /**
+     * Detaches the results of {@link ReadMode#DETACHED} reads
+     */
+    private static <T> List<T> read(EntityManager em, List<T> results, ReadMode readMode) {
+        if (readMode == ReadMode.DETACHED) {
+            results.forEach(em::detach);
+        }
+        return results;
+    }
+
+    /**
+     * Template of the clause, staging its big lists when {@link #inListStagingThreshold()} is enabled and a transaction is active
+     */
+    private PredicateTemplate template(EntityManager em, PredicateClause predicateClause) {
+        if (predicateClause == null) {
+            return null;
+        }
+        int threshold = inListStagingThreshold();
+        return PredicateTemplate.of(predicateClause, threshold > 0 && em.isJoinedToTransaction() ? threshold : 0);
+    }
+
+    private static String condition(PredicateTemplate template) {
+        return template == null ? "" : template.getShape();
+    }
+
+    private static String where(EntityManager em, Class<?> entityClass, PredicateTemplate template) {
+        return template == null ? "" : " where " + condition(em, entityClass, template);
+    }
+
+    /**
+     * Condition of the template, once its fields are checked against the entity
+     */
+    private static String condition(EntityManager em, Class<?> entityClass, PredicateTemplate template) {
+        checkAttributes(em, entityClass, template);
+        return template.getCondition();
+    }
+
+    private static void checkAttributes(EntityManager em, Class<?> entityClass, PredicateTemplate template) {
+        template.getFields().forEach(field -> checkAttribute(em, entityClass, field));
+    }
+
+    /**
+     * Checks a field name against the metamodel before it is written on a JPQL statement, following the dots of a path through the associations and embeddables
+     *
+     * @return the field name
+     * @throws IllegalArgumentException
+     *             if the name is not an attribute path of the entity
+     */
+    private static String checkAttribute(EntityManager em, Class<?> entityClass, String field) {
+        attributeType(em, entityClass, field);
+        return field;
+    }
+
+    /**
+     * Java type of the attribute at the end of a path, the element type for collections
+     *
+     * @throws IllegalArgumentException
+     *             if the name is not an attribute path of the entity
+     */
+    private static Class<?> attributeType(EntityManager em, Class<?> entityClass, String field) {
+        if (!PredicateTemplate.isFieldPath(field)) {
+            throw new IllegalArgumentException("Invalid field name " + field);
+        }
+        try {
+            Class<?> type = entityClass;
+            for (String name : field.split("\\.")) {
+                Attribute<?, ?> attribute = em.getMetamodel().managedType(type).getAttribute(name);
+                type = attribute instanceof PluralAttribute ? ((PluralAttribute<?, ?, ?>) attribute).getElementType().getJavaType() : attribute.getJavaType();
+            }
+            return type;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(field + " is not an attribute of " + entityClass.getSimpleName(), e);
+        }
+    }
+
+    /**
+     * Binds the values of the clause converted to the type of their attributes, as criteria queries do
+     */
+    private static <Q extends Query> Q bind(Q query, EntityManager em, Class<?> entityClass, PredicateTemplate template, PredicateClause predicateClause, InListStaging staging) {
+        return bind(query, em, entityClass, template, predicateClause, staging, "p");
+    }
+
+    private static <Q extends Query> Q bind(Q query, EntityManager em, Class<?> entityClass, PredicateTemplate template, PredicateClause predicateClause, InListStaging staging, String prefix) {
+        return template == null ? query : template.bind(query, predicateClause, staging, prefix, field -> attributeType(em, entityClass, field));
+    }
+
+    private static String entityName(EntityManager em, Class<?> entityClass) {
+        return em.getMetamodel().entity(entityClass).getName();
+    }
+
+    /**
+     * JPQL of the key, built once and cached by every service
+     */
+    private static String statement(String key, Supplier<String> builder) {
+        String jpql = STATEMENTS.get(key);
+        if (jpql == null) {
+            if (STATEMENTS.size() >= STATEMENTS_SIZE) {
+                STATEMENTS.clear();
+            }
+            jpql = STATEMENTS.computeIfAbsent(key, k -> builder.get());
+        }
+        return jpql;
+    }
+
+    private <T extends BaseEntity> CriteriaQuery<T> generateSelectQuery(EntityManager em, Class<T> entityClass, PredicateClause predicateClause, FetchPlan fetchPlan, QueryOrder order, String... columns) {
         CriteriaBuilder cb = em.getCriteriaBuilder();
         CriteriaQuery<T> cq = cb.createQuery(entityClass);
         Root<T> root = cq.from(entityClass);
+        if (fetchPlan != null) {
+            fetchPlan.fetch(root, cq);
+        }
+        return restrict(cb, cq, root, predicateClause, order, columns);
+    }
+
+    private <T, R> TypedQuery<R> withHints(TypedQuery<R> query, EntityManager em, Class<T> entityClass, FetchPlan fetchPlan) {
+        if (fetchPlan != null) {
+            fetchPlan.hints(em, entityClass).forEach(query::setHint);
+        }
+        return query;
+    }
+
+    private <T extends BaseEntity, R> CriteriaQuery<R> generateProjectedQuery(EntityManager em, Class<T> entityClass, Projection<R> projection, PredicateClause predicateClause, QueryOrder order, String... columns) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<R> cq = cb.createQuery(projection.getResultType());
+        Root<T> root = cq.from(entityClass);
+        cq.select(projection.selection(root, cb));
+        return restrict(cb, cq, root, predicateClause, order, columns);
+    }
 
+    /**
+     * Applies the where and order by clauses
+     */
+    private <T, R> CriteriaQuery<R> restrict(CriteriaBuilder cb, CriteriaQuery<R> cq, Root<T> root, PredicateClause predicateClause, QueryOrder order, String... columns) {
         if (predicateClause != null) {
             List<Predicate> predicates = predicateClause.generator(root, cb);
             Predicate[] conditions = predicates.toArray(new Predicate[predicates.size()]);
@@ -456,6 +1939,93 @@ public abstract class BaseService extends QueryService {
         return resultList == null ? Collections.emptyList() : resultList;
     }
 
+    /**
+     * Search by native query, mapping each row to any class through the {@code @Column} getters of {@link QueryResultReader}. The query runs through JDBC on the {@link #entityManagerConnection()}, within its transaction (pending changes are flushed first), and nothing is registered
+     * on the persistence context.
+     * 
+     * @param query
+     *            - Native sql query
+     * @param reader
+     *            - how each row is read
+     * @param params
+     *            - values to replace placeholders on query
+     * @return - All items found or an empty list
+     * @throws SQLException
+     * @see QueryResultReader
+     */
+    protected <T> List<T> findAllByNativeQuery(String query, QueryResultReader<T> reader, Object... params) throws SQLException {
+        List<T> resultList = new ArrayList<>();
+        try (PreparedStatement st = prepareNativeQuery(query, params); ResultSet rs = st.executeQuery()) {
+            while (rs.next()) {
+                resultList.add(reader.get(rs));
+            }
+        }
+        return resultList;
+    }
+
+    /**
+     * Same as {@link #findAllByNativeQuery(String, QueryResultReader, Object...)}, reading only the first row
+     * 
+     * @param query
+     *            - Native sql query
+     * @param reader
+     *            - how the row is read
+     * @param params
+     *            - values to replace placeholders on query
+     * @return - first item found encapsulated on {@link Optional}
+     * @throws SQLException
+     */
+    protected <T> Optional<T> findItemByNativeQuery(String query, QueryResultReader<T> reader, Object... params) throws SQLException {
+        try (PreparedStatement st = prepareNativeQuery(query, params)) {
+            st.setMaxRows(1);
+            try (ResultSet rs = st.executeQuery()) {
+                return rs.next() ? Optional.ofNullable(reader.get(rs)) : Optional.empty();
+            }
+        }
+    }
+
+    /**
+     * Same as {@link #findAllByNativeQuery(String, QueryResultReader, Object...)}, mapping the rows as they are consumed and fetching {@link #streamFetchSize()} rows per round trip, so results of any size are read in constant memory. Row errors are thrown as
+     * {@link IllegalStateException}. EG:
+     * 
+     * <pre>
+     * try (Stream&lt;UserReport&gt; reports = streamByNativeQuery("select ... where created_at &gt; ?", new QueryResultReader&lt;&gt;(UserReport.class), since)) {
+     *     reports.forEach(...);
+     * }
+     * </pre>
+     * 
+     * @param query
+     *            - Native sql query
+     * @param reader
+     *            - how each row is read
+     * @param params
+     *            - values to replace placeholders on query
+     * @return - Stream of the items found, which must be closed
+     * @throws SQLException
+     */
+    protected <T> Stream<T> streamByNativeQuery(String query, QueryResultReader<T> reader, Object... params) throws SQLException {
+        return NativeCursor.stream(prepareNativeQuery(query, params), streamFetchSize(), reader);
+    }
+
+    private PreparedStatement prepareNativeQuery(String query, Object... params) throws SQLException {
+        EntityManager em = getEm();
+        if (em.isJoinedToTransaction()) {
+            em.flush();
+        }
+        PreparedStatement st = entityManagerConnection().prepareStatement(query);
+        try {
+            int idx = 1;
+            for (Object param : params) {
+                st.setObject(idx, param);
+                idx++;
+            }
+        } catch (SQLException | RuntimeException e) {
+            st.close();
+            throw e;
+        }
+        return st;
+    }
+
     protected void removeByNativeQuery(String query, Object... params) {
         EntityManager em = getEm();
         Query tquery = em.createNativeQuery(query);
@@ -482,4 +2052,33 @@ public abstract class BaseService extends QueryService {
         return getEm().createNativeQuery(sql);
     }
 
+    /**
+     * Key of a call made on a persistence context, compared by identity, so calls on different EntityManagers never share their entities
+     */
+    private static final class ContextKey {
+        private final Object   context;
+        private final Class<?> entityClass;
+        private final Object   id;
+
+        private ContextKey(EntityManager em, Class<?> entityClass, Object id) {
+            this.context = em.getDelegate();
+            this.entityClass = entityClass;
+            this.id = id;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * System.identityHashCode(context) + entityClass.hashCode()) + Objects.hashCode(id);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof ContextKey)) {
+                return false;
+            }
+            ContextKey other = (ContextKey) obj;
+            return context == other.context && entityClass == other.entityClass && Objects.equals(id, other.id);
+        }
+    }
+
 }
@@ -0,0 +1,90 @@
+package br.com.geraldao.dao;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Summary of a {@code saveBatch} call
+ *
+ * @see BaseService#saveBatch(java.util.Iterator)
+ */
+public class BatchResult {
+
+    private long                         inserted;
+    private long                         merged;
+    private long                         flushes;
+    private int                          partitions;
+    private final List<RuntimeException> failures = new ArrayList<>();
+
+    BatchResult() {
+    }
+
+    /**
+     * Sums the result of a committed partition
+     */
+    void add(BatchResult partition) {
+        inserted += partition.inserted;
+        merged += partition.merged;
+        flushes += partition.flushes;
+        partitions++;
+    }
+
+    void failed(RuntimeException failure) {
+        failures.add(failure);
+        partitions++;
+    }
+
+    void inserted() {
+        inserted++;
+    }
+
+    void merged() {
+        merged++;
+    }
+
+    void flushed() {
+        flushes++;
+    }
+
+    /**
+     * @return number of new entities persisted
+     */
+    public long getInserted() {
+        return inserted;
+    }
+
+    /**
+     * @return number of existing entities merged
+     */
+    public long getMerged() {
+        return merged;
+    }
+
+    /**
+     * @return number of times the persistence context was flushed and cleared
+     */
+    public long getFlushes() {
+        return flushes;
+    }
+
+    /**
+     * @return number of partitions of a parallel save, <b>0</b> otherwise
+     */
+    public int getPartitions() {
+        return partitions;
+    }
+
+    /**
+     * @return errors of the partitions rolled back by a {@link br.com.geraldao.constant.CommitMode#PER_PARTITION} save. Their items are not counted
+     */
+    public List<RuntimeException> getFailures() {
+        return Collections.unmodifiableList(failures);
+    }
+
+    @Override
+    public String toString() {
+        return "BatchResult [inserted=" + inserted + ", merged=" + merged + ", flushes=" + flushes + (partitions > 0 ? ", partitions=" + partitions + ", failures=" + failures.size() : "") + "]";
+    }
+
+}
@@ -0,0 +1,95 @@
+package br.com.geraldao.dao;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import br.com.geraldao.predicate.PredicateClause;
+
+/**
+ * Many updates of one entity class, each with its own values, applied together by {@link BaseService#updateBatch(Class, BulkUpdate)}. EG:
+ *
+ * <pre>
+ * BulkUpdate updates = new BulkUpdate();
+ * for (Order order : orders) {
+ *     updates.byId(order.getId(), Collections.singletonMap("status", order.getStatus()));
+ * }
+ * updates.where(Collections.singletonMap("status", "EXPIRED"), PredicateBuilder.where("dueDate", Operator.LESS_THAN_OR_EQUAL, today).build());
+ * service.updateBatch(Order.class, updates);
+ * </pre>
+ */
+public class BulkUpdate {
+
+    private final Map<Long, Map<String, Object>> byId  = new LinkedHashMap<>();
+    private final List<Where>                    where = new ArrayList<>();
+
+    /**
+     * Updates the entity of the id. Values of an id already added are merged, the last value of a field is kept.
+     *
+     * @param id
+     *            - id of the entity
+     * @param values
+     *            - Key is the field name and Value is the new value
+     * @return this update
+     */
+    public BulkUpdate byId(Long id, Map<String, Object> values) {
+        if (id == null || values == null || values.isEmpty()) {
+            throw new IllegalArgumentException("You must inform the id and the values to update");
+        }
+        byId.computeIfAbsent(id, key -> new LinkedHashMap<>()).putAll(values);
+        return this;
+    }
+
+    /**
+     * Updates the entities matching the clause
+     *
+     * @param values
+     *            - Key is the field name and Value is the new value
+     * @param predicateClause
+     *            - entities to update. Use {@link BaseService#updateByParams(Class, Map, PredicateClause)} to update every entity
+     * @return this update
+     */
+    public BulkUpdate where(Map<String, Object> values, PredicateClause predicateClause) {
+        if (values == null || values.isEmpty() || predicateClause == null) {
+            throw new IllegalArgumentException("You must inform the values and the condition to update");
+        }
+        where.add(new Where(new LinkedHashMap<>(values), predicateClause));
+        return this;
+    }
+
+    /**
+     * @return number of updates added
+     */
+    public int size() {
+        return byId.size() + where.size();
+    }
+
+    Map<Long, Map<String, Object>> getById() {
+        return Collections.unmodifiableMap(byId);
+    }
+
+    List<Where> getWhere() {
+        return Collections.unmodifiableList(where);
+    }
+
+    static class Where {
+        private final Map<String, Object> values;
+        private final PredicateClause     predicateClause;
+
+        private Where(Map<String, Object> values, PredicateClause predicateClause) {
+            this.values = values;
+            this.predicateClause = predicateClause;
+        }
+
+        Map<String, Object> getValues() {
+            return values;
+        }
+
+        PredicateClause getPredicateClause() {
+            return predicateClause;
+        }
+    }
+
+}
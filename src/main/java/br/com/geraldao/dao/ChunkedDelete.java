@@ -0,0 +1,111 @@
+package br.com.geraldao.dao;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityTransaction;
+
+/**
+ * How {@link BaseService#removeInChunks(Class, br.com.geraldao.predicate.PredicateClause, ChunkedDelete)} and {@link BaseService#removeAll(java.util.Collection, ChunkedDelete)} split a big delete, so each statement locks a bounded number of rows instead of escalating to a table lock. EG,
+ * purging a table while it is in use:
+ *
+ * <pre>
+ * service.removeInChunks(Log.class, predicate, ChunkedDelete.of(5000).commitEachChunk().pauseBetweenChunks(200, TimeUnit.MILLISECONDS).onProgress(deleted -&gt; LOGGER.info(deleted + " logs deleted")));
+ * </pre>
+ */
+public class ChunkedDelete {
+
+    private final int    chunkSize;
+    private boolean      commitEachChunk;
+    private long         pauseMillis;
+    private LongConsumer progress;
+
+    private ChunkedDelete(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be greater than zero");
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @param chunkSize
+     *            - rows deleted by each statement
+     * @return ChunkedDelete Object
+     */
+    public static ChunkedDelete of(int chunkSize) {
+        return new ChunkedDelete(chunkSize);
+    }
+
+    /**
+     * Commits the transaction of the EntityManager after each chunk and begins a new one, so the transaction log and the locks held stay bounded. Everything else done on the transaction is committed with the first chunk, and a failure only rolls back the chunk being deleted. The
+     * persistence unit must be RESOURCE_LOCAL and a transaction must be active.
+     *
+     * @return this delete
+     */
+    public ChunkedDelete commitEachChunk() {
+        this.commitEachChunk = true;
+        return this;
+    }
+
+    /**
+     * Waits between chunks, leaving room for the other users of the table
+     *
+     * @param pause
+     *            - time waited after each chunk but the last
+     * @param unit
+     *            - unit of the pause
+     * @return this delete
+     */
+    public ChunkedDelete pauseBetweenChunks(long pause, TimeUnit unit) {
+        this.pauseMillis = unit.toMillis(pause);
+        return this;
+    }
+
+    /**
+     * @param progress
+     *            - called after each chunk (and its commit) with the rows deleted so far
+     * @return this delete
+     */
+    public ChunkedDelete onProgress(LongConsumer progress) {
+        this.progress = progress;
+        return this;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Commits, reports and pauses after a chunk
+     *
+     * @param deleted
+     *            - rows deleted so far
+     * @param more
+     *            - <b>true</b> if other chunks follow
+     */
+    void chunkDeleted(EntityManager em, long deleted, boolean more) {
+        if (commitEachChunk) {
+            EntityTransaction transaction = em.getTransaction();
+            transaction.commit();
+            transaction.begin();
+        }
+        if (progress != null) {
+            progress.accept(deleted);
+        }
+        if (more && pauseMillis > 0) {
+            try {
+                Thread.sleep(pauseMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted after " + deleted + " rows deleted", e);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ChunkedDelete [chunkSize=" + chunkSize + ", commitEachChunk=" + commitEachChunk + ", pauseMillis=" + pauseMillis + "]";
+    }
+
+}
@@ -0,0 +1,63 @@
+package br.com.geraldao.dao;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Totals counted by {@code findPage}, kept for a time to live and dropped when their entity class is written through {@link BaseService}
+ *
+ * @see BaseService#pageCountTtlMillis()
+ */
+class CountCache {
+
+    private static final int                             CACHE_SIZE = 2048;
+
+    private final ConcurrentHashMap<List<Object>, Count> counts     = new ConcurrentHashMap<>();
+
+    /**
+     * @param key
+     *            - entity class followed by what identifies the query
+     * @return cached total, or <b>null</b> if it is not cached or has expired
+     */
+    Long get(List<Object> key) {
+        Count count = counts.get(key);
+        if (count == null) {
+            return null;
+        }
+        if (System.nanoTime() - count.expiresAt > 0) {
+            counts.remove(key, count);
+            return null;
+        }
+        return count.total;
+    }
+
+    void put(List<Object> key, long total, long ttlMillis) {
+        if (counts.size() >= CACHE_SIZE) {
+            counts.clear();
+        }
+        counts.put(key, new Count(total, System.nanoTime() + ttlMillis * 1000000));
+    }
+
+    /**
+     * Drops the totals of the class, its subclasses and superclasses
+     */
+    void invalidate(Class<?> entityClass) {
+        if (!counts.isEmpty()) {
+            counts.keySet().removeIf(key -> {
+                Class<?> counted = (Class<?>) key.get(0);
+                return counted.isAssignableFrom(entityClass) || entityClass.isAssignableFrom(counted);
+            });
+        }
+    }
+
+    private static class Count {
+        private final long total;
+        private final long expiresAt;
+
+        private Count(long total, long expiresAt) {
+            this.total = total;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+}
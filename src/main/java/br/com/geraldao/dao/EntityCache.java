@@ -0,0 +1,280 @@
+package br.com.geraldao.dao;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.persistence.EntityManager;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Cross-request cache of the entities loaded by {@link BaseService#findById(Class, Object)}, keyed by entity class and id. Reads never block; entries expire after a time to live and, when the cache is full, the least recently read ones are evicted. EG:
+ *
+ * <pre>
+ * private static final EntityCache CACHE = EntityCache.of(10000, 5, TimeUnit.MINUTES).entities(Country.class, Currency.class);
+ *
+ * &#64;Override
+ * protected EntityCache entityCache() {
+ *     return CACHE;
+ * }
+ * </pre>
+ *
+ * The cache keeps a copy of the state of each entity, its basic attributes and the ids of its to-one associations, and every hit builds a new detached instance from it whose associations are references of the caller's EntityManager, so callers never share an instance. An
+ * entity already managed by the caller's EntityManager is returned as it is. Classes with collections or embedded attributes are not cached. Writes made through {@link BaseService} invalidate the cache when they are made and,
+ * with Hibernate, again after their transaction completes; an entity loaded while a write was in progress is not cached. Writes made elsewhere are only seen after the time to live.
+ *
+ * @see BaseService#entityCache()
+ */
+public class EntityCache {
+    private final static Logger                 LOGGER    = Logger.getLogger(EntityCache.class);
+
+    private final int                           maxSize;
+    private final long                          ttlNanos;
+    private final ConcurrentHashMap<Key, Entry> entries   = new ConcurrentHashMap<>();
+    private final Map<Class<?>, AtomicLong>     versions  = new ConcurrentHashMap<>();
+    private final LongAdder                     hits      = new LongAdder();
+    private final LongAdder                     misses    = new LongAdder();
+    private final LongAdder                     evictions = new LongAdder();
+    private Set<Class<?>>                       entities;
+
+    private EntityCache(int maxSize, long ttlNanos) {
+        if (maxSize <= 0 || ttlNanos <= 0) {
+            throw new IllegalArgumentException("Cache size and time to live must be positive");
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlNanos;
+    }
+
+    /**
+     * @param maxSize
+     *            - entities kept on the cache
+     * @param ttl
+     *            - time each entity is kept after being loaded
+     * @param unit
+     *            - unit of the ttl
+     * @return EntityCache Object
+     */
+    public static EntityCache of(int maxSize, long ttl, TimeUnit unit) {
+        return new EntityCache(maxSize, unit.toNanos(ttl));
+    }
+
+    /**
+     * Restricts the cache to these entity classes. Every entity class is cached otherwise.
+     *
+     * @param classes
+     *            - cached entity classes
+     * @return this cache
+     */
+    public EntityCache entities(Class<?>... classes) {
+        this.entities = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(classes)));
+        return this;
+    }
+
+    /**
+     * @return <b>true</b> if entities of the class are cached
+     */
+    public boolean isCached(Class<?> entityClass) {
+        return entities == null || entities.contains(entityClass);
+    }
+
+    /**
+     * @return <b>true</b> if the state of the entity class can be copied, see {@link EntitySnapshot}
+     */
+    boolean supports(EntityManager em, Class<?> entityClass) {
+        return EntitySnapshot.of(em, entityClass).isPresent();
+    }
+
+    /**
+     * @return a new detached copy of the cached entity, or <b>null</b> if it is not cached or has expired
+     */
+    <T> T get(EntityManager em, Class<T> entityClass, Object id) {
+        Key key = new Key(entityClass, id);
+        Entry entry = entries.get(key);
+        long now = System.nanoTime();
+        if (entry == null || now - entry.expiresAt > 0) {
+            if (entry != null) {
+                entries.remove(key, entry);
+            }
+            misses.increment();
+            return null;
+        }
+        try {
+            T entity = entityClass.cast(entry.snapshot.create(em, entry.state));
+            entry.lastRead = now;
+            hits.increment();
+            return entity;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOGGER.debug("Unable to copy the cached " + entityClass.getSimpleName() + " " + id + ": " + e);
+            entries.remove(key, entry);
+            misses.increment();
+            return null;
+        }
+    }
+
+    /**
+     * @return the generation of the entity class, read before loading an entity to {@link #put(EntityManager, Class, Object, Object, long)} it. Every invalidation of the class starts a new generation
+     */
+    long generation(Class<?> entityClass) {
+        return versions.computeIfAbsent(entityClass, type -> new AtomicLong()).get();
+    }
+
+    /**
+     * Caches a copy of the state of the entity, which stays owned by the EntityManager that loaded it. The entity is not cached if the class was invalidated since the generation was read, as it may have been loaded before a write.
+     */
+    void put(EntityManager em, Class<?> entityClass, Object id, Object entity, long generation) {
+        EntitySnapshot snapshot = EntitySnapshot.of(em, entityClass).orElse(null);
+        Object[] state = snapshot == null ? null : snapshot.read(em, entity);
+        if (state == null || generation(entityClass) != generation) {
+            return;
+        }
+        if (entries.size() >= maxSize) {
+            evict();
+        }
+        long now = System.nanoTime();
+        Key key = new Key(entityClass, id);
+        Entry entry = new Entry(snapshot, state, now + ttlNanos, now);
+        entries.put(key, entry);
+        if (generation(entityClass) != generation) {
+            entries.remove(key, entry);
+        }
+    }
+
+    /**
+     * Removes the entity from the cache, under its class and every superclass it may have been loaded as
+     */
+    void invalidate(Class<?> entityClass, Object id) {
+        for (Class<?> type = entityClass; type != null && type != Object.class; type = type.getSuperclass()) {
+            versions.computeIfAbsent(type, key -> new AtomicLong()).incrementAndGet();
+            entries.remove(new Key(type, id));
+        }
+    }
+
+    /**
+     * Removes every entity of the class, its subclasses and superclasses
+     */
+    void invalidateAll(Class<?> entityClass) {
+        versions.computeIfAbsent(entityClass, key -> new AtomicLong());
+        versions.forEach((type, version) -> {
+            if (type.isAssignableFrom(entityClass) || entityClass.isAssignableFrom(type)) {
+                version.incrementAndGet();
+            }
+        });
+        entries.keySet().removeIf(key -> key.entityClass.isAssignableFrom(entityClass) || entityClass.isAssignableFrom(key.entityClass));
+    }
+
+    /**
+     * Removes every entity
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Removes the expired entries and, if the cache is still full, the tenth least recently read
+     */
+    private synchronized void evict() {
+        if (entries.size() < maxSize) {
+            return;
+        }
+        long now = System.nanoTime();
+        List<Map.Entry<Key, Entry>> alive = new ArrayList<>(entries.size());
+        for (Map.Entry<Key, Entry> entry : entries.entrySet()) {
+            if (now - entry.getValue().expiresAt > 0) {
+                remove(entry);
+            } else {
+                alive.add(entry);
+            }
+        }
+        if (alive.size() >= maxSize) {
+            alive.sort((a, b) -> Long.compare(a.getValue().lastRead, b.getValue().lastRead));
+            int count = Math.max(1, maxSize / 10);
+            for (int i = 0; i < count; i++) {
+                remove(alive.get(i));
+            }
+        }
+    }
+
+    private void remove(Map.Entry<Key, Entry> entry) {
+        if (entries.remove(entry.getKey(), entry.getValue())) {
+            evictions.increment();
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return hits over reads, <b>0</b> before the first read
+     */
+    public double getHitRate() {
+        long hits = getHits();
+        long reads = hits + getMisses();
+        return reads == 0 ? 0 : (double) hits / reads;
+    }
+
+    @Override
+    public String toString() {
+        return "EntityCache [size=" + size() + ", maxSize=" + maxSize + ", hits=" + getHits() + ", misses=" + getMisses() + ", evictions=" + getEvictions() + "]";
+    }
+
+    private static class Key {
+        private final Class<?> entityClass;
+        private final Object   id;
+
+        private Key(Class<?> entityClass, Object id) {
+            this.entityClass = entityClass;
+            this.id = id instanceof Integer || id instanceof Short || id instanceof Byte ? Long.valueOf(((Number) id).longValue()) : id;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * entityClass.hashCode() + id.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return entityClass == other.entityClass && id.equals(other.id);
+        }
+    }
+
+    private static class Entry {
+        private final EntitySnapshot snapshot;
+        private final Object[]       state;
+        private final long           expiresAt;
+        private volatile long        lastRead;
+
+        private Entry(EntitySnapshot snapshot, Object[] state, long expiresAt, long lastRead) {
+            this.snapshot = snapshot;
+            this.state = state;
+            this.expiresAt = expiresAt;
+            this.lastRead = lastRead;
+        }
+    }
+
+}
@@ -0,0 +1,128 @@
+package br.com.geraldao.dao;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Forward-only iteration over the result of a query which detaches the returned entities in chunks, so the persistence context does not grow with the result.<br>
+ * The provider cursor ({@code getResultStream} of JPA 2.2 providers or {@code stream} of Hibernate 5.2, both scrolling a forward-only JDBC result set) is used when available. Otherwise the query is read page by page with {@code setFirstResult}/{@code setMaxResults}, so it must be ordered.
+ *
+ * @see BaseService#streamAllOrderedByParams(Class, br.com.geraldao.predicate.PredicateClause, br.com.geraldao.constant.QueryOrder, String...)
+ */
+class EntityCursor<T> implements Iterator<T> {
+    private final static Logger                                        LOGGER  = Logger.getLogger(EntityCursor.class);
+    private static final String[]                                      METHODS = { "getResultStream", "stream" };
+    private static final ConcurrentHashMap<Class<?>, Optional<Method>> CURSORS = new ConcurrentHashMap<>();
+
+    private final EntityManager                                        em;
+    private final TypedQuery<T>                                        query;
+    private final int                                                  chunkSize;
+    private final Iterator<T>                                          cursor;
+    private final List<T>                                              returned;
+    private List<T>                                                    page;
+    private int                                                        pageIndex;
+    private int                                                        offset;
+
+    private EntityCursor(EntityManager em, TypedQuery<T> query, int chunkSize, Iterator<T> cursor) {
+        this.em = em;
+        this.query = query;
+        this.chunkSize = chunkSize;
+        this.cursor = cursor;
+        this.returned = new ArrayList<>(chunkSize);
+    }
+
+    /**
+     * @param chunkSize
+     *            - entities returned between each detach, also the page size when the provider has no cursor
+     * @return sequential stream which must be closed to release the provider cursor
+     */
+    static <T> Stream<T> stream(EntityManager em, TypedQuery<T> query, int chunkSize) {
+        Stream<T> providerStream = providerStream(query);
+        EntityCursor<T> iterator = new EntityCursor<>(em, query, chunkSize, providerStream == null ? null : providerStream.iterator());
+        Stream<T> stream = StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+        return providerStream == null ? stream : stream.onClose(providerStream::close);
+    }
+
+    @Override
+    public boolean hasNext() {
+        boolean hasNext = cursor != null ? cursor.hasNext() : nextPage();
+        if (!hasNext) {
+            detachReturned();
+        }
+        return hasNext;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        if (returned.size() >= chunkSize) {
+            detachReturned();
+        }
+        T entity = cursor != null ? cursor.next() : page.get(pageIndex++);
+        returned.add(entity);
+        return entity;
+    }
+
+    private boolean nextPage() {
+        if (page == null || (pageIndex == page.size() && page.size() == chunkSize)) {
+            page = query.setFirstResult(offset).setMaxResults(chunkSize).getResultList();
+            offset += page.size();
+            pageIndex = 0;
+        }
+        return pageIndex < page.size();
+    }
+
+    private void detachReturned() {
+        for (T entity : returned) {
+            if (em.contains(entity)) {
+                em.detach(entity);
+            }
+        }
+        returned.clear();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Stream<T> providerStream(TypedQuery<T> query) {
+        Optional<Method> method = CURSORS.computeIfAbsent(query.getClass(), EntityCursor::findCursorMethod);
+        if (method.isPresent()) {
+            try {
+                return (Stream<T>) method.get().invoke(query);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                LOGGER.warn("Unable to open the cursor of " + query.getClass().getName() + ", paging instead: " + e.getMessage());
+                CURSORS.put(query.getClass(), Optional.empty());
+            }
+        }
+        return null;
+    }
+
+    private static Optional<Method> findCursorMethod(Class<?> queryClass) {
+        for (String name : METHODS) {
+            try {
+                Method method = queryClass.getMethod(name);
+                if (Stream.class.isAssignableFrom(method.getReturnType())) {
+                    return Optional.of(method);
+                }
+            } catch (NoSuchMethodException e) {
+                // try the next one
+            }
+        }
+        return Optional.empty();
+    }
+
+}
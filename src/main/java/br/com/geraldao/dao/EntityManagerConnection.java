@@ -0,0 +1,60 @@
+package br.com.geraldao.dao;
+
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.persistence.EntityManager;
+
+import org.apache.log4j.Logger;
+
+/**
+ * JDBC connection the EntityManager is using, so native statements run on its transaction. JPA has no such operation: {@code unwrap(Connection.class)} is tried first (EclipseLink, within a transaction) and then the {@code connection()} method of the provider session (Hibernate),
+ * through reflection.
+ *
+ * @see BaseService#entityManagerConnection()
+ */
+class EntityManagerConnection {
+    private final static Logger                                        LOGGER   = Logger.getLogger(EntityManagerConnection.class);
+    private static final ConcurrentHashMap<Class<?>, Optional<Method>> SESSIONS = new ConcurrentHashMap<>();
+
+    private EntityManagerConnection() {
+    }
+
+    /**
+     * @return the connection, which belongs to the EntityManager and must not be closed, or <b>null</b> if the provider is not supported
+     */
+    static Connection of(EntityManager em) {
+        try {
+            Connection connection = em.unwrap(Connection.class);
+            if (connection != null) {
+                return connection;
+            }
+        } catch (RuntimeException e) {
+            LOGGER.debug("EntityManager does not unwrap a Connection: " + e);
+        }
+        Object session = em.getDelegate();
+        Optional<Method> method = SESSIONS.computeIfAbsent(session.getClass(), EntityManagerConnection::resolve);
+        if (!method.isPresent()) {
+            return null;
+        }
+        try {
+            return (Connection) method.get().invoke(session);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOGGER.debug("Unable to read the connection of " + session.getClass().getName() + ": " + e);
+            return null;
+        }
+    }
+
+    private static Optional<Method> resolve(Class<?> sessionClass) {
+        try {
+            Method method = sessionClass.getMethod("connection");
+            return Connection.class.isAssignableFrom(method.getReturnType()) ? Optional.of(method) : Optional.empty();
+        } catch (NoSuchMethodException e) {
+            LOGGER.debug(sessionClass.getName() + " does not expose its connection");
+            return Optional.empty();
+        }
+    }
+
+}
@@ -0,0 +1,177 @@
+package br.com.geraldao.dao;
+
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceUnitUtil;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Copies the state of an entity out of a persistence context and builds new detached instances from it, so {@link EntityCache} never hands the same instance to two callers. The state is read through the JPA metamodel: basic attributes are copied (dates and arrays are cloned) and
+ * to-one associations are kept as the id of the target, turned back into a reference of the reader's EntityManager. Classes with collections or embedded attributes have no snapshot.
+ */
+class EntitySnapshot {
+    private final static Logger                                                 LOGGER = Logger.getLogger(EntitySnapshot.class);
+    private static final ConcurrentHashMap<Class<?>, Optional<EntitySnapshot>> PLANS  = new ConcurrentHashMap<>();
+
+    private final Class<?>       entityClass;
+    private final Constructor<?> constructor;
+    private final Property[]     properties;
+
+    private EntitySnapshot(Class<?> entityClass, Constructor<?> constructor, List<Property> properties) {
+        this.entityClass = entityClass;
+        this.constructor = constructor;
+        this.properties = properties.toArray(new Property[properties.size()]);
+    }
+
+    /**
+     * @return the snapshot of the class, or empty if its state can not be copied
+     */
+    static Optional<EntitySnapshot> of(EntityManager em, Class<?> entityClass) {
+        Optional<EntitySnapshot> snapshot = PLANS.get(entityClass);
+        if (snapshot == null) {
+            if (PLANS.size() > 2048) {
+                PLANS.clear();
+            }
+            snapshot = resolve(em, entityClass);
+            PLANS.put(entityClass, snapshot);
+        }
+        return snapshot;
+    }
+
+    /**
+     * @return the state of the entity, or <b>null</b> if it is not an instance of exactly this class (EG a proxy or a subclass)
+     */
+    Object[] read(EntityManager em, Object entity) {
+        if (entity.getClass() != entityClass) {
+            return null;
+        }
+        PersistenceUnitUtil util = em.getEntityManagerFactory().getPersistenceUnitUtil();
+        Object[] state = new Object[properties.length];
+        try {
+            for (int i = 0; i < properties.length; i++) {
+                Object value = properties[i].get(entity);
+                state[i] = properties[i].target == null ? copy(value) : value == null ? null : util.getIdentifier(value);
+            }
+            return state;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOGGER.debug("Unable to read the state of " + entityClass.getSimpleName() + ": " + e);
+            return null;
+        }
+    }
+
+    /**
+     * @return a new detached instance holding a copy of the state, with the associations as references of the EntityManager
+     */
+    Object create(EntityManager em, Object[] state) throws ReflectiveOperationException {
+        Object entity = constructor.newInstance();
+        for (int i = 0; i < properties.length; i++) {
+            Object value = state[i];
+            properties[i].set(entity, properties[i].target == null ? copy(value) : value == null ? null : em.getReference(properties[i].target, value));
+        }
+        return entity;
+    }
+
+    private static Object copy(Object value) {
+        if (value instanceof Date) {
+            return ((Date) value).clone();
+        }
+        if (value instanceof Calendar) {
+            return ((Calendar) value).clone();
+        }
+        if (value instanceof byte[]) {
+            return ((byte[]) value).clone();
+        }
+        if (value instanceof char[]) {
+            return ((char[]) value).clone();
+        }
+        return value;
+    }
+
+    private static Optional<EntitySnapshot> resolve(EntityManager em, Class<?> entityClass) {
+        try {
+            EntityType<?> type = em.getMetamodel().entity(entityClass);
+            List<Property> properties = new ArrayList<>();
+            for (Attribute<?, ?> attribute : type.getAttributes()) {
+                Class<?> target;
+                switch (attribute.getPersistentAttributeType()) {
+                case BASIC:
+                    target = null;
+                    break;
+                case MANY_TO_ONE:
+                case ONE_TO_ONE:
+                    target = attribute.getJavaType();
+                    break;
+                default:
+                    LOGGER.debug(entityClass.getSimpleName() + "." + attribute.getName() + " is " + attribute.getPersistentAttributeType() + ", " + entityClass.getSimpleName() + " is not cached");
+                    return Optional.empty();
+                }
+                properties.add(new Property(entityClass, attribute, target));
+            }
+            Constructor<?> constructor = entityClass.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return Optional.of(new EntitySnapshot(entityClass, constructor, properties));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOGGER.debug("Unable to copy the state of " + entityClass.getSimpleName() + ", it is not cached: " + e);
+            return Optional.empty();
+        }
+    }
+
+    private static class Property {
+        private final Member   reader;
+        private final Member   writer;
+        private final Class<?> target;
+
+        private Property(Class<?> entityClass, Attribute<?, ?> attribute, Class<?> target) throws NoSuchMethodException {
+            this.target = target;
+            this.reader = attribute.getJavaMember();
+            if (reader instanceof Field) {
+                this.writer = reader;
+            } else if (reader instanceof Method) {
+                this.writer = setter(entityClass, attribute.getName());
+            } else {
+                throw new NoSuchMethodException("No accessor of " + attribute.getName());
+            }
+            ((AccessibleObject) reader).setAccessible(true);
+            ((AccessibleObject) writer).setAccessible(true);
+        }
+
+        private static Method setter(Class<?> entityClass, String name) throws NoSuchMethodException {
+            String setter = "set" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+            for (Class<?> type = entityClass; type != null && type != Object.class; type = type.getSuperclass()) {
+                for (Method method : type.getDeclaredMethods()) {
+                    if (method.getName().equals(setter) && method.getParameterCount() == 1) {
+                        return method;
+                    }
+                }
+            }
+            throw new NoSuchMethodException(entityClass.getSimpleName() + "." + setter);
+        }
+
+        private Object get(Object entity) throws ReflectiveOperationException {
+            return reader instanceof Field ? ((Field) reader).get(entity) : ((Method) reader).invoke(entity);
+        }
+
+        private void set(Object entity, Object value) throws ReflectiveOperationException {
+            if (writer instanceof Field) {
+                ((Field) writer).set(entity, value);
+            } else {
+                ((Method) writer).invoke(entity, value);
+            }
+        }
+    }
+
+}
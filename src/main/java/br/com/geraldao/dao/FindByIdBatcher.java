@@ -0,0 +1,148 @@
+package br.com.geraldao.dao;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+
+import br.com.geraldao.entity.BaseEntity;
+
+/**
+ * Gathers concurrent {@link BaseService#findById(Class, Object)} calls of the same key, one persistence context and entity class. The first caller loads every gathered id with a single {@code IN} query on its EntityManager, which is the one of every caller of the batch, and
+ * hands each caller its own entity. Batches of a key load one at a time, as their callers share the EntityManager: callers arriving while a batch loads gather into the next one. Besides that, the first caller only waits for callers which have already arrived and not joined a
+ * batch yet, up to a window, so a caller alone, EG a thread calling {@code findById} in a loop, never waits.
+ *
+ * @see BaseService#findByIdBatchWindowMillis()
+ */
+class FindByIdBatcher {
+
+    private final ConcurrentHashMap<Object, Batch>   open     = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Object, Batch>   loading  = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Object, Integer> arriving = new ConcurrentHashMap<>();
+
+    /**
+     * @param key
+     *            - identifies the batch: the persistence context and entity class
+     * @param id
+     *            - id to be loaded
+     * @param windowMillis
+     *            - maximum time the first caller waits for the callers arriving
+     * @param maxSize
+     *            - ids of a batch. A full batch is dispatched without waiting
+     * @param loader
+     *            - loads all ids of the batch, returning the entities found by id
+     * @return entity found or <b>null</b>
+     */
+    @SuppressWarnings("unchecked")
+    <T extends BaseEntity> T load(Object key, Long id, long windowMillis, int maxSize, Function<Collection<Long>, Map<Long, T>> loader) {
+        arriving.merge(key, 1, Integer::sum);
+        boolean joined = false;
+        try {
+            while (true) {
+                Batch batch = open.computeIfAbsent(key, k -> new Batch(loading.get(k)));
+                CompletableFuture<Object> future;
+                boolean leader;
+                synchronized (batch) {
+                    if (batch.closed) {
+                        continue;
+                    }
+                    leader = batch.futures.isEmpty();
+                    future = batch.futures.computeIfAbsent(id, k -> new CompletableFuture<>());
+                    leave(key);
+                    joined = true;
+                    if (batch.futures.size() >= maxSize) {
+                        close(key, batch);
+                    } else {
+                        batch.notifyAll();
+                    }
+                }
+                if (leader) {
+                    dispatch(key, batch, windowMillis, loader);
+                }
+                return (T) join(future);
+            }
+        } finally {
+            if (!joined) {
+                leave(key);
+            }
+        }
+    }
+
+    private <T extends BaseEntity> void dispatch(Object key, Batch batch, long windowMillis, Function<Collection<Long>, Map<Long, T>> loader) {
+        if (batch.previous != null) {
+            // the batch stays open, gathering callers, until the one before it has loaded
+            batch.previous.loaded.join();
+            batch.previous = null;
+        }
+        synchronized (batch) {
+            long deadline = System.currentTimeMillis() + windowMillis;
+            long remaining = windowMillis;
+            while (!batch.closed && remaining > 0 && arriving.containsKey(key)) {
+                try {
+                    batch.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                remaining = deadline - System.currentTimeMillis();
+            }
+            close(key, batch);
+        }
+
+        try {
+            Map<Long, T> found = loader.apply(new ArrayList<>(batch.futures.keySet()));
+            batch.futures.forEach((id, future) -> future.complete(found.get(id)));
+        } catch (RuntimeException | Error e) {
+            batch.futures.values().forEach(future -> future.completeExceptionally(e));
+        } finally {
+            loading.remove(key, batch);
+            batch.loaded.complete(null);
+        }
+    }
+
+    /**
+     * The caller joined a batch, or gave up, and is no longer waited for
+     */
+    private void leave(Object key) {
+        arriving.computeIfPresent(key, (k, count) -> count == 1 ? null : count - 1);
+    }
+
+    private void close(Object key, Batch batch) {
+        batch.closed = true;
+        // registered before the batch leaves the open ones, so the next batch always finds it
+        loading.put(key, batch);
+        open.remove(key, batch);
+        batch.notifyAll();
+    }
+
+    private Object join(CompletableFuture<Object> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for findById batch", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw (RuntimeException) cause;
+        }
+    }
+
+    private static class Batch {
+        private final Map<Long, CompletableFuture<Object>> futures = new LinkedHashMap<>();
+        private final CompletableFuture<Void>              loaded  = new CompletableFuture<>();
+        private Batch                                      previous;
+        private boolean                                    closed;
+
+        private Batch(Batch previous) {
+            this.previous = previous;
+        }
+    }
+
+}
@@ -0,0 +1,82 @@
+package br.com.geraldao.dao;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import br.com.geraldao.entity.BaseEntity;
+
+/**
+ * DataLoader for a single entity class. Ids passed to {@link #load(Long)} are only registered, the first {@link Supplier#get()} (or {@link #dispatch()}) loads every registered id with {@code IN} queries. EG:
+ *
+ * <pre>
+ * FindByIdLoader&lt;User&gt; loader = service.findByIdLoader(User.class);
+ * List&lt;Supplier&lt;Optional&lt;User&gt;&gt;&gt; users = ids.stream().map(loader::load).collect(Collectors.toList());
+ * users.forEach(user -&gt; System.out.println(user.get())); // one query for all ids
+ * </pre>
+ *
+ * This class is not thread safe and uses the {@code EntityManager} of the service which created it.
+ *
+ * @param <T>
+ *            Entity class
+ * @see BaseService#findByIdLoader(Class)
+ */
+public class FindByIdLoader<T extends BaseEntity> {
+
+    private final Function<Collection<Long>, Map<Long, T>> loader;
+    private final Set<Long>                                pending = new LinkedHashSet<>();
+    private final Map<Long, T>                             loaded  = new HashMap<>();
+
+    FindByIdLoader(Function<Collection<Long>, Map<Long, T>> loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * Registers an id to be loaded on the next dispatch.
+     *
+     * @param id
+     *            - entity id
+     * @return supplier of the entity, which dispatches the pending ids when called for an id not loaded yet
+     */
+    public Supplier<Optional<T>> load(Long id) {
+        if (!loaded.containsKey(id)) {
+            pending.add(id);
+        }
+        return () -> get(id);
+    }
+
+    /**
+     * Returns the entity of the id, dispatching every pending id if this one was not loaded yet.
+     *
+     * @param id
+     *            - entity id
+     * @return Object Encapsulated on {@link Optional} interface
+     */
+    public Optional<T> get(Long id) {
+        if (!loaded.containsKey(id)) {
+            pending.add(id);
+            dispatch();
+        }
+        return Optional.ofNullable(loaded.get(id));
+    }
+
+    /**
+     * Loads every pending id.
+     */
+    public void dispatch() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<Long, T> found = loader.apply(pending);
+        for (Long id : pending) {
+            loaded.put(id, found.get(id));
+        }
+        pending.clear();
+    }
+
+}
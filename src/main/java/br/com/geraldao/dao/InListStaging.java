@@ -0,0 +1,98 @@
+package br.com.geraldao.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+import javax.persistence.EntityManager;
+
+import br.com.geraldao.entity.InListValue;
+
+/**
+ * Stages the big {@code IN} lists of one statement as {@link InListValue} rows within the current transaction, and deletes them when closed, whether the statement succeeded or not. Rows are written with JDBC batches on the connection of the EntityManager, so they are seen by the
+ * statement without flushing the pending changes of the EntityManager nor going through its persistence context. The SQL follows the mapping of {@code InListValue}.
+ *
+ * @see BaseService#inListStagingThreshold()
+ */
+class InListStaging implements Function<Collection<?>, String>, AutoCloseable {
+    private static final int    BATCH_SIZE = 500;
+    private static final String INSERT     = "insert into GERALDAO_IN_LIST (list_id, list_position, long_value, string_value) values (?, ?, ?, ?)";
+    private static final String DELETE     = "delete from GERALDAO_IN_LIST where list_id = ?";
+
+    private final EntityManager em;
+    private final List<String>  lists      = new ArrayList<>(1);
+
+    InListStaging(EntityManager em) {
+        this.em = em;
+    }
+
+    /**
+     * @return list id of the staged values
+     */
+    @Override
+    public String apply(Collection<?> values) {
+        String listId = UUID.randomUUID().toString();
+        lists.add(listId);
+        try (PreparedStatement st = connection().prepareStatement(INSERT)) {
+            int position = 0;
+            for (Object value : values) {
+                st.setString(1, listId);
+                st.setInt(2, position++);
+                if (value instanceof Number) {
+                    st.setLong(3, ((Number) value).longValue());
+                    st.setNull(4, Types.VARCHAR);
+                } else {
+                    st.setNull(3, Types.BIGINT);
+                    st.setString(4, (String) value);
+                }
+                st.addBatch();
+                if (position % BATCH_SIZE == 0) {
+                    st.executeBatch();
+                }
+            }
+            if (position % BATCH_SIZE != 0) {
+                st.executeBatch();
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Unable to stage a list of " + values.size() + " values", e);
+        }
+        return listId;
+    }
+
+    /**
+     * Deletes the staged lists
+     */
+    @Override
+    public void close() {
+        if (lists.isEmpty() || !em.isOpen()) {
+            lists.clear();
+            return;
+        }
+        try (PreparedStatement st = connection().prepareStatement(DELETE)) {
+            for (String listId : lists) {
+                st.setString(1, listId);
+                st.addBatch();
+            }
+            st.executeBatch();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Unable to delete the staged lists " + lists, e);
+        } finally {
+            lists.clear();
+        }
+    }
+
+    private Connection connection() {
+        Connection connection = EntityManagerConnection.of(em);
+        if (connection == null) {
+            throw new IllegalStateException("Unable to get the connection of the EntityManager to stage IN lists");
+        }
+        return connection;
+    }
+
+}
@@ -0,0 +1,88 @@
+package br.com.geraldao.dao;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.apache.log4j.Logger;
+
+import br.com.geraldao.query.QueryResultReader;
+
+/**
+ * Forward-only iteration over the rows of a native query, each mapped by a {@link QueryResultReader} when it is reached. The statement is closed with the stream, but not its connection.
+ *
+ * @see BaseService#streamByNativeQuery(String, QueryResultReader, Object...)
+ */
+class NativeCursor<T> implements Iterator<T> {
+    private final static Logger        LOGGER = Logger.getLogger(NativeCursor.class);
+
+    private final PreparedStatement    st;
+    private final ResultSet            rs;
+    private final QueryResultReader<T> reader;
+    private Boolean                    hasNext;
+
+    private NativeCursor(PreparedStatement st, ResultSet rs, QueryResultReader<T> reader) {
+        this.st = st;
+        this.rs = rs;
+        this.reader = reader;
+    }
+
+    /**
+     * @param st
+     *            - statement with its parameters set, closed with the stream
+     * @param fetchSize
+     *            - rows fetched per round trip
+     * @return sequential stream which must be closed to release the statement
+     */
+    static <T> Stream<T> stream(PreparedStatement st, int fetchSize, QueryResultReader<T> reader) throws SQLException {
+        NativeCursor<T> cursor;
+        try {
+            st.setFetchSize(fetchSize);
+            cursor = new NativeCursor<>(st, st.executeQuery(), reader);
+        } catch (SQLException | RuntimeException e) {
+            st.close();
+            throw e;
+        }
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(cursor, Spliterator.ORDERED), false).onClose(cursor::close);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (hasNext == null) {
+            try {
+                hasNext = rs.next();
+            } catch (SQLException e) {
+                throw new IllegalStateException("Unable to read the next row", e);
+            }
+        }
+        return hasNext;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        hasNext = null;
+        try {
+            return reader.get(rs);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Unable to read the row", e);
+        }
+    }
+
+    private void close() {
+        try {
+            st.close();
+        } catch (SQLException e) {
+            LOGGER.warn("Unable to close the native query statement", e);
+        }
+    }
+
+}
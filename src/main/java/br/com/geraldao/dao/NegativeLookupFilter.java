@@ -0,0 +1,290 @@
+package br.com.geraldao.dao;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongConsumer;
+import java.util.function.LongFunction;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Bloom filter of the ids of each entity class, answering {@link BaseService#findById(Class, Object)} and {@link BaseService#entityExists(Class, br.com.geraldao.predicate.PredicateClause)} by id without a round trip when the id surely does not exist. EG:
+ *
+ * <pre>
+ * private static final NegativeLookupFilter FILTER = NegativeLookupFilter.of(1000000, 0.01).rebuildEvery(10, TimeUnit.MINUTES).entities(Customer.class);
+ *
+ * &#64;Override
+ * protected NegativeLookupFilter negativeLookupFilter() {
+ *     return FILTER;
+ * }
+ * </pre>
+ *
+ * The filter of a class is built from its ids by {@link BaseService#warmUpNegativeLookupFilter(Class...)} or, on its first lookup, by a background thread while lookups keep going to the database, and rebuilt in background after the rebuild interval. The ids are read on an
+ * EntityManager of their own, never on the caller's. Ids saved through {@link BaseService} are added right away; removed ids stay on the filter until it is rebuilt, which only costs a round trip. Ids inserted elsewhere (other applications, native queries) are reported missing until
+ * the next rebuild, so only enable it for tables written through this service or with a rebuild interval the readers can tolerate.
+ *
+ * @see BaseService#negativeLookupFilter()
+ */
+public class NegativeLookupFilter {
+    private final static Logger                    LOGGER       = Logger.getLogger(NegativeLookupFilter.class);
+    private static final AtomicInteger             THREADS      = new AtomicInteger();
+    private static final ExecutorService           BUILDS       = Executors.newCachedThreadPool(task -> {
+                                                                    Thread thread = new Thread(task, "negative-lookup-" + THREADS.incrementAndGet());
+                                                                    thread.setDaemon(true);
+                                                                    return thread;
+                                                                });
+
+    private final int                              expectedIds;
+    private final double                           falsePositiveRate;
+    private long                                   rebuildNanos = Long.MAX_VALUE;
+    private Set<Class<?>>                          entities;
+    private final ConcurrentHashMap<Class<?>, Ids> filters      = new ConcurrentHashMap<>();
+    private final LongAdder                        skipped      = new LongAdder();
+
+    private NegativeLookupFilter(int expectedIds, double falsePositiveRate) {
+        if (expectedIds <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Expected ids must be positive and the false positive rate between 0 and 1");
+        }
+        this.expectedIds = expectedIds;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    /**
+     * @param expectedIds
+     *            - ids per entity class the filter is sized for. When a table has more ids, its filter is sized for twice its count, leaving room for the ids saved until the next rebuild
+     * @param falsePositiveRate
+     *            - ratio of missing ids which still go to the database, EG: <b>0.01</b>
+     * @return NegativeLookupFilter Object
+     */
+    public static NegativeLookupFilter of(int expectedIds, double falsePositiveRate) {
+        return new NegativeLookupFilter(expectedIds, falsePositiveRate);
+    }
+
+    /**
+     * Rebuilds the filter of each class from its ids after the interval. Filters are never rebuilt otherwise.
+     *
+     * @param interval
+     *            - time between rebuilds
+     * @param unit
+     *            - unit of the interval
+     * @return this filter
+     */
+    public NegativeLookupFilter rebuildEvery(long interval, TimeUnit unit) {
+        this.rebuildNanos = unit.toNanos(interval);
+        return this;
+    }
+
+    /**
+     * Restricts the filter to these entity classes. Every entity class is filtered otherwise.
+     *
+     * @param classes
+     *            - filtered entity classes
+     * @return this filter
+     */
+    public NegativeLookupFilter entities(Class<?>... classes) {
+        this.entities = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(classes)));
+        return this;
+    }
+
+    /**
+     * @return <b>true</b> if ids of the class are filtered
+     */
+    public boolean isFiltered(Class<?> entityClass) {
+        return entities == null || entities.contains(entityClass);
+    }
+
+    /**
+     * @return <b>true</b> if the filter of the class is built and answers lookups
+     */
+    public boolean isBuilt(Class<?> entityClass) {
+        Ids ids = filters.get(entityClass);
+        return ids != null && ids.current != null;
+    }
+
+    /**
+     * Discards the filter of the class, which is built again on its next lookup
+     */
+    public void invalidate(Class<?> entityClass) {
+        filters.remove(entityClass);
+    }
+
+    /**
+     * @return lookups answered as missing without touching the database
+     */
+    public long getSkippedLookups() {
+        return skipped.sum();
+    }
+
+    /**
+     * Starts a background build of the filter when it is missing or stale
+     *
+     * @param source
+     *            - reads the ids of the class
+     * @return <b>false</b> if the id surely does not exist
+     */
+    boolean mightContain(Class<?> entityClass, long id, IdSource source) {
+        Ids ids = filters.computeIfAbsent(entityClass, type -> new Ids());
+        if ((ids.current == null || System.nanoTime() - ids.builtAt > rebuildNanos) && ids.rebuilding.compareAndSet(false, true)) {
+            BUILDS.execute(() -> {
+                try {
+                    ids.rebuild(source);
+                } catch (RuntimeException e) {
+                    LOGGER.warn("Unable to build the negative lookup filter of " + entityClass.getSimpleName(), e);
+                } finally {
+                    ids.rebuilding.set(false);
+                }
+            });
+        }
+        Bloom bloom = ids.current;
+        if (bloom == null || bloom.mightContain(id)) {
+            return true;
+        }
+        skipped.increment();
+        return false;
+    }
+
+    /**
+     * Builds the filter of the class on the caller's thread, unless a build is already running
+     *
+     * @param source
+     *            - reads the ids of the class
+     */
+    void build(Class<?> entityClass, IdSource source) {
+        Ids ids = filters.computeIfAbsent(entityClass, type -> new Ids());
+        if (ids.rebuilding.compareAndSet(false, true)) {
+            try {
+                ids.rebuild(source);
+            } finally {
+                ids.rebuilding.set(false);
+            }
+        }
+    }
+
+    /**
+     * Adds a saved id to the filters of its class and superclasses
+     */
+    void add(Class<?> entityClass, long id) {
+        for (Class<?> type = entityClass; type != null && type != Object.class; type = type.getSuperclass()) {
+            Ids ids = filters.get(type);
+            if (ids != null) {
+                ids.add(id);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "NegativeLookupFilter [expectedIds=" + expectedIds + ", falsePositiveRate=" + falsePositiveRate + ", classes=" + filters.keySet() + ", skippedLookups=" + getSkippedLookups() + "]";
+    }
+
+    /**
+     * Reads the ids of an entity class
+     */
+    interface IdSource {
+        /**
+         * @param sized
+         *            - receives the count of ids, used to size the filter, and returns the consumer of every id
+         */
+        void read(LongFunction<LongConsumer> sized);
+    }
+
+    /**
+     * Filter of one class, built in background when a lookup finds it missing or stale while lookups keep using the current one (or the database, before the first build). While it is rebuilt, saved ids are added to both the current and the next filter, so ids saved after the next one
+     * read the table are not lost.
+     */
+    private class Ids {
+        private final AtomicBoolean rebuilding = new AtomicBoolean();
+        private volatile Bloom      current;
+        private volatile Bloom      next;
+        private volatile long       builtAt;
+
+        private void rebuild(IdSource source) {
+            long started = System.nanoTime();
+            Bloom[] built = new Bloom[1];
+            source.read(count -> {
+                built[0] = new Bloom((int) Math.max(expectedIds, Math.min(Integer.MAX_VALUE / 2, count * 2)), falsePositiveRate);
+                next = built[0];
+                return built[0]::add;
+            });
+            current = built[0];
+            next = null;
+            builtAt = started;
+        }
+
+        private void add(long id) {
+            Bloom bloom = current;
+            if (bloom != null) {
+                bloom.add(id);
+            }
+            bloom = next;
+            if (bloom != null) {
+                bloom.add(id);
+            }
+        }
+    }
+
+    private static class Bloom {
+        private final AtomicLongArray bits;
+        private final long            size;
+        private final int             hashes;
+
+        private Bloom(int capacity, double falsePositiveRate) {
+            long m = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.bits = new AtomicLongArray((int) Math.min(Integer.MAX_VALUE - 8, (m + 63) / 64));
+            this.size = bits.length() * 64L;
+            this.hashes = Math.max(1, (int) Math.round((double) size / capacity * Math.log(2)));
+        }
+
+        private void add(long id) {
+            long hash = mix(id);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(h1 + (long) i * h2, size);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long value;
+                do {
+                    value = bits.get(word);
+                } while ((value & mask) == 0 && !bits.compareAndSet(word, value, value | mask));
+            }
+        }
+
+        private boolean mightContain(long id) {
+            long hash = mix(id);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(h1 + (long) i * h2, size);
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * MurmurHash3 finalizer, spreads sequential ids over the whole range
+         */
+        private static long mix(long id) {
+            long hash = id;
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            hash *= 0xc4ceb9fe1a85ec53L;
+            hash ^= hash >>> 33;
+            return hash;
+        }
+    }
+
+}
@@ -0,0 +1,67 @@
+package br.com.geraldao.dao;
+
+import java.util.List;
+
+/**
+ * One page of a {@code findPage} result with the total of items matching the query
+ *
+ * @param <T>
+ *            Class type of each item
+ * @see BaseService#findPage(Class, br.com.geraldao.predicate.PredicateClause, br.com.geraldao.constant.QueryOrder, int, int, String...)
+ */
+public class Page<T> {
+
+    private final List<T> items;
+    private final int     page;
+    private final int     size;
+    private final long    total;
+
+    Page(List<T> items, int page, int size, long total) {
+        this.items = items;
+        this.page = page;
+        this.size = size;
+        this.total = total;
+    }
+
+    /**
+     * @return items of the page, an empty list past the last page
+     */
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * @return page number, starting at <b>0</b>
+     */
+    public int getPage() {
+        return page;
+    }
+
+    /**
+     * @return maximum items per page
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return items matching the query on every page
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    public long getTotalPages() {
+        return (total + size - 1) / size;
+    }
+
+    public boolean hasNext() {
+        return (long) (page + 1) * size < total;
+    }
+
+    @Override
+    public String toString() {
+        return "Page [page=" + page + ", size=" + size + ", items=" + items.size() + ", total=" + total + "]";
+    }
+
+}
@@ -0,0 +1,74 @@
+package br.com.geraldao.dao;
+
+import java.io.Serializable;
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.persistence.EntityManager;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Reads an entity from the persistence context without going to the database. JPA has no such operation ({@code find} queries on a miss and {@code getReference} registers a proxy), so the provider session is read through reflection. Only Hibernate is supported; other providers
+ * always miss.
+ *
+ * @see BaseService#findInPersistenceContext(EntityManager, Class, Object)
+ */
+class PersistenceContextLookup {
+    private final static Logger                                         LOGGER   = Logger.getLogger(PersistenceContextLookup.class);
+    private static final ConcurrentHashMap<Class<?>, Optional<Methods>> SESSIONS = new ConcurrentHashMap<>();
+
+    private PersistenceContextLookup() {
+    }
+
+    /**
+     * @return the managed entity, or <b>null</b> if it is not on the persistence context or the provider is not supported
+     */
+    static <T> T find(EntityManager em, Class<T> entityClass, Object id) {
+        if (!(id instanceof Serializable)) {
+            return null;
+        }
+        Object session = em.getDelegate();
+        Optional<Methods> methods = SESSIONS.computeIfAbsent(session.getClass(), PersistenceContextLookup::resolve);
+        if (!methods.isPresent()) {
+            return null;
+        }
+        try {
+            Methods m = methods.get();
+            Object persister = m.getEntityPersister.invoke(session, entityClass.getName(), null);
+            Object key = m.generateEntityKey.invoke(session, id, persister);
+            Object entity = m.getEntity.invoke(m.getPersistenceContext.invoke(session), key);
+            return entityClass.isInstance(entity) ? entityClass.cast(entity) : null;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOGGER.debug("Unable to read " + entityClass.getSimpleName() + " " + id + " from the persistence context: " + e);
+            return null;
+        }
+    }
+
+    private static Optional<Methods> resolve(Class<?> sessionClass) {
+        try {
+            ClassLoader loader = sessionClass.getClassLoader();
+            Class<?> persisterClass = Class.forName("org.hibernate.persister.entity.EntityPersister", false, loader);
+            Class<?> keyClass = Class.forName("org.hibernate.engine.spi.EntityKey", false, loader);
+            Class<?> contextClass = Class.forName("org.hibernate.engine.spi.PersistenceContext", false, loader);
+            Methods methods = new Methods();
+            methods.getEntityPersister = sessionClass.getMethod("getEntityPersister", String.class, Object.class);
+            methods.generateEntityKey = sessionClass.getMethod("generateEntityKey", Serializable.class, persisterClass);
+            methods.getPersistenceContext = sessionClass.getMethod("getPersistenceContext");
+            methods.getEntity = contextClass.getMethod("getEntity", keyClass);
+            return Optional.of(methods);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            LOGGER.debug(sessionClass.getName() + " has no readable persistence context, ids are always loaded from the database");
+            return Optional.empty();
+        }
+    }
+
+    private static class Methods {
+        private Method getEntityPersister;
+        private Method generateEntityKey;
+        private Method getPersistenceContext;
+        private Method getEntity;
+    }
+
+}
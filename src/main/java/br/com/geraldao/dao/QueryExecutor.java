@@ -22,6 +22,8 @@ class QueryExecutor<T> {
 	private ResultType resultType;
 	private StatementBuilder queryBuilder;
 	private QueryResultReader<T> queryResultReader;
+	private ResultBudget budget;
+	private SpillableList<T> pending;
 
 	protected enum ResultType {
 		NONE, LIST, ITEM;
@@ -33,6 +35,11 @@ class QueryExecutor<T> {
 		this.queryResultReader = queryResultReader;
 	}
 
+	QueryExecutor(StatementBuilder queryBuilder, QueryResultReader<T> queryResultReader, ResultBudget budget) {
+		this(ResultType.LIST, queryBuilder, queryResultReader);
+		this.budget = budget;
+	}
+
 	/**
 	 * 
 	 * @param st
@@ -45,7 +52,8 @@ class QueryExecutor<T> {
 	 */
 	protected Result<T> retrieveResult(PreparedStatement st, ResultSet rs) throws SQLException {
 		boolean execute = st.execute();
-		Result<T> result = new Result<>(resultType);
+		Result<T> result = new Result<>(resultType, budget, queryResultReader);
+		pending = result.spillable;
 		if (resultType == ResultType.NONE) {
 			return result;
 		}
@@ -58,7 +66,10 @@ class QueryExecutor<T> {
 
 				try {
 					while (rs.next()) {
-						T obj = (T) queryResultReader.get(rs);
+						if (result.spillable != null && result.spillable.spill(rs)) {
+							continue;
+						}
+						T obj = result.spillable != null ? result.spillable.map(rs) : (T) queryResultReader.get(rs);
 						if (result.addAndStop(obj)) {
 							break RESULT_FIND;
 						}
@@ -86,8 +97,16 @@ class QueryExecutor<T> {
 		try (PreparedStatement st = connection.prepareStatement(queryBuilder.build()); ResultSet rs = null) {
 			queryBuilder.buildStatement(st);
 			resultReturn = retrieveResult(st, rs);
+		} catch (SQLException | RuntimeException e) {
+			if (pending != null) {
+				pending.close();
+			}
+			throw e;
 		}
 		if (resultReturn.lastException != null) {
+			if (resultReturn.spillable != null) {
+				resultReturn.spillable.close();
+			}
 			throw new SQLException(resultReturn.lastException);
 		}
 		return resultReturn;
@@ -102,6 +121,7 @@ class QueryExecutor<T> {
 	static class Result<T> {
 		protected Exception lastException;
 		protected List<T> listResult;
+		protected SpillableList<T> spillable;
 		protected T obj;
 		protected ResultType type;
 
@@ -112,9 +132,19 @@ class QueryExecutor<T> {
 			}
 		}
 
+		public Result(ResultType type, ResultBudget budget, QueryResultReader<T> reader) {
+			this(type);
+			if (type == ResultType.LIST && budget != null) {
+				spillable = new SpillableList<>(budget, reader);
+				listResult = spillable;
+			}
+		}
+
 		public boolean addAndStop(T value) {
 			boolean stop = false;
-			if (type == ResultType.LIST) {
+			if (spillable != null) {
+				spillable.addInMemory(value);
+			} else if (type == ResultType.LIST) {
 				listResult.add(value);
 			} else {
 				obj = value;
@@ -128,7 +158,7 @@ class QueryExecutor<T> {
 	@Override
 	public String toString() {
 		return "QueryExecutor [resultType=" + resultType + ", queryBuilder=" + queryBuilder + ", queryResultReader="
-				+ queryResultReader + "]";
+				+ queryResultReader + (budget != null ? ", budget=" + budget : "") + "]";
 	}
 
 }
@@ -1,19 +1,28 @@
 package br.com.geraldao.dao;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 import org.apache.log4j.Logger;
 
+import br.com.geraldao.constant.ExportFormat;
 import br.com.geraldao.dao.QueryExecutor.Result;
 import br.com.geraldao.dao.QueryExecutor.ResultType;
 import br.com.geraldao.query.ProcedureBuilder;
 import br.com.geraldao.query.QueryBuilder;
 import br.com.geraldao.query.QueryResultReader;
 import br.com.geraldao.query.StatementBuilder;
+import br.com.geraldao.query.Workload;
 
 /**
  * Provides an interface to connect and execute queries or procedures on database
@@ -22,7 +31,8 @@ import br.com.geraldao.query.StatementBuilder;
  *
  */
 public abstract class QueryService {
-    private final static Logger logger = Logger.getLogger(QueryService.class);
+    private final static Logger       logger     = Logger.getLogger(QueryService.class);
+    private final static SingleFlight STATEMENTS = new SingleFlight();
 
     public QueryService() {
     }
@@ -35,6 +45,26 @@ public abstract class QueryService {
      */
     protected abstract Connection connection();
 
+    /**
+     * Scheduler used to admit statements which have a {@link Workload} defined. Override it to share a scheduler with a total concurrency limit between services of the same database.
+     * 
+     * @return {@link WorkloadScheduler#DEFAULT} by default
+     * @see StatementBuilder#workload(Workload)
+     */
+    protected WorkloadScheduler workloadScheduler() {
+        return WorkloadScheduler.DEFAULT;
+    }
+
+    /**
+     * Enables request coalescing for {@code findItem} and {@code findAll}. While a statement is running, concurrent calls of this service class with the same SQL, parameters and reader wait for it and share its result instead of executing it again.<br>
+     * Coalesced callers receive the same result objects (lists are copied), so only enable it when results are not modified by callers.
+     * 
+     * @return <b>false</b> by default
+     */
+    protected boolean coalesceQueries() {
+        return false;
+    }
+
     /**
      * Executes a query or procedure and returns its result encapsulated on {@link Optional} interface based on clazz parameter.
      * 
@@ -64,7 +94,7 @@ public abstract class QueryService {
      * @see {@link QueryResultReader}
      */
     public <T> Optional<T> findItem(StatementBuilder builder, QueryResultReader<T> reader) throws SQLException {
-        Result<T> resultReturn = execute(builder, reader, ResultType.ITEM);
+        Result<T> resultReturn = coalesce(builder, reader, ResultType.ITEM);
         return Optional.ofNullable(resultReturn.obj);
     }
 
@@ -97,10 +127,37 @@ public abstract class QueryService {
      * @see {@link QueryResultReader}
      */
     public <T> List<T> findAll(StatementBuilder builder, QueryResultReader<T> reader) throws SQLException {
+        if (coalesceQueries()) {
+            return new ArrayList<>(coalesce(builder, reader, ResultType.LIST).listResult);
+        }
         Result<T> resultReturn = execute(builder, reader, ResultType.LIST);
         return resultReturn.listResult;
     }
 
+    /**
+     * Executes a query or procedure and returns a {@link List} of parameter clazz defined on {@link QueryResultReader}, keeping on heap only the rows within the budget. The remaining rows are spilled to a memory-mapped temporary file and mapped again when accessed. With a
+     * byte budget each row is read once with {@code getObject} to be measured, and rows kept on heap are mapped from those values.
+     * 
+     * @param builder
+     *            Class which extends {@link StatementBuilder}. This class is used to create statements and execute it accordingly.
+     * @param reader
+     *            defines how to read {@code ResultSet} return. It can be read to a Object class or a single class return as String, Integer, etc.
+     * @param budget
+     *            - rows and/or bytes kept on heap
+     * @return read-only list which <b>must be closed</b> to delete its spill file
+     * @throws SQLException
+     * @see ResultBudget
+     * @see SpillableList
+     */
+    public <T> SpillableList<T> findAll(StatementBuilder builder, QueryResultReader<T> reader, ResultBudget budget) throws SQLException {
+        if (budget == null) {
+            throw new IllegalArgumentException("You must define a budget");
+        }
+        QueryExecutor<T> queryExecutor = new QueryExecutor<T>(builder, reader, budget);
+        logger.debug(queryExecutor);
+        return (SpillableList<T>) execute(builder, queryExecutor).listResult;
+    }
+
     /**
      * Executes a query or procedure without reading its result.
      * 
@@ -114,12 +171,140 @@ public abstract class QueryService {
         execute(builder, (QueryResultReader<?>) null, ResultType.NONE);
     }
 
+    /**
+     * Executes a query or procedure writing its rows straight from the {@code ResultSet} to the stream, without creating a list of results. Suitable for exports of any size.
+     * 
+     * @param builder
+     *            Class which extends {@link StatementBuilder}. This class is used to create statements and execute it accordingly.
+     * @param format
+     *            - {@link ExportFormat#CSV} or {@link ExportFormat#JSON_LINES}
+     * @param out
+     *            - destination of the rows. It is not closed or flushed by this method
+     * @return number of rows written
+     * @throws SQLException
+     * @throws IOException
+     *             if writing to the stream fails
+     * @see #export(StatementBuilder, ExportFormat, WritableByteChannel)
+     */
+    public long export(StatementBuilder builder, ExportFormat format, OutputStream out) throws SQLException, IOException {
+        return export(builder, format, Channels.newChannel(out));
+    }
+
+    /**
+     * Executes a query or procedure writing its rows straight from the {@code ResultSet} to the channel, encoded as UTF-8 in a reusable buffer of {@link #exportBufferSize()} bytes.
+     * 
+     * @param builder
+     *            Class which extends {@link StatementBuilder}. This class is used to create statements and execute it accordingly.
+     * @param format
+     *            - {@link ExportFormat#CSV} or {@link ExportFormat#JSON_LINES}
+     * @param channel
+     *            - destination of the rows. It is not closed by this method
+     * @return number of rows written
+     * @throws SQLException
+     * @throws IOException
+     *             if writing to the channel fails
+     */
+    public long export(StatementBuilder builder, ExportFormat format, WritableByteChannel channel) throws SQLException, IOException {
+        logger.debug("export " + format + " " + builder);
+        WorkloadScheduler scheduler = admit(builder);
+        try (Connection connection = connection(); PreparedStatement st = connection.prepareStatement(builder.build())) {
+            builder.buildStatement(st);
+            st.setFetchSize(exportFetchSize());
+            return new ResultSetExporter(format, channel, exportBufferSize()).export(st);
+        } finally {
+            if (scheduler != null) {
+                scheduler.release(builder.getWorkload());
+            }
+        }
+    }
+
+    /**
+     * @return rows fetched from database per round trip by {@code export}. <b>1000</b> by default
+     */
+    protected int exportFetchSize() {
+        return 1000;
+    }
+
+    /**
+     * @return size of the encoding buffer used by {@code export}. <b>64KB</b> by default
+     */
+    protected int exportBufferSize() {
+        return 64 * 1024;
+    }
+
+    private <T> Result<T> coalesce(StatementBuilder builder, QueryResultReader<T> reader, ResultType resultType) throws SQLException {
+        if (!coalesceQueries()) {
+            return execute(builder, reader, resultType);
+        }
+        StatementKey key = new StatementKey(getClass(), builder, reader, resultType);
+        return STATEMENTS.execute(key, () -> execute(builder, reader, resultType));
+    }
+
     private <T> Result<T> execute(StatementBuilder builder, QueryResultReader<T> reader, ResultType resultType) throws SQLException {
         QueryExecutor<T> queryExecutor = new QueryExecutor<T>(resultType, builder, reader);
         logger.debug(queryExecutor);
+        return execute(builder, queryExecutor);
+    }
+
+    private <T> Result<T> execute(StatementBuilder builder, QueryExecutor<T> queryExecutor) throws SQLException {
+        WorkloadScheduler scheduler = admit(builder);
         try (Connection connection = connection()) {
             return queryExecutor.execute(connection);
+        } finally {
+            if (scheduler != null) {
+                scheduler.release(builder.getWorkload());
+            }
+        }
+    }
+
+    /**
+     * Waits for a slot of the builder {@link Workload}, if it has one.
+     * 
+     * @return scheduler which must release the slot after the execution or <b>null</b> when there is no admission control
+     */
+    private WorkloadScheduler admit(StatementBuilder builder) throws SQLException {
+        Workload workload = builder.getWorkload();
+        WorkloadScheduler scheduler = workload == null ? null : workloadScheduler();
+        if (scheduler != null) {
+            scheduler.acquire(workload);
+        }
+        return scheduler;
+    }
+
+    /**
+     * Identifies equal statements for {@link #coalesceQueries()}
+     */
+    private static final class StatementKey {
+        private final Class<?>             service;
+        private final String               sql;
+        private final List<?>              parameters;
+        private final QueryResultReader<?> reader;
+        private final ResultType           resultType;
+        private final int                  hash;
+
+        private StatementKey(Class<?> service, StatementBuilder builder, QueryResultReader<?> reader, ResultType resultType) {
+            this.service = service;
+            this.sql = builder.build();
+            this.parameters = builder.getParameters() == null ? null : new ArrayList<>(builder.getParameters());
+            this.reader = reader;
+            this.resultType = resultType;
+            this.hash = Objects.hash(service, sql, parameters, reader, resultType);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof StatementKey))
+                return false;
+            StatementKey other = (StatementKey) obj;
+            return service == other.service && resultType == other.resultType && sql.equals(other.sql) && Objects.equals(parameters, other.parameters) && Objects.equals(reader, other.reader);
         }
     }
 
-}
\ No newline at end of file
+}
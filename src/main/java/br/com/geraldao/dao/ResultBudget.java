@@ -0,0 +1,94 @@
+package br.com.geraldao.dao;
+
+import java.nio.file.Path;
+
+/**
+ * Limits how much of a {@code findAll} result is kept on heap. Rows past the budget are spilled to a memory-mapped temporary file and read back on access, see {@link SpillableList}. EG:
+ *
+ * <pre>
+ * try (SpillableList&lt;Report&gt; rows = service.findAll(builder, reader, ResultBudget.of(10000, 64 * 1024 * 1024))) {
+ *     rows.forEach(...);
+ * }
+ * </pre>
+ *
+ * @see QueryService#findAll(br.com.geraldao.query.StatementBuilder, br.com.geraldao.query.QueryResultReader, ResultBudget)
+ */
+public class ResultBudget {
+
+    private final long maxRows;
+    private final long maxBytes;
+    private Path       directory;
+
+    private ResultBudget(long maxRows, long maxBytes) {
+        if (maxRows < 0 || maxBytes < 0) {
+            throw new IllegalArgumentException("Budget must not be negative");
+        }
+        this.maxRows = maxRows;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @param maxRows
+     *            - rows kept on heap. <b>0</b> spills every row
+     * @return ResultBudget Object
+     */
+    public static ResultBudget rows(long maxRows) {
+        return new ResultBudget(maxRows, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param maxBytes
+     *            - estimated bytes of the raw column values kept on heap
+     * @return ResultBudget Object
+     */
+    public static ResultBudget bytes(long maxBytes) {
+        return new ResultBudget(Long.MAX_VALUE, maxBytes);
+    }
+
+    /**
+     * Rows are spilled as soon as either limit is reached
+     *
+     * @param maxRows
+     *            - rows kept on heap
+     * @param maxBytes
+     *            - estimated bytes of the raw column values kept on heap
+     * @return ResultBudget Object
+     */
+    public static ResultBudget of(long maxRows, long maxBytes) {
+        return new ResultBudget(maxRows, maxBytes);
+    }
+
+    /**
+     * Defines where spill files are created. The default temporary directory is used otherwise.
+     *
+     * @param directory
+     *            - existing directory
+     * @return this budget
+     */
+    public ResultBudget directory(Path directory) {
+        this.directory = directory;
+        return this;
+    }
+
+    public long getMaxRows() {
+        return maxRows;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    boolean isByteLimited() {
+        return maxBytes != Long.MAX_VALUE;
+    }
+
+    @Override
+    public String toString() {
+        return "ResultBudget [maxRows=" + maxRows + ", maxBytes=" + maxBytes + (directory != null ? ", directory=" + directory : "") + "]";
+    }
+
+}
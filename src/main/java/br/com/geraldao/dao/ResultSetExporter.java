@@ -0,0 +1,370 @@
+package br.com.geraldao.dao;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+
+import br.com.geraldao.constant.ExportFormat;
+
+/**
+ * Writes every row of an executed statement straight from the {@link ResultSet} to a channel. Values are read with typed getters and encoded into a single reusable buffer: integers, booleans, text, dates, times and timestamps without creating objects of the exporter's own.
+ * Doubles and decimals are formatted through their {@code toString}, one short-lived string per value, and values the driver only returns as objects (decimals, dates, strings) are still created by the driver.
+ *
+ * @see QueryService#export(br.com.geraldao.query.StatementBuilder, ExportFormat, WritableByteChannel)
+ */
+class ResultSetExporter {
+
+    private static final byte[] NULL  = { 'n', 'u', 'l', 'l' };
+    private static final byte[] TRUE  = { 't', 'r', 'u', 'e' };
+    private static final byte[] FALSE = { 'f', 'a', 'l', 's', 'e' };
+    private static final byte[] HEX   = { '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f' };
+
+    private final ExportFormat        format;
+    private final WritableByteChannel channel;
+    private final ByteBuffer          buffer;
+    private final byte[]              digits = new byte[20];
+
+    ResultSetExporter(ExportFormat format, WritableByteChannel channel, int bufferSize) {
+        this.format = format;
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(Math.max(bufferSize, 64));
+    }
+
+    /**
+     * Executes the statement and exports every result set it returns.
+     *
+     * @return number of rows written
+     */
+    long export(PreparedStatement st) throws SQLException, IOException {
+        long rows = 0;
+        boolean execute = st.execute();
+        while (true) {
+            if (execute) {
+                try (ResultSet rs = st.getResultSet()) {
+                    if (rs == null) {
+                        break;
+                    }
+                    rows += export(rs);
+                }
+            } else if (st.getUpdateCount() == -1) {
+                break;
+            }
+            execute = st.getMoreResults();
+        }
+        flush();
+        return rows;
+    }
+
+    private long export(ResultSet rs) throws SQLException, IOException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        int columns = metaData.getColumnCount();
+        int[] types = new int[columns + 1];
+        byte[][] keys = new byte[columns + 1][];
+        for (int i = 1; i <= columns; i++) {
+            types[i] = metaData.getColumnType(i);
+            keys[i] = encodeKey(metaData.getColumnLabel(i), i == 1);
+        }
+
+        if (format == ExportFormat.CSV) {
+            for (int i = 1; i <= columns; i++) {
+                if (i > 1) {
+                    put((byte) ',');
+                }
+                writeText(metaData.getColumnLabel(i));
+            }
+            put((byte) '\n');
+        }
+
+        long rows = 0;
+        while (rs.next()) {
+            if (format == ExportFormat.JSON_LINES) {
+                put((byte) '{');
+            }
+            for (int i = 1; i <= columns; i++) {
+                if (format == ExportFormat.JSON_LINES) {
+                    put(keys[i]);
+                } else if (i > 1) {
+                    put((byte) ',');
+                }
+                writeValue(rs, i, types[i]);
+            }
+            if (format == ExportFormat.JSON_LINES) {
+                put((byte) '}');
+            }
+            put((byte) '\n');
+            rows++;
+        }
+        return rows;
+    }
+
+    private void writeValue(ResultSet rs, int column, int type) throws SQLException, IOException {
+        switch (type) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+                long longValue = rs.getLong(column);
+                if (rs.wasNull()) {
+                    writeNull();
+                } else {
+                    writeLong(longValue);
+                }
+                break;
+            case Types.BIT:
+            case Types.BOOLEAN:
+                boolean booleanValue = rs.getBoolean(column);
+                if (rs.wasNull()) {
+                    writeNull();
+                } else {
+                    put(booleanValue ? TRUE : FALSE);
+                }
+                break;
+            case Types.REAL:
+            case Types.FLOAT:
+            case Types.DOUBLE:
+                double doubleValue = rs.getDouble(column);
+                if (rs.wasNull()) {
+                    writeNull();
+                } else if (Double.isNaN(doubleValue) || Double.isInfinite(doubleValue)) {
+                    writeText(Double.toString(doubleValue));
+                } else {
+                    writeAscii(Double.toString(doubleValue));
+                }
+                break;
+            case Types.DECIMAL:
+            case Types.NUMERIC:
+                BigDecimal decimal = rs.getBigDecimal(column);
+                if (decimal == null) {
+                    writeNull();
+                } else {
+                    writeAscii(decimal.toPlainString());
+                }
+                break;
+            case Types.DATE:
+                writeTemporal(rs.getDate(column), type);
+                break;
+            case Types.TIME:
+                writeTemporal(rs.getTime(column), type);
+                break;
+            case Types.TIMESTAMP:
+                writeTemporal(rs.getTimestamp(column), type);
+                break;
+            default:
+                String text = rs.getString(column);
+                if (text == null) {
+                    writeNull();
+                } else {
+                    writeText(text);
+                }
+        }
+    }
+
+    private void writeNull() throws IOException {
+        if (format == ExportFormat.JSON_LINES) {
+            put(NULL);
+        }
+    }
+
+    private void writeLong(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            writeAscii(Long.toString(value));
+            return;
+        }
+        ensure(digits.length + 1);
+        if (value < 0) {
+            buffer.put((byte) '-');
+            value = -value;
+        }
+        int pos = digits.length;
+        do {
+            digits[--pos] = (byte) ('0' + (value % 10));
+            value /= 10;
+        } while (value != 0);
+        buffer.put(digits, pos, digits.length - pos);
+    }
+
+    /**
+     * Writes a date, time or timestamp as its {@code toString} does, reading its fields with the deprecated getters that {@code toString} reads, without a calendar
+     */
+    @SuppressWarnings("deprecation")
+    private void writeTemporal(java.util.Date value, int type) throws IOException {
+        if (value == null) {
+            writeNull();
+            return;
+        }
+        if (type != Types.TIME && value.getYear() + 1900 <= 0) {
+            writeText(value.toString());
+            return;
+        }
+        ensure(48);
+        if (format == ExportFormat.JSON_LINES) {
+            buffer.put((byte) '"');
+        }
+        if (type != Types.TIME) {
+            writePadded(value.getYear() + 1900, 4);
+            buffer.put((byte) '-');
+            writePadded(value.getMonth() + 1, 2);
+            buffer.put((byte) '-');
+            writePadded(value.getDate(), 2);
+        }
+        if (type == Types.TIMESTAMP) {
+            buffer.put((byte) ' ');
+        }
+        if (type != Types.DATE) {
+            writePadded(value.getHours(), 2);
+            buffer.put((byte) ':');
+            writePadded(value.getMinutes(), 2);
+            buffer.put((byte) ':');
+            writePadded(value.getSeconds(), 2);
+        }
+        if (type == Types.TIMESTAMP) {
+            int nanos = ((Timestamp) value).getNanos();
+            int width = 9;
+            while (nanos != 0 && nanos % 10 == 0) {
+                nanos /= 10;
+                width--;
+            }
+            buffer.put((byte) '.');
+            writePadded(nanos, nanos == 0 ? 1 : width);
+        }
+        if (format == ExportFormat.JSON_LINES) {
+            buffer.put((byte) '"');
+        }
+    }
+
+    /**
+     * Writes a non negative value left padded with zeros, the caller ensures the room
+     */
+    private void writePadded(int value, int width) {
+        int pos = digits.length;
+        do {
+            digits[--pos] = (byte) ('0' + (value % 10));
+            value /= 10;
+        } while (value != 0 || digits.length - pos < width);
+        buffer.put(digits, pos, digits.length - pos);
+    }
+
+    private void writeAscii(String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            put((byte) value.charAt(i));
+        }
+    }
+
+    /**
+     * Writes a quoted (when required) and escaped text according to the format
+     */
+    private void writeText(String value) throws IOException {
+        if (format == ExportFormat.JSON_LINES) {
+            put((byte) '"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"' || c == '\\') {
+                    put((byte) '\\');
+                    put((byte) c);
+                } else if (c < 0x20) {
+                    ensure(6);
+                    buffer.put((byte) '\\').put((byte) 'u').put((byte) '0').put((byte) '0').put(HEX[c >> 4]).put(HEX[c & 0xF]);
+                } else {
+                    i = writeChar(value, i);
+                }
+            }
+            put((byte) '"');
+        } else {
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (quote) {
+                put((byte) '"');
+            }
+            for (int i = 0; i < value.length(); i++) {
+                if (value.charAt(i) == '"') {
+                    put((byte) '"');
+                }
+                i = writeChar(value, i);
+            }
+            if (quote) {
+                put((byte) '"');
+            }
+        }
+    }
+
+    /**
+     * Encodes the char at position i as UTF-8
+     *
+     * @return position of the last char consumed (surrogate pairs consume two)
+     */
+    private int writeChar(String value, int i) throws IOException {
+        char c = value.charAt(i);
+        ensure(4);
+        if (c < 0x80) {
+            buffer.put((byte) c);
+        } else if (c < 0x800) {
+            buffer.put((byte) (0xC0 | (c >> 6))).put((byte) (0x80 | (c & 0x3F)));
+        } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+            int codePoint = Character.toCodePoint(c, value.charAt(++i));
+            buffer.put((byte) (0xF0 | (codePoint >> 18))).put((byte) (0x80 | ((codePoint >> 12) & 0x3F))).put((byte) (0x80 | ((codePoint >> 6) & 0x3F))).put((byte) (0x80 | (codePoint & 0x3F)));
+        } else if (Character.isSurrogate(c)) {
+            buffer.put((byte) '?');
+        } else {
+            buffer.put((byte) (0xE0 | (c >> 12))).put((byte) (0x80 | ((c >> 6) & 0x3F))).put((byte) (0x80 | (c & 0x3F)));
+        }
+        return i;
+    }
+
+    private byte[] encodeKey(String label, boolean first) {
+        StringBuilder sb = new StringBuilder(first ? "" : ",").append('"');
+        for (int i = 0; i < label.length(); i++) {
+            char c = label.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\');
+            }
+            sb.append(c);
+        }
+        sb.append("\":");
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void put(byte value) throws IOException {
+        ensure(1);
+        buffer.put(value);
+    }
+
+    private void put(byte[] value) throws IOException {
+        if (value.length > buffer.capacity()) {
+            flush();
+            write(ByteBuffer.wrap(value));
+            return;
+        }
+        ensure(value.length);
+        buffer.put(value);
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        write(buffer);
+        buffer.clear();
+    }
+
+    private void write(ByteBuffer source) throws IOException {
+        while (source.hasRemaining()) {
+            channel.write(source);
+        }
+    }
+
+}
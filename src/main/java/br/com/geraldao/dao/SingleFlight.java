@@ -0,0 +1,75 @@
+package br.com.geraldao.dao;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Coalesces concurrent executions of the same key. While one call of a key is running, other callers of the same key wait for it and receive its result (or its exception) instead of running it again.
+ *
+ * @see QueryService#coalesceQueries()
+ * @see BaseService#coalesceFindById()
+ */
+class SingleFlight {
+
+    private final ConcurrentHashMap<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    interface Call<V, E extends Exception> {
+        V call() throws E;
+    }
+
+    /**
+     * Runs the call, or waits for the running call of an equal key.
+     *
+     * @param key
+     *            - must implement equals and hashCode
+     * @param call
+     *            - execution shared by concurrent callers of the same key
+     * @return result of the call
+     * @throws E
+     *             exception thrown by the call, also rethrown to every waiting caller
+     * @throws IllegalStateException
+     *             if a waiting caller is interrupted. The interrupt flag is kept and the call is not run by that caller
+     */
+    @SuppressWarnings("unchecked")
+    <V, E extends Exception> V execute(Object key, Call<V, E> call) throws E {
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, flight);
+        if (running != null) {
+            try {
+                return (V) running.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the call of " + key, e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw (E) cause;
+            }
+        }
+
+        try {
+            V value = call.call();
+            flight.complete(value);
+            return value;
+        } catch (Exception | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * @return number of keys being executed right now
+     */
+    int size() {
+        return inFlight.size();
+    }
+
+}
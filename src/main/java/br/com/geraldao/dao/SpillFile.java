@@ -0,0 +1,254 @@
+package br.com.geraldao.dao;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Append-only file of rows in a compact binary format, written and read through memory-mapped segments. Each row is a sequence of column values, each one a type tag followed by its bytes.
+ *
+ * @see SpillableList
+ */
+class SpillFile implements Closeable {
+    private final static Logger    LOGGER       = Logger.getLogger(SpillFile.class);
+    private static final int       SEGMENT_SIZE = 32 * 1024 * 1024;
+
+    private static final byte      NULL         = 0;
+    private static final byte      LONG         = 1;
+    private static final byte      INTEGER      = 2;
+    private static final byte      SHORT        = 3;
+    private static final byte      BYTE         = 4;
+    private static final byte      DOUBLE       = 5;
+    private static final byte      FLOAT        = 6;
+    private static final byte      BOOLEAN      = 7;
+    private static final byte      STRING       = 8;
+    private static final byte      DECIMAL      = 9;
+    private static final byte      TIMESTAMP    = 10;
+    private static final byte      DATE         = 11;
+    private static final byte      TIME         = 12;
+    private static final byte      BYTES        = 13;
+    private static final byte      SERIALIZED   = 14;
+
+    private final Path             path;
+    private final FileChannel      channel;
+    private final List<ByteBuffer> segments     = new ArrayList<>();
+    private ByteBuffer             scratch      = ByteBuffer.allocate(4096);
+    private long[]                 offsets      = new long[1024];
+    private int                    rows;
+    private long                   position;
+
+    SpillFile(Path directory) throws IOException {
+        this.path = directory == null ? Files.createTempFile("geraldao-", ".rows") : Files.createTempFile(directory, "geraldao-", ".rows");
+        this.channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    int size() {
+        return rows;
+    }
+
+    /**
+     * Appends a row. A row never crosses segments, so it can be read from a single mapped buffer.
+     */
+    void write(Object[] values) throws IOException {
+        scratch.clear();
+        for (Object value : values) {
+            encode(value);
+        }
+        scratch.flip();
+        int length = scratch.remaining();
+        if (length > SEGMENT_SIZE) {
+            throw new IOException("Row of " + length + " bytes is bigger than the spill segment");
+        }
+        long start = position;
+        if (start % SEGMENT_SIZE + length > SEGMENT_SIZE) {
+            start = (start / SEGMENT_SIZE + 1) * SEGMENT_SIZE;
+        }
+        ByteBuffer segment = segment((int) (start / SEGMENT_SIZE)).duplicate();
+        segment.position((int) (start % SEGMENT_SIZE));
+        segment.put(scratch);
+
+        if (rows == offsets.length) {
+            offsets = Arrays.copyOf(offsets, rows * 2);
+        }
+        offsets[rows++] = start;
+        position = start + length;
+    }
+
+    /**
+     * Reads the row at index into values, which must have the row column count
+     */
+    void read(int index, Object[] values) throws IOException {
+        long start = offsets[index];
+        ByteBuffer segment = segments.get((int) (start / SEGMENT_SIZE)).duplicate();
+        segment.position((int) (start % SEGMENT_SIZE));
+        for (int i = 0; i < values.length; i++) {
+            values[i] = decode(segment);
+        }
+    }
+
+    /**
+     * Bytes a row would take on the file, used to measure byte budgets
+     */
+    static long estimate(Object[] values) {
+        long bytes = 0;
+        for (Object value : values) {
+            bytes += 1;
+            if (value instanceof String) {
+                bytes += 4 + ((String) value).length();
+            } else if (value instanceof byte[]) {
+                bytes += 4 + ((byte[]) value).length;
+            } else if (value instanceof BigDecimal) {
+                bytes += 4 + ((BigDecimal) value).precision() + 2;
+            } else if (value != null) {
+                bytes += 12;
+            }
+        }
+        return bytes;
+    }
+
+    private void encode(Object value) throws IOException {
+        ensure(16);
+        if (value == null) {
+            scratch.put(NULL);
+        } else if (value instanceof Long) {
+            scratch.put(LONG).putLong((Long) value);
+        } else if (value instanceof Integer) {
+            scratch.put(INTEGER).putInt((Integer) value);
+        } else if (value instanceof Short) {
+            scratch.put(SHORT).putShort((Short) value);
+        } else if (value instanceof Byte) {
+            scratch.put(BYTE).put((Byte) value);
+        } else if (value instanceof Double) {
+            scratch.put(DOUBLE).putDouble((Double) value);
+        } else if (value instanceof Float) {
+            scratch.put(FLOAT).putFloat((Float) value);
+        } else if (value instanceof Boolean) {
+            scratch.put(BOOLEAN).put((byte) ((Boolean) value ? 1 : 0));
+        } else if (value instanceof String) {
+            putBytes(STRING, ((String) value).getBytes(StandardCharsets.UTF_8));
+        } else if (value instanceof BigDecimal) {
+            putBytes(DECIMAL, ((BigDecimal) value).toString().getBytes(StandardCharsets.US_ASCII));
+        } else if (value instanceof Timestamp) {
+            scratch.put(TIMESTAMP).putLong(((Timestamp) value).getTime()).putInt(((Timestamp) value).getNanos());
+        } else if (value instanceof java.sql.Date) {
+            scratch.put(DATE).putLong(((java.sql.Date) value).getTime());
+        } else if (value instanceof Time) {
+            scratch.put(TIME).putLong(((Time) value).getTime());
+        } else if (value instanceof byte[]) {
+            putBytes(BYTES, (byte[]) value);
+        } else {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(value);
+            }
+            putBytes(SERIALIZED, bytes.toByteArray());
+        }
+    }
+
+    private Object decode(ByteBuffer buffer) throws IOException {
+        byte tag = buffer.get();
+        switch (tag) {
+            case NULL:
+                return null;
+            case LONG:
+                return buffer.getLong();
+            case INTEGER:
+                return buffer.getInt();
+            case SHORT:
+                return buffer.getShort();
+            case BYTE:
+                return buffer.get();
+            case DOUBLE:
+                return buffer.getDouble();
+            case FLOAT:
+                return buffer.getFloat();
+            case BOOLEAN:
+                return buffer.get() != 0;
+            case STRING:
+                return new String(getBytes(buffer), StandardCharsets.UTF_8);
+            case DECIMAL:
+                return new BigDecimal(new String(getBytes(buffer), StandardCharsets.US_ASCII));
+            case TIMESTAMP:
+                Timestamp timestamp = new Timestamp(buffer.getLong());
+                timestamp.setNanos(buffer.getInt());
+                return timestamp;
+            case DATE:
+                return new java.sql.Date(buffer.getLong());
+            case TIME:
+                return new Time(buffer.getLong());
+            case BYTES:
+                return getBytes(buffer);
+            case SERIALIZED:
+                try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(getBytes(buffer)))) {
+                    return in.readObject();
+                } catch (ClassNotFoundException e) {
+                    throw new IOException(e);
+                }
+            default:
+                throw new IOException("Corrupted spill file " + path + ", unknown tag " + tag);
+        }
+    }
+
+    private void putBytes(byte tag, byte[] bytes) {
+        ensure(5 + bytes.length);
+        scratch.put(tag).putInt(bytes.length).put(bytes);
+    }
+
+    private byte[] getBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private void ensure(int bytes) {
+        if (scratch.remaining() < bytes) {
+            ByteBuffer bigger = ByteBuffer.allocate(Math.max(scratch.capacity() * 2, scratch.position() + bytes));
+            scratch.flip();
+            bigger.put(scratch);
+            scratch = bigger;
+        }
+    }
+
+    private ByteBuffer segment(int index) throws IOException {
+        while (segments.size() <= index) {
+            MappedByteBuffer segment = channel.map(MapMode.READ_WRITE, (long) segments.size() * SEGMENT_SIZE, SEGMENT_SIZE);
+            segments.add(segment);
+        }
+        return segments.get(index);
+    }
+
+    /**
+     * Deletes the file. Mapped segments are released by the garbage collector.
+     */
+    @Override
+    public void close() {
+        segments.clear();
+        try {
+            channel.close();
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            LOGGER.warn("Unable to delete spill file " + path + ", it will be deleted on exit: " + e.getMessage());
+            path.toFile().deleteOnExit();
+        }
+    }
+
+}
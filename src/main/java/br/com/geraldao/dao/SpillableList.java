@@ -0,0 +1,196 @@
+package br.com.geraldao.dao;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.RandomAccess;
+
+import br.com.geraldao.query.QueryResultReader;
+
+/**
+ * Read-only result list of a {@code findAll} executed with a {@link ResultBudget}. Rows within the budget are kept on heap; the remaining rows are stored as raw column values on a {@link SpillFile} and mapped by the {@link QueryResultReader} again on each access. With a byte budget
+ * each row is read once as raw values, to be measured, and mapped from them.<br>
+ * Must be closed to delete the spill file.
+ *
+ * @param <T>
+ *            Class type of each row
+ */
+public class SpillableList<T> extends AbstractList<T> implements RandomAccess, Closeable {
+
+    private final ResultBudget         budget;
+    private final QueryResultReader<T> reader;
+    private final List<T>              head    = new ArrayList<>();
+    private final List<String[]>       shapes  = new ArrayList<>();
+    private int[]                      rowShapes;
+    private long                       bytes;
+    private SpillFile                  file;
+    private ResultSet                  lastResultSet;
+    private Object[]                   measured;
+
+    SpillableList(ResultBudget budget, QueryResultReader<T> reader) {
+        this.budget = budget;
+        this.reader = reader;
+    }
+
+    /**
+     * Spills the current row of the result set when the budget is exhausted.
+     *
+     * @return <b>true</b> if the row was spilled, <b>false</b> if it must be read and kept on heap
+     */
+    boolean spill(ResultSet rs) throws SQLException {
+        Object[] values = null;
+        if (file == null) {
+            if (budget.isByteLimited()) {
+                values = readRaw(rs);
+                bytes += SpillFile.estimate(values);
+            }
+            if (head.size() < budget.getMaxRows() && bytes <= budget.getMaxBytes()) {
+                measured = values;
+                return false;
+            }
+            try {
+                file = new SpillFile(budget.getDirectory());
+                rowShapes = new int[1024];
+            } catch (IOException e) {
+                throw new SQLException("Unable to create spill file", e);
+            }
+        }
+        if (values == null) {
+            values = readRaw(rs);
+        }
+        try {
+            if (file.size() == rowShapes.length) {
+                rowShapes = Arrays.copyOf(rowShapes, rowShapes.length * 2);
+            }
+            rowShapes[file.size()] = shapes.size() - 1;
+            file.write(values);
+        } catch (IOException e) {
+            throw new SQLException("Unable to write spill file", e);
+        }
+        return true;
+    }
+
+    /**
+     * Maps the current row, which was not spilled. A row measured for a byte budget is mapped from the values already read, so each row is read from the driver once.
+     */
+    T map(ResultSet rs) throws SQLException {
+        Object[] values = measured;
+        measured = null;
+        return values == null ? reader.get(rs) : reader.get(rowResultSet(shapes.get(shapes.size() - 1), values));
+    }
+
+    void addInMemory(T value) {
+        head.add(value);
+    }
+
+    /**
+     * @return number of rows stored on the spill file
+     */
+    public int getSpilledRows() {
+        return file == null ? 0 : file.size();
+    }
+
+    @Override
+    public synchronized T get(int index) {
+        if (index < head.size()) {
+            return head.get(index);
+        }
+        int spilled = index - head.size();
+        if (file == null || spilled >= file.size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+        String[] labels = shapes.get(rowShapes[spilled]);
+        Object[] values = new Object[labels.length];
+        try {
+            file.read(spilled, values);
+            return reader.get(rowResultSet(labels, values));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Unable to read spilled row " + index, e);
+        }
+    }
+
+    @Override
+    public int size() {
+        return head.size() + getSpilledRows();
+    }
+
+    /**
+     * Deletes the spill file. Spilled rows are not accessible after closing.
+     */
+    @Override
+    public synchronized void close() {
+        if (file != null) {
+            file.close();
+            file = null;
+        }
+    }
+
+    private Object[] readRaw(ResultSet rs) throws SQLException {
+        if (rs != lastResultSet) {
+            ResultSetMetaData metaData = rs.getMetaData();
+            String[] labels = new String[metaData.getColumnCount()];
+            for (int i = 0; i < labels.length; i++) {
+                labels[i] = metaData.getColumnLabel(i + 1);
+            }
+            shapes.add(labels);
+            lastResultSet = rs;
+        }
+        Object[] values = new Object[shapes.get(shapes.size() - 1).length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = rs.getObject(i + 1);
+        }
+        return values;
+    }
+
+    /**
+     * Single row {@link ResultSet} answering {@code getObject} by position or label, which is what {@link QueryResultReader} reads.
+     */
+    private static ResultSet rowResultSet(String[] labels, Object[] values) {
+        Object[] lastValue = new Object[1];
+        return (ResultSet) Proxy.newProxyInstance(SpillableList.class.getClassLoader(), new Class<?>[] { ResultSet.class }, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getObject":
+                    int column = args[0] instanceof String ? findColumn(labels, (String) args[0]) : (Integer) args[0];
+                    lastValue[0] = values[column - 1];
+                    return lastValue[0];
+                case "findColumn":
+                    return findColumn(labels, (String) args[0]);
+                case "wasNull":
+                    return lastValue[0] == null;
+                case "isClosed":
+                    return false;
+                case "close":
+                    return null;
+                case "toString":
+                    return "SpilledRow " + Arrays.toString(values);
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                default:
+                    throw new SQLException("Operation " + method.getName() + " not supported on spilled rows");
+            }
+        });
+    }
+
+    private static int findColumn(String[] labels, String label) throws SQLException {
+        for (int i = 0; i < labels.length; i++) {
+            if (labels[i].equalsIgnoreCase(label)) {
+                return i + 1;
+            }
+        }
+        throw new SQLException("Column " + label.toUpperCase(Locale.ROOT) + " not found");
+    }
+
+}
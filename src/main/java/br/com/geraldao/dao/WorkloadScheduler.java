@@ -0,0 +1,199 @@
+package br.com.geraldao.dao;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import br.com.geraldao.exception.WorkloadRejectedException;
+import br.com.geraldao.query.Workload;
+
+/**
+ * Admits statements according to their {@link Workload}. Each workload runs at most {@link Workload#getMaxConcurrency()} statements at once and the scheduler itself may limit the total of running statements. Waiting statements are admitted by priority (FIFO inside the same priority) and are
+ * rejected with {@link WorkloadRejectedException} when the workload queue is full or the wait expires.<br>
+ * The same scheduler should be shared by every {@link QueryService} using the same database, see {@link QueryService#workloadScheduler()}.
+ */
+public class WorkloadScheduler {
+
+    /**
+     * Scheduler without total limit, used by default on {@link QueryService}. Only the limits of each workload apply.
+     */
+    public static final WorkloadScheduler DEFAULT = new WorkloadScheduler(0);
+
+    private final int                        maxConcurrency;
+    private final ReentrantLock              lock    = new ReentrantLock();
+    private final Condition                  changed = lock.newCondition();
+    private final TreeSet<Ticket>            waiting = new TreeSet<>(Ticket.ORDER);
+    private final Map<String, WorkloadState> states  = new HashMap<>();
+    private int                              running;
+    private long                             sequence;
+
+    /**
+     * @param maxConcurrency
+     *            - maximum statements running at the same time across all workloads. <b>0</b> means no total limit
+     */
+    public WorkloadScheduler(int maxConcurrency) {
+        if (maxConcurrency < 0) {
+            throw new IllegalArgumentException("maxConcurrency must not be negative");
+        }
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    /**
+     * Waits for a free slot of the workload.
+     *
+     * @param workload
+     *            - workload of the statement to be executed
+     * @throws WorkloadRejectedException
+     *             if the workload queue is full, the wait expired or the thread was interrupted
+     */
+    public void acquire(Workload workload) throws WorkloadRejectedException {
+        lock.lock();
+        try {
+            WorkloadState state = state(workload);
+            Ticket ticket = new Ticket(workload, sequence++);
+            waiting.add(ticket);
+            try {
+                if (!isNext(ticket)) {
+                    if (state.queued >= workload.getQueueDepth()) {
+                        state.rejected++;
+                        throw new WorkloadRejectedException(workload, "queue is full");
+                    }
+                    state.queued++;
+                    try {
+                        await(ticket, state);
+                    } finally {
+                        state.queued--;
+                    }
+                }
+            } finally {
+                waiting.remove(ticket);
+                changed.signalAll();
+            }
+            state.running++;
+            running++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Frees the slot taken by {@link #acquire(Workload)}. Must be called once for each successful acquire.
+     *
+     * @param workload
+     *            - workload of the executed statement
+     */
+    public void release(Workload workload) {
+        lock.lock();
+        try {
+            state(workload).running--;
+            running--;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return statements of the workload currently running
+     */
+    public int getRunning(Workload workload) {
+        lock.lock();
+        try {
+            return state(workload).running;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return statements of the workload currently waiting for a slot
+     */
+    public int getQueued(Workload workload) {
+        lock.lock();
+        try {
+            return state(workload).queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return statements of the workload rejected since the scheduler creation
+     */
+    public long getRejected(Workload workload) {
+        lock.lock();
+        try {
+            return state(workload).rejected;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void await(Ticket ticket, WorkloadState state) throws WorkloadRejectedException {
+        Workload workload = ticket.workload;
+        long nanos = TimeUnit.MILLISECONDS.toNanos(workload.getMaxWaitMillis());
+        try {
+            while (!isNext(ticket)) {
+                if (workload.getMaxWaitMillis() == 0) {
+                    changed.await();
+                } else if (nanos <= 0) {
+                    state.rejected++;
+                    throw new WorkloadRejectedException(workload, "waited more than " + workload.getMaxWaitMillis() + "ms");
+                } else {
+                    nanos = changed.awaitNanos(nanos);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            state.rejected++;
+            throw new WorkloadRejectedException(workload, "interrupted while waiting");
+        }
+    }
+
+    /**
+     * The ticket may run when it is the first waiting ticket, in priority order, whose workload has a free slot.
+     */
+    private boolean isNext(Ticket ticket) {
+        if (maxConcurrency > 0 && running >= maxConcurrency) {
+            return false;
+        }
+        for (Ticket candidate : waiting) {
+            if (state(candidate.workload).running < candidate.workload.getMaxConcurrency()) {
+                return candidate == ticket;
+            }
+        }
+        return false;
+    }
+
+    private WorkloadState state(Workload workload) {
+        return states.computeIfAbsent(workload.getName(), k -> new WorkloadState());
+    }
+
+    private static class WorkloadState {
+        private int  running;
+        private int  queued;
+        private long rejected;
+    }
+
+    private static class Ticket {
+        private static final Comparator<Ticket> ORDER = Comparator.comparing((Ticket t) -> t.workload.getPriority(), Comparator.reverseOrder()).thenComparingLong(t -> t.sequence);
+
+        private final Workload                  workload;
+        private final long                      sequence;
+
+        private Ticket(Workload workload, long sequence) {
+            this.workload = workload;
+            this.sequence = sequence;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "WorkloadScheduler [maxConcurrency=" + maxConcurrency + "]";
+    }
+
+}
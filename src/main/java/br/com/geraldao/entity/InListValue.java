@@ -0,0 +1,118 @@
+package br.com.geraldao.entity;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Table;
+
+/**
+ * Value of a large {@code IN} list staged on the <b>GERALDAO_IN_LIST</b> table, so the query joins a subquery of one list id instead of binding one parameter per value. Rows are written and deleted by {@code BaseService} within the transaction of the query, with JDBC statements on this table and columns, so they must not be renamed by a mapping file.<br>
+ * Must be listed on the persistence unit (and its table created) to enable {@code BaseService#inListStagingThreshold()}.
+ */
+@Entity
+@Table(name = "GERALDAO_IN_LIST")
+@IdClass(InListValue.Key.class)
+public class InListValue implements Serializable {
+
+    private static final long serialVersionUID = 4630716113426823117L;
+    private String            listId;
+    private int               position;
+    private Long              longValue;
+    private String            stringValue;
+
+    public InListValue() {
+    }
+
+    public InListValue(String listId, int position, Object value) {
+        this.listId = listId;
+        this.position = position;
+        if (value instanceof Number) {
+            this.longValue = ((Number) value).longValue();
+        } else {
+            this.stringValue = (String) value;
+        }
+    }
+
+    @Id
+    @Column(name = "list_id", length = 36)
+    public String getListId() {
+        return listId;
+    }
+
+    public void setListId(String listId) {
+        this.listId = listId;
+    }
+
+    @Id
+    @Column(name = "list_position")
+    public int getPosition() {
+        return position;
+    }
+
+    public void setPosition(int position) {
+        this.position = position;
+    }
+
+    @Column(name = "long_value")
+    public Long getLongValue() {
+        return longValue;
+    }
+
+    public void setLongValue(Long longValue) {
+        this.longValue = longValue;
+    }
+
+    @Column(name = "string_value")
+    public String getStringValue() {
+        return stringValue;
+    }
+
+    public void setStringValue(String stringValue) {
+        this.stringValue = stringValue;
+    }
+
+    /**
+     * Composite key: list id and position of the value on the list
+     */
+    public static class Key implements Serializable {
+
+        private static final long serialVersionUID = -1785431964785612231L;
+        private String            listId;
+        private int               position;
+
+        public String getListId() {
+            return listId;
+        }
+
+        public void setListId(String listId) {
+            this.listId = listId;
+        }
+
+        public int getPosition() {
+            return position;
+        }
+
+        public void setPosition(int position) {
+            this.position = position;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(listId, position);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return position == other.position && Objects.equals(listId, other.listId);
+        }
+    }
+
+}
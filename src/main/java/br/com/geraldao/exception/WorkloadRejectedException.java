@@ -0,0 +1,25 @@
+package br.com.geraldao.exception;
+
+import java.sql.SQLTransientException;
+
+import br.com.geraldao.query.Workload;
+
+/**
+ * Thrown when a statement is not admitted by its {@link Workload}, either because the workload queue is full or because it waited longer than allowed. The statement was never sent to the database, so it is safe to retry later.
+ *
+ */
+public class WorkloadRejectedException extends SQLTransientException {
+
+    private static final long serialVersionUID = 2915622436102838921L;
+    private final Workload    workload;
+
+    public WorkloadRejectedException(Workload workload, String reason) {
+        super("Statement rejected by workload " + workload.getName() + ": " + reason);
+        this.workload = workload;
+    }
+
+    public Workload getWorkload() {
+        return workload;
+    }
+
+}
@@ -0,0 +1,512 @@
+package br.com.geraldao.predicate;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+import javax.persistence.Query;
+import javax.persistence.criteria.Predicate.BooleanOperator;
+
+import br.com.geraldao.constant.Operator;
+import br.com.geraldao.entity.InListValue;
+import br.com.geraldao.util.ListUtil;
+
+/**
+ * JPQL where clause of a {@link PredicateClause}, built once per <b>shape</b>: the fields, operators, combiners and {@code IN} list sizes of the clause, but not its values. Clauses of the same shape share the same template and only have their values bound, so the statement is parsed and planned once.<br>
+ * The generated condition has the same precedence as {@link PredicateClause#generator(javax.persistence.criteria.Root, javax.persistence.criteria.CriteriaBuilder)}. Fields are prefixed by the {@link #ALIAS} of the root entity and values are bound as <b>:p0</b>, <b>:p1</b>... in order. Field names are
+ * written on the statement, so they must be {@link #isFieldPath(String) paths}, and the caller must check them against the entity, see {@link #getFields()}.<br>
+ * {@code IN} and {@code NOT IN} lists of numbers or strings bigger than a staging threshold are compared against a subquery of {@link InListValue} rows, binding only the id of the staged list, see {@link #of(PredicateClause, int)}.
+ *
+ * @see PredicateClause
+ */
+public class PredicateTemplate {
+
+    /**
+     * Alias of the root entity used on the condition
+     */
+    public static final String                                        ALIAS      = "e";
+
+    private static final String                                       TRUE       = "1 = 1";
+    private static final String                                       FALSE      = "1 = -1";
+    private static final String                                       STAGED     = "#staged-";
+    private static final String                                       PARAMETER  = "p";
+    private static final Pattern                                      PARAMETERS = Pattern.compile(":" + PARAMETER + "(\\d+)");
+    private static final Pattern                                      FIELD      = Pattern.compile("[A-Za-z_$][\\w$]*(\\.[A-Za-z_$][\\w$]*)*");
+    private static final int                                          CACHE_SIZE = 2048;
+    private static final ConcurrentHashMap<String, PredicateTemplate> CACHE      = new ConcurrentHashMap<>();
+
+    private final String                                              shape;
+    private final String                                              condition;
+    private final int                                                 parameters;
+    private final int                                                 stagingThreshold;
+    private final Set<String>                                         fields;
+    private final String[]                                            parameterFields;
+
+    private PredicateTemplate(String shape, String condition, int stagingThreshold, Set<String> fields, List<String> parameterFields) {
+        this.shape = shape;
+        this.condition = condition;
+        this.parameters = parameterFields.size();
+        this.stagingThreshold = stagingThreshold;
+        this.fields = Collections.unmodifiableSet(fields);
+        this.parameterFields = parameterFields.toArray(new String[parameterFields.size()]);
+    }
+
+    /**
+     * @param predicateClause
+     *            - built clause
+     * @return cached template of the clause shape
+     */
+    public static PredicateTemplate of(PredicateClause predicateClause) {
+        return of(predicateClause, 0);
+    }
+
+    /**
+     * Template comparing {@code IN} and {@code NOT IN} lists bigger than the threshold against a staged list, whose values must be {@link InListValue} rows of the list id bound by {@link #bind(Query, PredicateClause, Function)}. Lists of other types are always bound.
+     *
+     * @param predicateClause
+     *            - built clause
+     * @param stagingThreshold
+     *            - list size from which lists are staged. <b>0</b> never stages
+     * @return cached template of the clause shape
+     */
+    public static PredicateTemplate of(PredicateClause predicateClause, int stagingThreshold) {
+        String shape = shape(predicateClause, stagingThreshold);
+        PredicateTemplate template = CACHE.get(shape);
+        if (template == null) {
+            if (CACHE.size() >= CACHE_SIZE) {
+                CACHE.clear();
+            }
+            template = CACHE.computeIfAbsent(shape, s -> compile(s, predicateClause, stagingThreshold));
+        }
+        return template;
+    }
+
+    /**
+     * Key of the clause structure, equal for clauses which differ only on their values. EG: {@code [city EQUAL|OR id IN#3]}
+     *
+     * @param predicateClause
+     *            - built clause
+     * @return stable shape key
+     */
+    public static String shape(PredicateClause predicateClause) {
+        return shape(predicateClause, 0);
+    }
+
+    /**
+     * Same as {@link #shape(PredicateClause)}, where staged lists have a single shape whatever their size
+     *
+     * @param predicateClause
+     *            - built clause
+     * @param stagingThreshold
+     *            - list size from which lists are staged. <b>0</b> never stages
+     * @return stable shape key
+     */
+    public static String shape(PredicateClause predicateClause, int stagingThreshold) {
+        StringBuilder shape = new StringBuilder(64);
+        appendShape(shape, predicateClause.getQueries(), stagingThreshold);
+        return shape.toString();
+    }
+
+    /**
+     * Binds the values of a clause of this shape on a query created with {@link #getCondition()}
+     *
+     * @param query
+     *            - query to bind
+     * @param predicateClause
+     *            - clause with the same {@link #getShape()}
+     * @return the query
+     */
+    public <Q extends Query> Q bind(Q query, PredicateClause predicateClause) {
+        return bind(query, predicateClause, null);
+    }
+
+    /**
+     * Binds the values of a clause of this shape, staging its big lists
+     *
+     * @param query
+     *            - query to bind
+     * @param predicateClause
+     *            - clause with the same {@link #getShape()}
+     * @param stager
+     *            - stores the values of a list as {@link InListValue} rows and returns their list id
+     * @return the query
+     */
+    public <Q extends Query> Q bind(Q query, PredicateClause predicateClause, Function<Collection<?>, String> stager) {
+        return bind(query, predicateClause, stager, PARAMETER);
+    }
+
+    /**
+     * Binds the values of a clause of this shape on a query created with {@link #getCondition(String)}
+     *
+     * @param query
+     *            - query to bind
+     * @param predicateClause
+     *            - clause with the same {@link #getShape()}
+     * @param stager
+     *            - stores the values of a list as {@link InListValue} rows and returns their list id, may be <b>null</b> when no list is staged
+     * @param prefix
+     *            - prefix of the parameter names
+     * @return the query
+     */
+    public <Q extends Query> Q bind(Q query, PredicateClause predicateClause, Function<Collection<?>, String> stager, String prefix) {
+        return bind(query, predicateClause, stager, prefix, null);
+    }
+
+    /**
+     * Binds the values of a clause of this shape, converted to the type of their fields. Criteria queries convert the values to the type of the path they are compared with, but JPQL parameters are bound as they are, so an {@link Integer} compared with a {@link Long} field, or the
+     * text {@code LESS_THAN_OR_EQUAL} compares with a number field, fails. Numbers are converted when no digit is lost and texts are parsed as numbers; other values are bound as they are.
+     *
+     * @param query
+     *            - query to bind
+     * @param predicateClause
+     *            - clause with the same {@link #getShape()}
+     * @param stager
+     *            - stores the values of a list as {@link InListValue} rows and returns their list id, may be <b>null</b> when no list is staged
+     * @param prefix
+     *            - prefix of the parameter names
+     * @param fieldTypes
+     *            - Java type of each field of {@link #getFields()}, may be <b>null</b> to bind the values as they are
+     * @return the query
+     */
+    public <Q extends Query> Q bind(Q query, PredicateClause predicateClause, Function<Collection<?>, String> stager, String prefix, Function<String, Class<?>> fieldTypes) {
+        List<Object> values = new ArrayList<>(parameters);
+        collectValues(values, predicateClause.getQueries(), stagingThreshold, stager);
+        if (values.size() != parameters) {
+            throw new IllegalArgumentException("PredicateClause does not have the shape " + shape);
+        }
+        for (int i = 0; i < parameters; i++) {
+            Object value = values.get(i);
+            if (fieldTypes != null && parameterFields[i] != null) {
+                value = convert(value, fieldTypes.apply(parameterFields[i]));
+            }
+            query.setParameter(prefix + i, value);
+        }
+        return query;
+    }
+
+    /**
+     * Values of a clause as they are bound, in order: {@code LIKE} patterns already built and empty {@code IN} lists left out
+     *
+     * @param predicateClause
+     *            - built clause
+     * @return value of each parameter
+     */
+    public static List<Object> values(PredicateClause predicateClause) {
+        List<Object> values = new ArrayList<>();
+        collectValues(values, predicateClause.getQueries(), 0, null);
+        return values;
+    }
+
+    /**
+     * Values the clause binds once the driver expands its lists: each element of a bound list counts, and a staged list counts once
+     *
+     * @param predicateClause
+     *            - clause with the same {@link #getShape()}
+     * @return number of statement parameters
+     */
+    public int countValues(PredicateClause predicateClause) {
+        List<Object> values = new ArrayList<>(parameters);
+        collectValues(values, predicateClause.getQueries(), stagingThreshold, list -> STAGED);
+        int count = 0;
+        for (Object value : values) {
+            count += value instanceof Collection ? ((Collection<?>) value).size() : 1;
+        }
+        return count;
+    }
+
+    public String getShape() {
+        return shape;
+    }
+
+    /**
+     * @return JPQL condition over {@link #ALIAS}, without the <b>where</b> keyword
+     */
+    public String getCondition() {
+        return condition;
+    }
+
+    /**
+     * Same as {@link #getCondition()}, with the parameters named <b>:prefix0</b>, <b>:prefix1</b>... so the conditions of many clauses can be combined on one statement
+     *
+     * @param prefix
+     *            - prefix of the parameter names, made of letters, digits and underscores
+     * @return JPQL condition over {@link #ALIAS}, without the <b>where</b> keyword
+     */
+    public String getCondition(String prefix) {
+        return PARAMETER.equals(prefix) ? condition : PARAMETERS.matcher(condition).replaceAll(":" + prefix + "$1");
+    }
+
+    public int getParameters() {
+        return parameters;
+    }
+
+    /**
+     * @return field paths written on the condition, to be checked against the entity the template is applied to
+     */
+    public Set<String> getFields() {
+        return fields;
+    }
+
+    /**
+     * @param field
+     *            - field name or dotted path
+     * @return <b>true</b> if the name can be written on a JPQL statement: identifiers separated by dots
+     */
+    public static boolean isFieldPath(String field) {
+        return field != null && FIELD.matcher(field).matches();
+    }
+
+    /**
+     * Converts a value to the type of the field it is compared with or assigned to, as criteria queries do
+     *
+     * @param value
+     *            - value or list of values
+     * @param type
+     *            - Java type of the field
+     * @return the value, or each value of a list, converted to the type when it is a number or a text and no digit is lost, otherwise the value itself
+     */
+    public static Object convert(Object value, Class<?> type) {
+        if (value instanceof Collection) {
+            Collection<?> list = (Collection<?>) value;
+            List<Object> converted = new ArrayList<>(list.size());
+            for (Object item : list) {
+                converted.add(convert(item, type));
+            }
+            return converted;
+        }
+        Class<?> boxed = box(type);
+        if (value == null || boxed == null || boxed.isInstance(value) || !Number.class.isAssignableFrom(boxed) || !(value instanceof Number || value instanceof String)) {
+            return value;
+        }
+        try {
+            BigDecimal number = value instanceof BigDecimal ? (BigDecimal) value : new BigDecimal(value.toString().trim());
+            if (boxed == Long.class) {
+                return number.longValueExact();
+            } else if (boxed == Integer.class) {
+                return number.intValueExact();
+            } else if (boxed == Short.class) {
+                return number.shortValueExact();
+            } else if (boxed == Byte.class) {
+                return number.byteValueExact();
+            } else if (boxed == BigInteger.class) {
+                return number.toBigIntegerExact();
+            } else if (boxed == BigDecimal.class) {
+                return number;
+            } else if (boxed == Double.class) {
+                return number.doubleValue();
+            } else if (boxed == Float.class) {
+                return number.floatValue();
+            }
+        } catch (ArithmeticException | NumberFormatException e) {
+            // bound as it is, the provider reports the mismatch
+        }
+        return value;
+    }
+
+    private static Class<?> box(Class<?> type) {
+        if (type == null || !type.isPrimitive()) {
+            return type;
+        }
+        if (type == long.class) {
+            return Long.class;
+        } else if (type == int.class) {
+            return Integer.class;
+        } else if (type == short.class) {
+            return Short.class;
+        } else if (type == byte.class) {
+            return Byte.class;
+        } else if (type == double.class) {
+            return Double.class;
+        } else if (type == float.class) {
+            return Float.class;
+        }
+        return null;
+    }
+
+    private static PredicateTemplate compile(String shape, PredicateClause predicateClause, int stagingThreshold) {
+        List<String> parameterFields = new ArrayList<>();
+        Set<String> fields = new LinkedHashSet<>();
+        List<String> conditions = readConditions(predicateClause.getQueries(), parameterFields, stagingThreshold, fields);
+        return new PredicateTemplate(shape, conditions.isEmpty() ? TRUE : conditions.get(0), stagingThreshold, fields, parameterFields);
+    }
+
+    /**
+     * Same fold as {@code PredicateClause.readPredicates}: each item is combined with everything before it by its own combiner
+     */
+    private static List<String> readConditions(List<ConditionCombiner> queries, List<String> parameterFields, int stagingThreshold, Set<String> fields) {
+        List<String> finalConditions = new ArrayList<>(1);
+        for (ConditionCombiner queryType : queries) {
+            List<String> conditions = new ArrayList<>(finalConditions);
+            if (queryType instanceof PredicateClause) {
+                conditions.addAll(readConditions(((PredicateClause) queryType).getQueries(), parameterFields, stagingThreshold, fields));
+            } else if (queryType instanceof Condition) {
+                conditions.add(retrieveCondition((Condition) queryType, parameterFields, stagingThreshold, fields));
+            }
+            finalConditions.clear();
+            finalConditions.add(combine(conditions, queryType.getOperatorCombiner() == BooleanOperator.OR));
+        }
+        return finalConditions;
+    }
+
+    private static String combine(List<String> conditions, boolean or) {
+        if (conditions.isEmpty()) {
+            return or ? FALSE : TRUE;
+        }
+        if (conditions.size() == 1) {
+            return conditions.get(0);
+        }
+        return "(" + String.join(or ? " OR " : " AND ", conditions) + ")";
+    }
+
+    /**
+     * Adds the field of each parameter of the condition to the parameter fields, <b>null</b> for the id of a staged list
+     */
+    private static String retrieveCondition(Condition condition, List<String> parameterFields, int stagingThreshold, Set<String> fields) {
+        if (!isFieldPath(condition.getFieldName())) {
+            throw new IllegalArgumentException("Invalid field name " + condition.getFieldName());
+        }
+        fields.add(condition.getFieldName());
+        String field = ALIAS + "." + condition.getFieldName();
+        char staged = stagedType(condition, stagingThreshold);
+        if (staged != 0) {
+            String column = staged == 'L' ? "longValue" : "stringValue";
+            return field + (condition.getOperator() == Operator.NOT_IN ? " NOT IN" : " IN") + " (select v." + column + " from " + InListValue.class.getSimpleName() + " v where v.listId = " + parameter(parameterFields, null) + ")";
+        }
+        switch (condition.getOperator()) {
+            case CONTAINS:
+            case ENDS_WITH:
+            case STARTS_WITH:
+                return field + " LIKE " + parameter(parameterFields, condition.getFieldName());
+            case IN:
+                return isEmpty(condition) ? FALSE : field + " IN (" + parameter(parameterFields, condition.getFieldName()) + ")";
+            case NOT_IN:
+                return isEmpty(condition) ? FALSE : field + " NOT IN (" + parameter(parameterFields, condition.getFieldName()) + ")";
+            case LESS_THAN_OR_EQUAL:
+                return field + " <= " + parameter(parameterFields, condition.getFieldName());
+            case NOT_EQUAL:
+                return field + " <> " + parameter(parameterFields, condition.getFieldName());
+            case EQUAL:
+                return field + " = " + parameter(parameterFields, condition.getFieldName());
+            case NOT_NULL:
+                return field + " IS NOT NULL";
+            case ISNULL:
+                return field + " IS NULL";
+            default:
+                throw new IllegalArgumentException("Operator " + condition.getOperator() + " not supported");
+        }
+    }
+
+    /**
+     * @return the name of the next parameter, bound to a value of the field
+     */
+    private static String parameter(List<String> parameterFields, String field) {
+        parameterFields.add(field);
+        return ":" + PARAMETER + (parameterFields.size() - 1);
+    }
+
+    private static void appendShape(StringBuilder shape, List<ConditionCombiner> queries, int stagingThreshold) {
+        shape.append('[');
+        for (int i = 0; i < queries.size(); i++) {
+            ConditionCombiner queryType = queries.get(i);
+            if (i > 0) {
+                shape.append(queryType.getOperatorCombiner() == BooleanOperator.OR ? '|' : '&');
+            }
+            if (queryType instanceof PredicateClause) {
+                appendShape(shape, ((PredicateClause) queryType).getQueries(), stagingThreshold);
+            } else if (queryType instanceof Condition) {
+                Condition condition = (Condition) queryType;
+                shape.append(condition.getFieldName()).append(' ').append(condition.getOperator());
+                char staged = stagedType(condition, stagingThreshold);
+                if (staged != 0) {
+                    shape.append(STAGED).append(staged);
+                } else if (condition.getFieldValue() instanceof Collection) {
+                    shape.append('#').append(((Collection<?>) condition.getFieldValue()).size());
+                }
+            }
+        }
+        shape.append(']');
+    }
+
+    private static void collectValues(List<Object> values, List<ConditionCombiner> queries, int stagingThreshold, Function<Collection<?>, String> stager) {
+        for (ConditionCombiner queryType : queries) {
+            if (queryType instanceof PredicateClause) {
+                collectValues(values, ((PredicateClause) queryType).getQueries(), stagingThreshold, stager);
+            } else if (queryType instanceof Condition) {
+                Condition condition = (Condition) queryType;
+                Object value = condition.getFieldValue();
+                switch (condition.getOperator()) {
+                    case CONTAINS:
+                        values.add("%" + value + "%");
+                        break;
+                    case ENDS_WITH:
+                        values.add("%" + value);
+                        break;
+                    case STARTS_WITH:
+                        values.add(value + "%");
+                        break;
+                    case IN:
+                    case NOT_IN:
+                        if (stagedType(condition, stagingThreshold) != 0) {
+                            if (stager == null) {
+                                throw new IllegalArgumentException("Lists bigger than " + stagingThreshold + " values must be staged");
+                            }
+                            values.add(stager.apply((Collection<?>) value));
+                        } else if (!isEmpty(condition)) {
+                            values.add(value);
+                        }
+                        break;
+                    case LESS_THAN_OR_EQUAL:
+                        values.add(String.valueOf(value));
+                        break;
+                    case NOT_EQUAL:
+                    case EQUAL:
+                        values.add(value);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return <b>'L'</b> for a list of numbers or <b>'S'</b> for a list of strings to stage, <b>0</b> if the list is bound
+     */
+    private static char stagedType(Condition condition, int stagingThreshold) {
+        if (stagingThreshold <= 0 || (condition.getOperator() != Operator.IN && condition.getOperator() != Operator.NOT_IN) || !(condition.getFieldValue() instanceof Collection)) {
+            return 0;
+        }
+        Collection<?> values = (Collection<?>) condition.getFieldValue();
+        if (values.size() <= stagingThreshold) {
+            return 0;
+        }
+        boolean numbers = true;
+        boolean strings = true;
+        for (Object value : values) {
+            numbers &= value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte;
+            strings &= value instanceof String;
+            if (!numbers && !strings) {
+                return 0;
+            }
+        }
+        return numbers ? 'L' : 'S';
+    }
+
+    private static boolean isEmpty(Condition condition) {
+        return ListUtil.isCollectionEmpty((Collection<?>) condition.getFieldValue());
+    }
+
+    @Override
+    public String toString() {
+        return "PredicateTemplate [shape=" + shape + ", condition=" + condition + "]";
+    }
+
+}
@@ -0,0 +1,162 @@
+package br.com.geraldao.query;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityGraph;
+import javax.persistence.EntityManager;
+import javax.persistence.Subgraph;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Fetch;
+import javax.persistence.criteria.FetchParent;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Root;
+
+/**
+ * Associations loaded together with the entities of the {@code BaseService} finders, so touching them afterwards does not send one query per entity (N+1). Associations are attribute paths from the root entity, EG: <b>purchases</b> or <b>purchases.items</b>, and are loaded:
+ * <ul>
+ * <li>by left join fetches on the same query, see {@link #joinFetch(String...)}. Fetching collections makes the query distinct, and paging results with them is done in memory by most providers</li>
+ * <li>by an entity graph given as <b>javax.persistence.fetchgraph</b> hint (attributes out of the graph are treated as lazy), see {@link #fetchGraph(String...)}</li>
+ * <li>by an entity graph given as <b>javax.persistence.loadgraph</b> hint (attributes out of the graph keep their mapping), see {@link #loadGraph(String...)}</li>
+ * </ul>
+ * With graphs the provider decides between joins and follow-up queries for each association.
+ */
+public class FetchPlan {
+
+    private enum Kind {
+        JOIN_FETCH(null),
+        FETCH_GRAPH("javax.persistence.fetchgraph"),
+        LOAD_GRAPH("javax.persistence.loadgraph");
+
+        private final String hint;
+
+        private Kind(String hint) {
+            this.hint = hint;
+        }
+    }
+
+    private final Kind         kind;
+    private final List<String> paths;
+
+    private FetchPlan(Kind kind, String... paths) {
+        if (paths == null || paths.length == 0) {
+            throw new IllegalArgumentException("FetchPlan must have at least one association");
+        }
+        this.kind = kind;
+        this.paths = Collections.unmodifiableList(Arrays.asList(paths));
+    }
+
+    /**
+     * @param paths
+     *            - association paths fetched by left joins
+     * @return FetchPlan Object
+     */
+    public static FetchPlan joinFetch(String... paths) {
+        return new FetchPlan(Kind.JOIN_FETCH, paths);
+    }
+
+    /**
+     * @param paths
+     *            - association paths of the fetch graph
+     * @return FetchPlan Object
+     */
+    public static FetchPlan fetchGraph(String... paths) {
+        return new FetchPlan(Kind.FETCH_GRAPH, paths);
+    }
+
+    /**
+     * @param paths
+     *            - association paths of the load graph
+     * @return FetchPlan Object
+     */
+    public static FetchPlan loadGraph(String... paths) {
+        return new FetchPlan(Kind.LOAD_GRAPH, paths);
+    }
+
+    public List<String> getPaths() {
+        return paths;
+    }
+
+    /**
+     * Adds the join fetches to the query. Does nothing for graph plans.
+     *
+     * @param root
+     *            - root of the query
+     * @param cq
+     *            - query of the root
+     */
+    public void fetch(Root<?> root, CriteriaQuery<?> cq) {
+        if (kind != Kind.JOIN_FETCH) {
+            return;
+        }
+        Map<String, Fetch<?, ?>> fetches = new HashMap<>();
+        boolean collection = false;
+        for (String path : paths) {
+            FetchParent<?, ?> parent = root;
+            String prefix = "";
+            for (String name : path.split("\\.")) {
+                prefix = prefix.isEmpty() ? name : prefix + "." + name;
+                Fetch<?, ?> fetch = fetches.get(prefix);
+                if (fetch == null) {
+                    fetch = parent.fetch(name, JoinType.LEFT);
+                    fetches.put(prefix, fetch);
+                    collection |= fetch.getAttribute().isCollection();
+                }
+                parent = fetch;
+            }
+        }
+        if (collection) {
+            cq.distinct(true);
+        }
+    }
+
+    /**
+     * Creates the query hints of graph plans.
+     *
+     * @param em
+     *            - EntityManager creating the graph
+     * @param entityClass
+     *            - root entity of the graph
+     * @return hint with the entity graph, or an empty map for join fetch plans
+     */
+    public <T> Map<String, Object> hints(EntityManager em, Class<T> entityClass) {
+        if (kind == Kind.JOIN_FETCH) {
+            return Collections.emptyMap();
+        }
+        EntityGraph<T> graph = em.createEntityGraph(entityClass);
+        Map<String, Subgraph<?>> subgraphs = new HashMap<>();
+        for (String path : paths) {
+            String[] names = path.split("\\.");
+            Subgraph<?> parent = null;
+            String prefix = "";
+            for (int i = 0; i < names.length; i++) {
+                String name = names[i];
+                prefix = prefix.isEmpty() ? name : prefix + "." + name;
+                if (i == names.length - 1) {
+                    if (parent == null) {
+                        graph.addAttributeNodes(name);
+                    } else {
+                        parent.addAttributeNodes(name);
+                    }
+                } else {
+                    Subgraph<?> subgraph = subgraphs.get(prefix);
+                    if (subgraph == null) {
+                        subgraph = parent == null ? graph.addSubgraph(name) : parent.addSubgraph(name);
+                        subgraphs.put(prefix, subgraph);
+                    }
+                    parent = subgraph;
+                }
+            }
+        }
+        return Collections.singletonMap(kind.hint, graph);
+    }
+
+    @Override
+    public String toString() {
+        return "FetchPlan [kind=" + kind + ", paths=" + paths + "]";
+    }
+
+}
@@ -0,0 +1,123 @@
+package br.com.geraldao.query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SQL with <b>:name</b> parameters parsed to {@link java.sql.PreparedStatement} form. Each <b>:name</b> becomes a '?' placeholder and its name is kept on the slot position, so the same name may appear many times. Quoted strings, quoted identifiers, comments and '::' casts are not parsed.<br>
+ * Parsed templates are cached per SQL string, so each query is parsed only once.
+ *
+ * @see QueryBuilder#create(String, Map)
+ */
+class NamedParameterTemplate {
+
+    private static final int                                               CACHE_SIZE = 2048;
+    private static final ConcurrentHashMap<String, NamedParameterTemplate> CACHE      = new ConcurrentHashMap<>();
+
+    private final String                                                   sql;
+    private final List<String>                                             slots;
+
+    private NamedParameterTemplate(String sql, List<String> slots) {
+        this.sql = sql;
+        this.slots = slots;
+    }
+
+    /**
+     * @param query
+     *            - SQL with <b>:name</b> parameters
+     * @return cached template of the query
+     */
+    static NamedParameterTemplate of(String query) {
+        NamedParameterTemplate template = CACHE.get(query);
+        if (template == null) {
+            if (CACHE.size() >= CACHE_SIZE) {
+                CACHE.clear();
+            }
+            template = CACHE.computeIfAbsent(query, NamedParameterTemplate::parse);
+        }
+        return template;
+    }
+
+    /**
+     * @return SQL with '?' placeholders
+     */
+    String getSql() {
+        return sql;
+    }
+
+    /**
+     * @return parameter name of each placeholder, in order
+     */
+    List<String> getSlots() {
+        return slots;
+    }
+
+    /**
+     * Orders the values according to the placeholders
+     *
+     * @throws IllegalArgumentException
+     *             if a parameter used on the query has no value
+     */
+    List<Object> bind(Map<String, ?> values) {
+        Object[] bound = new Object[slots.size()];
+        for (int i = 0; i < bound.length; i++) {
+            String name = slots.get(i);
+            if (!values.containsKey(name)) {
+                throw new IllegalArgumentException("Parameter :" + name + " has no value");
+            }
+            bound[i] = values.get(name);
+        }
+        return Arrays.asList(bound);
+    }
+
+    private static NamedParameterTemplate parse(String query) {
+        StringBuilder sql = new StringBuilder(query.length());
+        List<String> slots = new ArrayList<>();
+        int length = query.length();
+        int i = 0;
+        while (i < length) {
+            char c = query.charAt(i);
+            if (c == '\'' || c == '"' || c == '[') {
+                int end = query.indexOf(c == '[' ? ']' : c, i + 1);
+                end = end < 0 ? length : end + 1;
+                sql.append(query, i, end);
+                i = end;
+            } else if (c == '-' && i + 1 < length && query.charAt(i + 1) == '-') {
+                int end = query.indexOf('\n', i);
+                end = end < 0 ? length : end;
+                sql.append(query, i, end);
+                i = end;
+            } else if (c == '/' && i + 1 < length && query.charAt(i + 1) == '*') {
+                int end = query.indexOf("*/", i + 2);
+                end = end < 0 ? length : end + 2;
+                sql.append(query, i, end);
+                i = end;
+            } else if (c == ':' && i + 1 < length && query.charAt(i + 1) == ':') {
+                sql.append("::");
+                i += 2;
+            } else if (c == ':' && i + 1 < length && Character.isJavaIdentifierStart(query.charAt(i + 1))) {
+                int end = i + 2;
+                while (end < length && Character.isJavaIdentifierPart(query.charAt(end))) {
+                    end++;
+                }
+                slots.add(query.substring(i + 1, end));
+                sql.append('?');
+                i = end;
+            } else {
+                sql.append(c);
+                i++;
+            }
+        }
+        return new NamedParameterTemplate(sql.toString(), Collections.unmodifiableList(slots));
+    }
+
+    @Override
+    public String toString() {
+        return "NamedParameterTemplate [sql=" + sql + ", slots=" + slots + "]";
+    }
+
+}
@@ -0,0 +1,127 @@
+package br.com.geraldao.query;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+
+/**
+ * Attributes selected by the projected finders of {@code BaseService}, instead of whole entities. Only the given attributes are read from the database and the result is built as:
+ * <ul>
+ * <li>a DTO by its constructor, see {@link #constructor(Class, String...)}</li>
+ * <li>a {@link Tuple} whose aliases are the attribute paths, see {@link #tuple(String...)}</li>
+ * <li>an {@code Object[]} in the attribute order, see {@link #array(String...)}</li>
+ * </ul>
+ * Attributes are paths from the root entity, so <b>customer.name</b> selects the name of the customer association (joined by the provider). EG:
+ *
+ * <pre>
+ * Projection&lt;UserRow&gt; row = Projection.constructor(UserRow.class, "id", "login", "profile.name");
+ * List&lt;UserRow&gt; rows = service.findAllProjectedByParams(User.class, row, predicate, QueryOrder.ASC, "login");
+ * </pre>
+ *
+ * @param <R>
+ *            Class type of each result
+ */
+public class Projection<R> {
+
+    private enum Kind {
+        CONSTRUCTOR,
+        TUPLE,
+        ARRAY
+    }
+
+    private final Kind         kind;
+    private final Class<R>     resultType;
+    private final List<String> attributes;
+
+    private Projection(Kind kind, Class<R> resultType, String... attributes) {
+        if (attributes == null || attributes.length == 0) {
+            throw new IllegalArgumentException("Projection must have at least one attribute");
+        }
+        this.kind = kind;
+        this.resultType = resultType;
+        this.attributes = Collections.unmodifiableList(Arrays.asList(attributes));
+    }
+
+    /**
+     * @param resultType
+     *            - DTO class with a public constructor whose parameters match the attributes, in order and type
+     * @param attributes
+     *            - attribute paths of the entity
+     * @return Projection Object
+     */
+    public static <R> Projection<R> constructor(Class<R> resultType, String... attributes) {
+        return new Projection<>(Kind.CONSTRUCTOR, resultType, attributes);
+    }
+
+    /**
+     * @param attributes
+     *            - attribute paths of the entity, also the aliases of the tuple elements
+     * @return Projection Object
+     */
+    public static Projection<Tuple> tuple(String... attributes) {
+        return new Projection<>(Kind.TUPLE, Tuple.class, attributes);
+    }
+
+    /**
+     * @param attributes
+     *            - attribute paths of the entity
+     * @return Projection Object
+     */
+    public static Projection<Object[]> array(String... attributes) {
+        return new Projection<>(Kind.ARRAY, Object[].class, attributes);
+    }
+
+    public Class<R> getResultType() {
+        return resultType;
+    }
+
+    public List<String> getAttributes() {
+        return attributes;
+    }
+
+    /**
+     * Generates the JPA {@link Selection} of the attributes
+     *
+     * @param root
+     *            - root of the query
+     * @param cb
+     *            - CriteriaBuilder
+     * @return selection to be used on {@code CriteriaQuery.select}
+     */
+    @SuppressWarnings("unchecked")
+    public Selection<R> selection(Root<?> root, CriteriaBuilder cb) {
+        Selection<?>[] selections = new Selection<?>[attributes.size()];
+        for (int i = 0; i < selections.length; i++) {
+            String attribute = attributes.get(i);
+            selections[i] = path(root, attribute).alias(attribute);
+        }
+        switch (kind) {
+            case CONSTRUCTOR:
+                return cb.construct(resultType, selections);
+            case TUPLE:
+                return (Selection<R>) cb.tuple(selections);
+            default:
+                return (Selection<R>) cb.array(selections);
+        }
+    }
+
+    private static Path<?> path(Root<?> root, String attribute) {
+        Path<?> path = root;
+        for (String name : attribute.split("\\.")) {
+            path = path.get(name);
+        }
+        return path;
+    }
+
+    @Override
+    public String toString() {
+        return "Projection [kind=" + kind + ", resultType=" + resultType.getSimpleName() + ", attributes=" + attributes + "]";
+    }
+
+}
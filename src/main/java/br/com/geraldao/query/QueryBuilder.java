@@ -2,6 +2,7 @@ package br.com.geraldao.query;
 
 import java.sql.PreparedStatement;
 import java.util.List;
+import java.util.Map;
 
 import br.com.geraldao.dao.QueryService;
 
@@ -24,6 +25,10 @@ public class QueryBuilder extends StatementBuilder {
         this.parameters = parameters;
     }
 
+    private QueryBuilder(NamedParameterTemplate template, Map<String, ?> parameters) {
+        this(template.getSql(), template.bind(parameters));
+    }
+
     /**
      * Defines a query to be executed
      * 
@@ -53,6 +58,24 @@ public class QueryBuilder extends StatementBuilder {
         return new QueryBuilder(query, parameters);
     }
 
+    /**
+     * Defines a query to be executed using named parameters. Each <b>:name</b> is replaced by a placeholder '?' and may be used more than once. The parsed query is cached, so repeated calls with the same query are not parsed again.<br>
+     * EG: {@code SELECT * FROM TableName where ID = :id or PARENT_ID = :id}
+     * 
+     * @param query
+     *            - query with <b>:name</b> parameters
+     * @param parameters
+     *            - value of each parameter by name (without ':')
+     * @return QueryBuilder Object
+     * @throws IllegalArgumentException
+     *             if a parameter used on the query has no value
+     * @see StatementBuilder
+     * @see QueryService
+     */
+    public static QueryBuilder create(String query, Map<String, ?> parameters) {
+        return new QueryBuilder(NamedParameterTemplate.of(query), parameters);
+    }
+
     @Override
     public String build() {
         return query;
@@ -1,14 +1,16 @@
 package br.com.geraldao.query;
 
-import java.lang.annotation.Annotation;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.persistence.Column;
 
@@ -49,6 +51,9 @@ public class QueryResultReader<T> {
         ARRAY_RESULT
     }
 
+    private static final int                                              MAPPINGS_SIZE = 2048;
+    private static final ConcurrentHashMap<Class<?>, List<ColumnMapping>> MAPPINGS      = new ConcurrentHashMap<>();
+
     private DataType dataType;
     private Class<T> clazz;
     private String   parameterName;
@@ -179,26 +184,18 @@ public class QueryResultReader<T> {
     }
 
     /**
+     * Columns are read by the {@link Column} getters of the class, which are found once per class
      * 
      * @throws SQLException
      * @author victor.bello e yuri.campolongo
      */
-    @SuppressWarnings("unchecked")
     private T readByReflection(Class<T> clazz, ResultSet rs) throws SQLException {
         try {
-            T obj = (T) Class.forName(clazz.getName(), false, clazz.getClassLoader()).newInstance();
-            Method[] methods = clazz.getMethods();
-            for (Method method : methods) {
-                Annotation annotation = method.getAnnotation(Column.class);
-                Annotation ignoreColumn = method.getAnnotation(Ignore.class);
-                if (ignoreColumn == null && annotation != null) {
-                    Class<Column> type = (Class<Column>) annotation.annotationType();
-                    Method met = type.getDeclaredMethod("name");
-                    Object value = convertTypes(rs.getObject(met.invoke(annotation).toString()), method.getReturnType());
-                    if (value != null) {
-                        Method declaredMethod = obj.getClass().getMethod(method.getName().replace("get", "set"), value.getClass());
-                        declaredMethod.invoke(obj, value);
-                    }
+            T obj = clazz.newInstance();
+            for (ColumnMapping column : columns(clazz)) {
+                Object value = convertTypes(rs.getObject(column.name), column.type);
+                if (value != null) {
+                    column.setter(clazz, value.getClass()).invoke(obj, value);
                 }
             }
 
@@ -210,11 +207,31 @@ public class QueryResultReader<T> {
             throw e;
         } catch (IllegalAccessException e) {
             throw new ANIMALTypeException("Please make sure all your methods in procedure mapping with @colum annotation have public access");
-        } catch (ClassNotFoundException e) {
-            throw new RuntimeException("ForName was not able to identify your class " + clazz.getName());
         }
     }
 
+    private static List<ColumnMapping> columns(Class<?> clazz) {
+        List<ColumnMapping> columns = MAPPINGS.get(clazz);
+        if (columns == null) {
+            if (MAPPINGS.size() >= MAPPINGS_SIZE) {
+                MAPPINGS.clear();
+            }
+            columns = MAPPINGS.computeIfAbsent(clazz, QueryResultReader::readColumns);
+        }
+        return columns;
+    }
+
+    private static List<ColumnMapping> readColumns(Class<?> clazz) {
+        List<ColumnMapping> columns = new ArrayList<>();
+        for (Method method : clazz.getMethods()) {
+            Column column = method.getAnnotation(Column.class);
+            if (column != null && method.getAnnotation(Ignore.class) == null) {
+                columns.add(new ColumnMapping(column.name(), method.getReturnType(), method.getName().replace("get", "set")));
+            }
+        }
+        return Collections.unmodifiableList(columns);
+    }
+
     /**
      * Convert database types to java types
      * 
@@ -267,6 +284,58 @@ public class QueryResultReader<T> {
         return value;
     }
 
+    /**
+     * {@link Column} getter of a class and the setter last used to write its values
+     */
+    private static class ColumnMapping {
+        private final String     name;
+        private final Class<?>   type;
+        private final String     setterName;
+        private volatile Setter  setter;
+
+        private ColumnMapping(String name, Class<?> type, String setterName) {
+            this.name = name;
+            this.type = type;
+            this.setterName = setterName;
+        }
+
+        private Method setter(Class<?> clazz, Class<?> valueClass) throws NoSuchMethodException {
+            Setter current = setter;
+            if (current == null || current.valueClass != valueClass) {
+                current = new Setter(valueClass, clazz.getMethod(setterName, valueClass));
+                setter = current;
+            }
+            return current.method;
+        }
+    }
+
+    private static class Setter {
+        private final Class<?> valueClass;
+        private final Method   method;
+
+        private Setter(Class<?> valueClass, Method method) {
+            this.valueClass = valueClass;
+            this.method = method;
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(dataType, clazz, parameterName, position, resultColumn);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null)
+            return false;
+        if (getClass() != obj.getClass())
+            return false;
+        QueryResultReader<?> other = (QueryResultReader<?>) obj;
+        return dataType == other.dataType && Objects.equals(clazz, other.clazz) && Objects.equals(parameterName, other.parameterName) && Objects.equals(position, other.position) && Objects.equals(resultColumn, other.resultColumn);
+    }
+
     @Override
     public String toString() {
         return "QueryResultReader [" + (dataType != null ? "dataType=" + dataType + ", " : "") + (clazz != null ? "clazz=" + clazz + ", " : "") + (parameterName != null ? "parameterName=" + parameterName + ", " : "") + (position != null ? "position=" + position : "") + "]";
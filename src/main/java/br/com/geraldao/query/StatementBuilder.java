@@ -5,6 +5,7 @@ import java.sql.SQLException;
 import java.util.Date;
 import java.util.List;
 
+import br.com.geraldao.dao.WorkloadScheduler;
 import br.com.geraldao.util.ListUtil;
 
 /**
@@ -15,8 +16,9 @@ import br.com.geraldao.util.ListUtil;
  */
 public abstract class StatementBuilder {
 
-    protected List<?> parameters;
-    protected String  query;
+    protected List<?>  parameters;
+    protected String   query;
+    protected Workload workload;
 
     /**
      * Build string query to be consumed by {@code preparedStatement}
@@ -25,6 +27,27 @@ public abstract class StatementBuilder {
      */
     public abstract String build();
 
+    /**
+     * Defines the {@link Workload} this statement belongs to. Statements without workload are executed without admission control.
+     * 
+     * @param workload
+     *            - workload which limits the concurrency of this statement
+     * @return this builder
+     * @see WorkloadScheduler
+     */
+    public StatementBuilder workload(Workload workload) {
+        this.workload = workload;
+        return this;
+    }
+
+    public List<?> getParameters() {
+        return parameters;
+    }
+
+    public Workload getWorkload() {
+        return workload;
+    }
+
     /**
      * Defines {@code PreparedStatement} parameters if required.
      * 
@@ -49,7 +72,7 @@ public abstract class StatementBuilder {
 
     @Override
     public String toString() {
-        return "StatementBuilder [" + (parameters != null ? "parameters=" + parameters + ", " : "") + (query != null ? "query=" + query : "") + "]";
+        return "StatementBuilder [" + (parameters != null ? "parameters=" + parameters + ", " : "") + (query != null ? "query=" + query : "") + (workload != null ? ", workload=" + workload.getName() : "") + "]";
     }
 
 }
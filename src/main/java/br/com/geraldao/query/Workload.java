@@ -0,0 +1,120 @@
+package br.com.geraldao.query;
+
+import br.com.geraldao.dao.QueryService;
+import br.com.geraldao.dao.WorkloadScheduler;
+
+/**
+ * Named class of work attached to a {@link StatementBuilder}. Statements of the same workload share its concurrency limit and queue, and when the {@link WorkloadScheduler} has no free slot the waiting statement with the highest priority is admitted first.<br>
+ * Workloads are identified by name, so they are usually declared once as constants. EG:
+ *
+ * <pre>
+ * public static final Workload INTERACTIVE = Workload.create("interactive", 10, 16, 64, 200);
+ * public static final Workload REPORTS = Workload.create("reports", 1, 2, 4, 0);
+ * </pre>
+ *
+ * @see WorkloadScheduler
+ * @see QueryService
+ */
+public class Workload {
+
+    private final String name;
+    private final int    priority;
+    private final int    maxConcurrency;
+    private final int    queueDepth;
+    private final long   maxWaitMillis;
+
+    private Workload(String name, int priority, int maxConcurrency, int queueDepth, long maxWaitMillis) {
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("Workload must have a name");
+        }
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("Workload maxConcurrency must be greater than zero");
+        }
+        if (queueDepth < 0 || maxWaitMillis < 0) {
+            throw new IllegalArgumentException("Workload queueDepth and maxWaitMillis must not be negative");
+        }
+        this.name = name;
+        this.priority = priority;
+        this.maxConcurrency = maxConcurrency;
+        this.queueDepth = queueDepth;
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    /**
+     * Defines a workload whose statements wait for a free slot as long as needed.
+     *
+     * @param name
+     *            - identifies the workload on the scheduler
+     * @param priority
+     *            - higher values are admitted first when statements are waiting
+     * @param maxConcurrency
+     *            - maximum statements of this workload running at the same time
+     * @param queueDepth
+     *            - maximum statements of this workload waiting for a slot. When it is full, new statements are rejected immediately
+     * @return Workload Object
+     */
+    public static Workload create(String name, int priority, int maxConcurrency, int queueDepth) {
+        return new Workload(name, priority, maxConcurrency, queueDepth, 0);
+    }
+
+    /**
+     * Defines a workload whose statements are rejected after waiting <b>maxWaitMillis</b> for a free slot.
+     *
+     * @param name
+     *            - identifies the workload on the scheduler
+     * @param priority
+     *            - higher values are admitted first when statements are waiting
+     * @param maxConcurrency
+     *            - maximum statements of this workload running at the same time
+     * @param queueDepth
+     *            - maximum statements of this workload waiting for a slot. When it is full, new statements are rejected immediately
+     * @param maxWaitMillis
+     *            - maximum time waiting for a slot. <b>0</b> waits forever
+     * @return Workload Object
+     */
+    public static Workload create(String name, int priority, int maxConcurrency, int queueDepth, long maxWaitMillis) {
+        return new Workload(name, priority, maxConcurrency, queueDepth, maxWaitMillis);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    public long getMaxWaitMillis() {
+        return maxWaitMillis;
+    }
+
+    @Override
+    public int hashCode() {
+        return name.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null)
+            return false;
+        if (getClass() != obj.getClass())
+            return false;
+        return name.equals(((Workload) obj).name);
+    }
+
+    @Override
+    public String toString() {
+        return "Workload [name=" + name + ", priority=" + priority + ", maxConcurrency=" + maxConcurrency + ", queueDepth=" + queueDepth + ", maxWaitMillis=" + maxWaitMillis + "]";
+    }
+
+}
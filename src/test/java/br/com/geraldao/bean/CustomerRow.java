@@ -0,0 +1,50 @@
+package br.com.geraldao.bean;
+
+import javax.persistence.Column;
+
+/**
+ * Result of Sp_FindCustomersByCity mapped by QueryResultReader
+ */
+public class CustomerRow {
+    private Long   id;
+    private String name;
+    private String email;
+    private String city;
+
+    @Column(name = "Id")
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    @Column(name = "Name")
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    @Column(name = "Email")
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    @Column(name = "City")
+    public String getCity() {
+        return city;
+    }
+
+    public void setCity(String city) {
+        this.city = city;
+    }
+
+}
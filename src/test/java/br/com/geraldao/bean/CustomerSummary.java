@@ -0,0 +1,29 @@
+package br.com.geraldao.bean;
+
+/**
+ * DTO built by constructor projections of Customer
+ */
+public class CustomerSummary {
+    private final Long   id;
+    private final String name;
+    private final String city;
+
+    public CustomerSummary(Long id, String name, String city) {
+        this.id = id;
+        this.name = name;
+        this.city = city;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+}
@@ -0,0 +1,58 @@
+package br.com.geraldao.entity;
+
+import java.math.BigDecimal;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+
+@Entity
+@Table(name = "Purchase")
+public class Purchase extends BaseEntity {
+
+    private static final long serialVersionUID = 4411870135693232047L;
+    private Customer          customer;
+    private BigDecimal        amount;
+    private String            status;
+
+    public Purchase() {
+    }
+
+    public Purchase(Customer customer, BigDecimal amount, String status) {
+        this.customer = customer;
+        this.amount = amount;
+        this.status = status;
+    }
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "CustomerId")
+    public Customer getCustomer() {
+        return customer;
+    }
+
+    public void setCustomer(Customer customer) {
+        this.customer = customer;
+    }
+
+    @Column(name = "Amount")
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    @Column(name = "Status")
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+}
@@ -0,0 +1,281 @@
+package br.com.geraldao.load;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import br.com.geraldao.bean.CustomerRow;
+import br.com.geraldao.constant.Operator;
+import br.com.geraldao.entity.Customer;
+import br.com.geraldao.predicate.PredicateBuilder;
+import br.com.geraldao.query.ProcedureBuilder;
+import br.com.geraldao.query.QueryBuilder;
+import br.com.geraldao.query.QueryResultReader;
+import br.com.geraldao.service.H2ServiceJPA;
+
+/**
+ * Offline end-to-end load test. Starts an embedded H2 database, seeds the Customer and Purchase tables and a stored procedure, and drives {@code QueryService} and {@code BaseService} from N threads, reporting throughput, latency percentiles and heap churn for each
+ * scenario and thread count.<br>
+ * Run with {@code mvn -Pload test-compile exec:java -Dexec.args="-threads 1,2,4,8 -seconds 10 -rows 100000"}. Options:
+ * <ul>
+ * <li>-threads - thread counts, comma separated (default 1,2,4)</li>
+ * <li>-seconds - measured seconds of each run (default 5)</li>
+ * <li>-warmup - warm up seconds of each run (default 2)</li>
+ * <li>-rows - customers seeded, each with 3 purchases (default 10000)</li>
+ * <li>-scenarios - comma separated subset of query, procedure, findById, findAllByParams, entityExists (default all)</li>
+ * </ul>
+ */
+public class LoadHarness {
+
+    private static final String[]         CITIES    = { "Porto Alegre", "Sao Paulo", "Recife", "Curitiba", "Manaus", "Natal", "Belem", "Vitoria" };
+    private static final String           DATABASE  = "load";
+
+    private final Map<String, Scenario>   scenarios = new LinkedHashMap<>();
+    private final EntityManagerFactory    emf;
+    private final int                     rows;
+
+    interface Scenario {
+        void run(H2ServiceJPA service, ThreadLocalRandom random) throws Exception;
+    }
+
+    LoadHarness(int rows) {
+        this.rows = rows;
+        this.emf = H2ServiceJPA.createEntityManagerFactory(DATABASE, Collections.singletonMap("hibernate.generate_statistics", "false"));
+        QueryResultReader<CustomerRow> customerRow = new QueryResultReader<>(CustomerRow.class);
+        QueryResultReader<String> email = new QueryResultReader<>(String.class, "Email");
+        scenarios.put("query", (service, random) -> service.findItem(QueryBuilder.create("SELECT Email FROM Customer WHERE Id = ?", Arrays.asList(id(random))), email));
+        scenarios.put("procedure", (service, random) -> service.findAll(ProcedureBuilder.create("Sp_FindCustomersByCity", Arrays.asList(city(random), 20)), customerRow));
+        scenarios.put("findById", (service, random) -> {
+            service.findById(Customer.class, id(random));
+            service.getEm().clear();
+        });
+        scenarios.put("findAllByParams", (service, random) -> {
+            service.findAllByParams(Customer.class, PredicateBuilder.where("city", city(random)).and("id", Operator.IN, Arrays.asList(id(random), id(random), id(random))).build());
+            service.getEm().clear();
+        });
+        scenarios.put("entityExists", (service, random) -> service.entityExists(Customer.class, PredicateBuilder.where("email", "customer" + id(random) + "@example.com").build()));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = options(args);
+        int[] threads = Arrays.stream(options.getOrDefault("threads", "1,2,4").split(",")).mapToInt(Integer::parseInt).toArray();
+        int seconds = Integer.parseInt(options.getOrDefault("seconds", "5"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "2"));
+        int rows = Integer.parseInt(options.getOrDefault("rows", "10000"));
+
+        LoadHarness harness = new LoadHarness(rows);
+        List<String> selected = options.containsKey("scenarios") ? Arrays.asList(options.get("scenarios").split(",")) : new ArrayList<>(harness.scenarios.keySet());
+        try {
+            harness.seed();
+            System.out.println(String.format("%-16s %7s %10s %12s %9s %9s %9s %9s %9s %12s %10s %8s", "scenario", "threads", "ops", "ops/s", "p50(us)", "p90(us)", "p99(us)", "p99.9(us)", "max(us)", "alloc(MB/s)", "alloc/op", "gc(ms)"));
+            for (String name : selected) {
+                Scenario scenario = harness.scenarios.get(name);
+                if (scenario == null) {
+                    throw new IllegalArgumentException("Unknown scenario " + name + ", use one of " + harness.scenarios.keySet());
+                }
+                for (int count : threads) {
+                    harness.run(scenario, count, warmup, false);
+                    System.out.println(harness.run(scenario, count, seconds, true).format(name, count));
+                }
+            }
+        } finally {
+            harness.emf.close();
+        }
+    }
+
+    /**
+     * Seeds customers (with 3 purchases each) using JDBC batches and registers the stored procedure
+     */
+    void seed() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(H2ServiceJPA.url(DATABASE), "sa", "")) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement customer = connection.prepareStatement("INSERT INTO Customer (Id, Name, Email, City, Active, CreatedAt, Notes) VALUES (?, ?, ?, ?, ?, ?, ?)");
+                    PreparedStatement purchase = connection.prepareStatement("INSERT INTO Purchase (CustomerId, Amount, Status) VALUES (?, ?, ?)")) {
+                Timestamp now = new Timestamp(System.currentTimeMillis());
+                for (int id = 1; id <= rows; id++) {
+                    customer.setLong(1, id);
+                    customer.setString(2, "Customer " + id);
+                    customer.setString(3, "customer" + id + "@example.com");
+                    customer.setString(4, CITIES[id % CITIES.length]);
+                    customer.setBoolean(5, id % 10 != 0);
+                    customer.setTimestamp(6, now);
+                    customer.setString(7, "Notes of customer " + id);
+                    customer.addBatch();
+                    for (int p = 0; p < 3; p++) {
+                        purchase.setLong(1, id);
+                        purchase.setBigDecimal(2, BigDecimal.valueOf(id * 10 + p, 2));
+                        purchase.setString(3, p == 0 ? "OPEN" : "CLOSED");
+                        purchase.addBatch();
+                    }
+                    if (id % 1000 == 0) {
+                        customer.executeBatch();
+                        purchase.executeBatch();
+                    }
+                }
+                customer.executeBatch();
+                purchase.executeBatch();
+            }
+            try (Statement st = connection.createStatement()) {
+                st.execute("ALTER TABLE Customer ALTER COLUMN Id RESTART WITH " + (rows + 1));
+                st.execute("CREATE INDEX IF NOT EXISTS IX_Customer_City ON Customer (City)");
+                st.execute("CREATE INDEX IF NOT EXISTS IX_Customer_Email ON Customer (Email)");
+                st.execute("CREATE ALIAS IF NOT EXISTS Sp_FindCustomersByCity FOR \"" + LoadProcedures.class.getName() + ".findCustomersByCity\"");
+            }
+            connection.commit();
+        }
+    }
+
+    /**
+     * Runs the scenario on the given number of threads, each one with its own EntityManager
+     */
+    RunResult run(Scenario scenario, int threads, int seconds, boolean measure) throws InterruptedException {
+        List<Worker> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Worker worker = new Worker(scenario, emf.createEntityManager());
+            workers.add(worker);
+            worker.start();
+        }
+        long gcBefore = gcMillis();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        for (Worker worker : workers) {
+            worker.deadline = deadline;
+        }
+        long begin = System.nanoTime();
+        for (Worker worker : workers) {
+            worker.go.countDown();
+        }
+        for (Worker worker : workers) {
+            worker.join();
+        }
+        long elapsed = System.nanoTime() - begin;
+        if (!measure) {
+            return null;
+        }
+        RunResult result = new RunResult(elapsed, gcMillis() - gcBefore);
+        for (Worker worker : workers) {
+            if (worker.failure != null) {
+                throw new IllegalStateException("Scenario failed", worker.failure);
+            }
+            result.add(worker);
+        }
+        return result;
+    }
+
+    private long id(ThreadLocalRandom random) {
+        return random.nextLong(1, rows + 1);
+    }
+
+    private static String city(ThreadLocalRandom random) {
+        return CITIES[random.nextInt(CITIES.length)];
+    }
+
+    private static long gcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionTime());
+        }
+        return total;
+    }
+
+    private static Map<String, String> options(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i].replaceFirst("^-+", ""), args[i + 1]);
+        }
+        return options;
+    }
+
+    private static class Worker extends Thread {
+        private final Scenario       scenario;
+        private final EntityManager  em;
+        private final CountDownLatch go        = new CountDownLatch(1);
+        private volatile long        deadline;
+        private long[]               latencies = new long[1 << 16];
+        private int                  count;
+        private long                 allocated;
+        private Exception            failure;
+
+        private Worker(Scenario scenario, EntityManager em) {
+            this.scenario = scenario;
+            this.em = em;
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            H2ServiceJPA service = new H2ServiceJPA(H2ServiceJPA.url(DATABASE), em);
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            try {
+                go.await();
+                long allocatedBefore = threads.getThreadAllocatedBytes(getId());
+                while (System.nanoTime() < deadline) {
+                    long begin = System.nanoTime();
+                    scenario.run(service, random);
+                    if (count == latencies.length) {
+                        latencies = Arrays.copyOf(latencies, count * 2);
+                    }
+                    latencies[count++] = System.nanoTime() - begin;
+                }
+                allocated = threads.getThreadAllocatedBytes(getId()) - allocatedBefore;
+            } catch (Exception e) {
+                failure = e;
+            } finally {
+                em.close();
+            }
+        }
+    }
+
+    private static class RunResult {
+        private final long elapsedNanos;
+        private final long gcMillis;
+        private long[]     latencies = new long[0];
+        private long       allocated;
+
+        private RunResult(long elapsedNanos, long gcMillis) {
+            this.elapsedNanos = elapsedNanos;
+            this.gcMillis = gcMillis;
+        }
+
+        private void add(Worker worker) {
+            int previous = latencies.length;
+            latencies = Arrays.copyOf(latencies, previous + worker.count);
+            System.arraycopy(worker.latencies, 0, latencies, previous, worker.count);
+            allocated += worker.allocated;
+        }
+
+        private String format(String scenario, int threads) {
+            Arrays.sort(latencies);
+            int ops = latencies.length;
+            double seconds = elapsedNanos / 1e9;
+            return String.format("%-16s %7d %10d %12.1f %9.1f %9.1f %9.1f %9.1f %9.1f %12.1f %10s %8d", scenario, threads, ops, ops / seconds, percentile(0.50), percentile(0.90), percentile(0.99), percentile(0.999), percentile(1.0), allocated / seconds / (1024 * 1024),
+                    ops == 0 ? "-" : (allocated / ops) + "B", gcMillis);
+        }
+
+        private double percentile(double percentile) {
+            if (latencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.min(latencies.length - 1, Math.ceil(percentile * latencies.length) - 1);
+            return latencies[Math.max(0, index)] / 1000.0;
+        }
+    }
+
+}
@@ -0,0 +1,20 @@
+package br.com.geraldao.load;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Java stored procedures registered on H2 with CREATE ALIAS
+ */
+public class LoadProcedures {
+
+    public static ResultSet findCustomersByCity(Connection connection, String city, int limit) throws SQLException {
+        PreparedStatement st = connection.prepareStatement("SELECT Id, Name, Email, City FROM Customer WHERE City = ? ORDER BY Id LIMIT ?");
+        st.setString(1, city);
+        st.setInt(2, limit);
+        return st.executeQuery();
+    }
+
+}
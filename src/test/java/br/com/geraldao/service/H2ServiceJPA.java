@@ -0,0 +1,76 @@
+package br.com.geraldao.service;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityTransaction;
+import javax.persistence.Persistence;
+
+import br.com.geraldao.dao.BaseService;
+
+/**
+ * BaseService over an embedded H2 database using the <b>geraldao-h2</b> persistence unit. As the unit is RESOURCE_LOCAL, callers handle transactions, see {@link #inTransaction(Consumer)}
+ */
+public class H2ServiceJPA extends BaseService {
+    private final String        url;
+    private final EntityManager em;
+
+    public H2ServiceJPA(String url, EntityManager em) {
+        this.url = url;
+        this.em = em;
+    }
+
+    /**
+     * Creates the factory of the persistence unit on an in-memory database. Objects left on the database by previous factories are dropped first, so the schema starts empty
+     */
+    public static EntityManagerFactory createEntityManagerFactory(String database, Map<String, String> properties) {
+        try (Connection connection = DriverManager.getConnection(url(database), "sa", ""); Statement st = connection.createStatement()) {
+            st.execute("DROP ALL OBJECTS");
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+        Map<String, String> config = new HashMap<>(properties);
+        config.put("javax.persistence.jdbc.url", url(database));
+        return Persistence.createEntityManagerFactory("geraldao-h2", config);
+    }
+
+    public static String url(String database) {
+        return "jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1";
+    }
+
+    @Override
+    public EntityManager getEm() {
+        return em;
+    }
+
+    @Override
+    protected Connection connection() {
+        try {
+            return DriverManager.getConnection(url, "sa", "");
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public void inTransaction(Consumer<H2ServiceJPA> work) {
+        EntityTransaction transaction = em.getTransaction();
+        transaction.begin();
+        try {
+            work.accept(this);
+            transaction.commit();
+        } catch (RuntimeException e) {
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+            throw e;
+        }
+    }
+
+}
@@ -0,0 +1,36 @@
+package br.com.geraldao.service;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+import br.com.geraldao.dao.QueryService;
+
+/**
+ * QueryService over an embedded H2 database, so tests run without a database server
+ */
+public class H2ServiceQuery extends QueryService {
+    private final String url;
+
+    public H2ServiceQuery(String database) {
+        this.url = "jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1";
+    }
+
+    @Override
+    protected Connection connection() {
+        try {
+            return DriverManager.getConnection(url, "sa", "");
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public void script(String... statements) throws SQLException {
+        try (Connection connection = connection()) {
+            for (String statement : statements) {
+                connection.createStatement().execute(statement);
+            }
+        }
+    }
+
+}
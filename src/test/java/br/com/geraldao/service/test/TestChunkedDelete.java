@@ -0,0 +1,78 @@
+package br.com.geraldao.service.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import br.com.geraldao.constant.QueryOrder;
+import br.com.geraldao.dao.ChunkedDelete;
+import br.com.geraldao.entity.Customer;
+import br.com.geraldao.predicate.PredicateBuilder;
+import br.com.geraldao.service.H2ServiceJPA;
+
+public class TestChunkedDelete {
+
+    private EntityManagerFactory emf;
+    private EntityManager        em;
+    private H2ServiceJPA         service;
+
+    @Before
+    public void setUp() {
+        emf = H2ServiceJPA.createEntityManagerFactory("chunkeddelete", Collections.emptyMap());
+        em = emf.createEntityManager();
+        service = new H2ServiceJPA(H2ServiceJPA.url("chunkeddelete"), em);
+        service.inTransaction(s -> {
+            for (int i = 0; i < 15; i++) {
+                s.save(new Customer("Customer " + i, "customer" + i + "@example.com", i < 10 ? "Recife" : "Natal"));
+            }
+        });
+        em.clear();
+    }
+
+    @After
+    public void tearDown() {
+        em.close();
+        emf.close();
+    }
+
+    @Test
+    public void testRemoveInChunksWithCommits() {
+        List<Long> progress = new ArrayList<>();
+        ChunkedDelete chunks = ChunkedDelete.of(3).commitEachChunk().onProgress(progress::add);
+
+        service.inTransaction(s -> assertEquals(10, s.removeInChunks(Customer.class, PredicateBuilder.where("city", "Recife").build(), chunks)));
+
+        assertEquals(Arrays.asList(3L, 6L, 9L, 10L), progress);
+        assertEquals(5, service.findAll(Customer.class).size());
+        assertFalse(service.entityExists(Customer.class, PredicateBuilder.where("city", "Recife").build()));
+    }
+
+    @Test
+    public void testRemoveAllByIdInBatches() {
+        List<Customer> customers = service.findAllOrdered(Customer.class, QueryOrder.ASC, "id").subList(0, 7);
+        List<Long> progress = new ArrayList<>();
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        service.inTransaction(s -> assertEquals(7, s.removeAll(customers, ChunkedDelete.of(4).onProgress(progress::add))));
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(Arrays.asList(4L, 7L), progress);
+        assertFalse(em.contains(customers.get(0)));
+        assertEquals(8, service.findAll(Customer.class).size());
+    }
+
+}
@@ -0,0 +1,231 @@
+package br.com.geraldao.service.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import br.com.geraldao.entity.Customer;
+import br.com.geraldao.query.QueryBuilder;
+import br.com.geraldao.query.QueryResultReader;
+import br.com.geraldao.service.H2ServiceJPA;
+import br.com.geraldao.service.H2ServiceQuery;
+
+public class TestCoalesce {
+
+    private static final AtomicInteger     CALLS    = new AtomicInteger();
+    private static volatile CountDownLatch release;
+
+    private H2ServiceQuery                 service;
+    private QueryResultReader<Integer>     reader   = new QueryResultReader<>(Integer.class, 1);
+    private ExecutorService                executor = Executors.newCachedThreadPool();
+
+    /**
+     * Function called by the queries: counts the executions and blocks them until released
+     */
+    public static int gate(int value) throws InterruptedException {
+        CALLS.incrementAndGet();
+        release.await(30, TimeUnit.SECONDS);
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative gate " + value);
+        }
+        return value;
+    }
+
+    @Before
+    public void setUp() throws SQLException {
+        CALLS.set(0);
+        release = new CountDownLatch(1);
+        service = new H2ServiceQuery("coalesce") {
+            @Override
+            protected boolean coalesceQueries() {
+                return true;
+            }
+        };
+        service.script("DROP ALIAS IF EXISTS GATE", "CREATE ALIAS GATE FOR \"" + TestCoalesce.class.getName() + ".gate\"");
+    }
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testConcurrentQueriesShareOneExecution() throws Exception {
+        Future<List<Integer>> first = executor.submit(() -> service.findAll(QueryBuilder.create("SELECT GATE(1)"), reader));
+        waitCalls(1);
+        AtomicReference<Thread> waiter = new AtomicReference<>();
+        Future<List<Integer>> second = executor.submit(() -> {
+            waiter.set(Thread.currentThread());
+            return service.findAll(QueryBuilder.create("SELECT GATE(1)"), reader);
+        });
+        waitWaiting(waiter);
+        release.countDown();
+
+        List<Integer> firstResult = first.get(30, TimeUnit.SECONDS);
+        List<Integer> secondResult = second.get(30, TimeUnit.SECONDS);
+        assertEquals(Arrays.asList(1), firstResult);
+        assertEquals(firstResult, secondResult);
+        assertNotSame(firstResult, secondResult);
+        assertEquals(1, CALLS.get());
+
+        assertEquals(Arrays.asList(1), service.findAll(QueryBuilder.create("SELECT GATE(1)"), reader));
+        assertEquals(2, CALLS.get());
+    }
+
+    @Test
+    public void testExceptionReachesWaiters() throws Exception {
+        Future<List<Integer>> first = executor.submit(() -> service.findAll(QueryBuilder.create("SELECT GATE(-1)"), reader));
+        waitCalls(1);
+        AtomicReference<Thread> waiter = new AtomicReference<>();
+        Future<List<Integer>> second = executor.submit(() -> {
+            waiter.set(Thread.currentThread());
+            return service.findAll(QueryBuilder.create("SELECT GATE(-1)"), reader);
+        });
+        waitWaiting(waiter);
+        release.countDown();
+
+        Throwable firstError = failure(first);
+        assertTrue(firstError instanceof SQLException);
+        assertSame(firstError, failure(second));
+        assertEquals(1, CALLS.get());
+
+        failure(executor.submit(() -> service.findAll(QueryBuilder.create("SELECT GATE(-1)"), reader)));
+        assertEquals(2, CALLS.get());
+    }
+
+    @Test
+    public void testInterruptedWaiterDoesNotRunTheCall() throws Exception {
+        Future<List<Integer>> first = executor.submit(() -> service.findAll(QueryBuilder.create("SELECT GATE(2)"), reader));
+        waitCalls(1);
+        AtomicReference<Thread> waiter = new AtomicReference<>();
+        AtomicReference<Boolean> interrupted = new AtomicReference<>();
+        Future<List<Integer>> second = executor.submit(() -> {
+            waiter.set(Thread.currentThread());
+            try {
+                return service.findAll(QueryBuilder.create("SELECT GATE(2)"), reader);
+            } finally {
+                interrupted.set(Thread.interrupted());
+            }
+        });
+        waitWaiting(waiter);
+        waiter.get().interrupt();
+
+        assertTrue(failure(second) instanceof IllegalStateException);
+        assertTrue(interrupted.get());
+        assertEquals(1, CALLS.get());
+        release.countDown();
+        assertEquals(Arrays.asList(2), first.get(30, TimeUnit.SECONDS));
+        assertEquals(1, CALLS.get());
+    }
+
+    @Test
+    public void testFindByIdCoalescedPerPersistenceContext() throws Exception {
+        EntityManagerFactory emf = H2ServiceJPA.createEntityManagerFactory("coalescejpa", Collections.emptyMap());
+        EntityManager em = emf.createEntityManager();
+        EntityManager other = emf.createEntityManager();
+        try {
+            H2ServiceJPA jpa = coalescing(em);
+            Long[] ids = new Long[1];
+            jpa.inTransaction(s -> ids[0] = s.save(new Customer("Customer", "customer@example.com", "Recife")).get().getId());
+            Long id = ids[0];
+            em.clear();
+
+            Future<Customer> first = executor.submit(() -> jpa.findById(Customer.class, id).get());
+            waitCalls(1);
+            AtomicReference<Thread> waiter = new AtomicReference<>();
+            Future<Customer> second = executor.submit(() -> {
+                waiter.set(Thread.currentThread());
+                return jpa.findById(Customer.class, id).get();
+            });
+            waitWaiting(waiter);
+            Future<Customer> third = executor.submit(() -> coalescing(other).findById(Customer.class, id).get());
+            waitCalls(2);
+            release.countDown();
+
+            Customer mine = first.get(30, TimeUnit.SECONDS);
+            assertSame(mine, second.get(30, TimeUnit.SECONDS));
+            assertTrue(em.contains(mine));
+            Customer theirs = third.get(30, TimeUnit.SECONDS);
+            assertNotSame(mine, theirs);
+            assertTrue(other.contains(theirs));
+            assertEquals(2, CALLS.get());
+        } finally {
+            other.close();
+            em.close();
+            emf.close();
+        }
+    }
+
+    /**
+     * Service whose findById loads are counted and blocked by the gate, as the batch window is read within the coalesced call
+     */
+    private static H2ServiceJPA coalescing(EntityManager em) {
+        return new H2ServiceJPA(H2ServiceJPA.url("coalescejpa"), em) {
+            @Override
+            protected boolean coalesceFindById() {
+                return true;
+            }
+
+            @Override
+            protected long findByIdBatchWindowMillis() {
+                try {
+                    gate(0);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return 0;
+            }
+        };
+    }
+
+    private static void waitCalls(int calls) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30000;
+        while (CALLS.get() < calls && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(calls, CALLS.get());
+    }
+
+    private static void waitWaiting(AtomicReference<Thread> thread) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30000;
+        while ((thread.get() == null || thread.get().getState() != Thread.State.WAITING) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(Thread.State.WAITING, thread.get().getState());
+    }
+
+    private static Throwable failure(Future<?> future) throws InterruptedException, TimeoutException {
+        try {
+            future.get(30, TimeUnit.SECONDS);
+            fail("Expected the call to fail");
+            return null;
+        } catch (ExecutionException e) {
+            return e.getCause();
+        }
+    }
+
+}
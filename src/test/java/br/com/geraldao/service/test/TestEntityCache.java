@@ -0,0 +1,168 @@
+package br.com.geraldao.service.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import br.com.geraldao.dao.EntityCache;
+import br.com.geraldao.entity.Customer;
+import br.com.geraldao.entity.Purchase;
+import br.com.geraldao.predicate.PredicateBuilder;
+import br.com.geraldao.service.H2ServiceJPA;
+
+public class TestEntityCache {
+
+    private EntityManagerFactory emf;
+    private EntityManager        em;
+    private EntityCache          cache;
+    private H2ServiceJPA         service;
+    private Statistics           statistics;
+    private Long[]               ids = new Long[3];
+
+    @Before
+    public void setUp() {
+        emf = H2ServiceJPA.createEntityManagerFactory("entitycache", Collections.emptyMap());
+        em = emf.createEntityManager();
+        cache = EntityCache.of(2, 1, TimeUnit.MINUTES).entities(Customer.class, Purchase.class);
+        service = new H2ServiceJPA(H2ServiceJPA.url("entitycache"), em) {
+            @Override
+            protected EntityCache entityCache() {
+                return cache;
+            }
+        };
+        service.inTransaction(s -> {
+            Customer customer = s.save(new Customer("Customer", "customer@example.com", "Recife")).get();
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = s.save(new Purchase(customer, BigDecimal.valueOf(10 + i), "OPEN")).get().getId();
+            }
+        });
+        em.clear();
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @After
+    public void tearDown() {
+        em.close();
+        emf.close();
+    }
+
+    @Test
+    public void testReadThrough() {
+        Purchase first = service.findById(Purchase.class, ids[0]).get();
+        assertEquals(first.getStatus(), service.findById(Purchase.class, ids[0]).get().getStatus());
+        em.clear();
+        Purchase second = service.findById(Purchase.class, ids[0]).get();
+        Purchase third = service.findById(Purchase.class, ids[0]).get();
+
+        assertNotSame(first, second);
+        assertNotSame(second, third);
+        assertEquals(ids[0], second.getId());
+        assertEquals(0, first.getAmount().compareTo(second.getAmount()));
+        assertEquals(first.getStatus(), second.getStatus());
+        assertEquals(1, statistics.getEntityLoadCount());
+        assertEquals(2, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(2.0 / 3, cache.getHitRate(), 0.0001);
+
+        assertFalse(Hibernate.isInitialized(second.getCustomer()));
+        assertEquals("Recife", second.getCustomer().getCity());
+        second.setStatus("CHANGED");
+        assertEquals("OPEN", third.getStatus());
+        assertEquals("OPEN", service.findById(Purchase.class, ids[0]).get().getStatus());
+
+        assertFalse(service.findById(Purchase.class, -1L).isPresent());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testCollectionsAreNotCached() {
+        Long customerId = service.findById(Purchase.class, ids[0]).get().getCustomer().getId();
+        em.clear();
+        service.findById(Customer.class, customerId);
+        em.clear();
+        service.findById(Customer.class, customerId);
+
+        assertEquals(1, cache.size());
+        assertEquals(3, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    public void testWritesInvalidate() {
+        Purchase purchase = service.findById(Purchase.class, ids[0]).get();
+        service.inTransaction(s -> {
+            purchase.setStatus("PAID");
+            s.save(purchase);
+        });
+        em.clear();
+        assertEquals("PAID", service.findById(Purchase.class, ids[0]).get().getStatus());
+        assertEquals(0, cache.getHits());
+
+        service.findById(Purchase.class, ids[1]);
+        service.inTransaction(s -> s.updateByParams(Purchase.class, Collections.singletonMap("status", "CANCELED"), PredicateBuilder.where("id", ids[1]).build()));
+        assertEquals(0, cache.size());
+        em.clear();
+        assertEquals("CANCELED", service.findById(Purchase.class, ids[1]).get().getStatus());
+
+        em.clear();
+        service.inTransaction(s -> s.saveBatch(Arrays.asList(service.findById(Purchase.class, ids[1]).get())));
+        assertEquals(0, cache.size());
+
+        service.findById(Purchase.class, ids[2]);
+        service.inTransaction(s -> s.remove(s.findById(Purchase.class, ids[2]).get()));
+        assertEquals(0, cache.size());
+        assertFalse(service.findById(Purchase.class, ids[2]).isPresent());
+    }
+
+    @Test
+    public void testReadsBeforeCommitAreEvicted() {
+        EntityManager other = emf.createEntityManager();
+        H2ServiceJPA reader = new H2ServiceJPA(H2ServiceJPA.url("entitycache"), other) {
+            @Override
+            protected EntityCache entityCache() {
+                return cache;
+            }
+        };
+        service.inTransaction(s -> {
+            Purchase purchase = s.findById(Purchase.class, ids[0]).get();
+            purchase.setStatus("PAID");
+            s.save(purchase);
+            s.getEm().flush();
+
+            assertEquals("OPEN", reader.findById(Purchase.class, ids[0]).get().getStatus());
+            assertEquals(1, cache.size());
+        });
+        assertEquals(0, cache.size());
+        other.clear();
+        assertEquals("PAID", reader.findById(Purchase.class, ids[0]).get().getStatus());
+        other.close();
+    }
+
+    @Test
+    public void testSizeBound() {
+        for (Long id : ids) {
+            service.findById(Purchase.class, id);
+            em.clear();
+        }
+
+        assertTrue(cache.size() <= 2);
+        assertEquals(1, cache.getEvictions());
+    }
+
+}
@@ -0,0 +1,103 @@
+package br.com.geraldao.service.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import br.com.geraldao.constant.Operator;
+import br.com.geraldao.entity.Customer;
+import br.com.geraldao.predicate.PredicateBuilder;
+import br.com.geraldao.service.H2ServiceJPA;
+
+public class TestExists {
+
+    private EntityManagerFactory emf;
+    private EntityManager        em;
+    private H2ServiceJPA         service;
+
+    @Before
+    public void setUp() {
+        emf = H2ServiceJPA.createEntityManagerFactory("exists", Collections.emptyMap());
+        em = emf.createEntityManager();
+        service = new H2ServiceJPA(H2ServiceJPA.url("exists"), em) {
+            @Override
+            protected int inListChunkSize() {
+                return 2;
+            }
+
+            @Override
+            protected boolean cacheQueryTemplates() {
+                return true;
+            }
+        };
+        service.inTransaction(s -> {
+            for (int i = 0; i < 6; i++) {
+                Customer customer = new Customer("Customer " + i, "customer" + i + "@example.com", i < 3 ? "Recife" : "Natal");
+                customer.setActive(i % 2 == 0);
+                s.save(customer);
+            }
+        });
+        em.clear();
+    }
+
+    @After
+    public void tearDown() {
+        em.close();
+        emf.close();
+    }
+
+    @Test
+    public void testEntityExists() {
+        H2ServiceJPA criteriaService = new H2ServiceJPA(H2ServiceJPA.url("exists"), em) {
+            @Override
+            protected boolean cacheQueryTemplates() {
+                return false;
+            }
+        };
+        for (H2ServiceJPA s : Arrays.asList(service, criteriaService)) {
+            assertTrue(s.entityExists(Customer.class, PredicateBuilder.where("city", "Natal").and("active", true).build()));
+            assertFalse(s.entityExists(Customer.class, PredicateBuilder.where("city", "Manaus").build()));
+            assertFalse(s.entityExists(Customer.class, PredicateBuilder.where("city", Operator.IN, Collections.emptyList()).build()));
+            assertTrue(s.entityExists(Customer.class, null));
+        }
+    }
+
+    @Test
+    public void testFindExistingKeysInChunks() {
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<String> emails = Arrays.asList("customer0@example.com", "missing@example.com", "customer4@example.com", "customer0@example.com", "customer5@example.com");
+        assertEquals(new HashSet<>(Arrays.asList("customer0@example.com", "customer4@example.com", "customer5@example.com")), service.findExistingKeys(Customer.class, "email", emails));
+        assertEquals(2, statistics.getPrepareStatementCount());
+
+        assertEquals(Collections.singleton("customer4@example.com"), service.findExistingKeys(Customer.class, "email", emails, PredicateBuilder.where("active", true).and("city", "Natal").build()));
+        assertTrue(service.findExistingKeys(Customer.class, "email", Collections.emptyList()).isEmpty());
+    }
+
+    @Test
+    public void testFindExistingPositions() {
+        BitSet positions = service.findExistingPositions(Customer.class, "name", Arrays.asList("Customer 1", "Customer 9", "Customer 3"));
+
+        assertEquals(2, positions.cardinality());
+        assertTrue(positions.get(0));
+        assertFalse(positions.get(1));
+        assertTrue(positions.get(2));
+    }
+
+}
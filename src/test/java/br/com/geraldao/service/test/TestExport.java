@@ -0,0 +1,54 @@
+package br.com.geraldao.service.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import br.com.geraldao.constant.ExportFormat;
+import br.com.geraldao.query.QueryBuilder;
+import br.com.geraldao.service.H2ServiceQuery;
+
+public class TestExport {
+
+    private H2ServiceQuery service;
+
+    @Before
+    public void setUp() throws SQLException {
+        service = new H2ServiceQuery("export");
+        service.script("DROP TABLE IF EXISTS Export", "CREATE TABLE Export (id INT, login VARCHAR(50), active BOOLEAN)", "INSERT INTO Export VALUES (1, 'victor', TRUE), (2, 'say \"hi\", ok', FALSE), (3, NULL, NULL)");
+        service.script("DROP TABLE IF EXISTS Moment", "CREATE TABLE Moment (id INT, day DATE, hour TIME, instant TIMESTAMP)",
+                "INSERT INTO Moment VALUES (1, '2024-02-29', '13:05:09', '2024-02-29 13:05:09.120'), (2, '2023-01-02', '00:00:00', '2024-03-01 00:00:00'), (3, NULL, NULL, NULL)");
+    }
+
+    @Test
+    public void testExportCsv() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = service.export(QueryBuilder.create("SELECT id, login, active FROM Export ORDER BY id"), ExportFormat.CSV, out);
+        assertEquals(3, rows);
+        assertEquals("ID,LOGIN,ACTIVE\n1,victor,true\n2,\"say \"\"hi\"\", ok\",false\n3,,\n", new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testExportDatesAndTimes() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.export(QueryBuilder.create("SELECT day, hour, instant FROM Moment ORDER BY id"), ExportFormat.CSV, out);
+        assertEquals("DAY,HOUR,INSTANT\n2024-02-29,13:05:09,2024-02-29 13:05:09.12\n2023-01-02,00:00:00,2024-03-01 00:00:00.0\n,,\n", new String(out.toByteArray(), StandardCharsets.UTF_8));
+
+        out = new ByteArrayOutputStream();
+        service.export(QueryBuilder.create("SELECT day, hour, instant FROM Moment WHERE id = 1"), ExportFormat.JSON_LINES, out);
+        assertEquals("{\"DAY\":\"2024-02-29\",\"HOUR\":\"13:05:09\",\"INSTANT\":\"2024-02-29 13:05:09.12\"}\n", new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testExportJsonLines() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.export(QueryBuilder.create("SELECT id, login FROM Export WHERE id > 1 ORDER BY id"), ExportFormat.JSON_LINES, out);
+        assertEquals("{\"ID\":2,\"LOGIN\":\"say \\\"hi\\\", ok\"}\n{\"ID\":3,\"LOGIN\":null}\n", new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+}
@@ -0,0 +1,107 @@
+package br.com.geraldao.service.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceUnitUtil;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import br.com.geraldao.entity.Customer;
+import br.com.geraldao.entity.Purchase;
+import br.com.geraldao.predicate.PredicateBuilder;
+import br.com.geraldao.query.FetchPlan;
+import br.com.geraldao.service.H2ServiceJPA;
+
+public class TestFetchPlan {
+
+    private EntityManagerFactory emf;
+    private EntityManager        em;
+    private H2ServiceJPA         service;
+    private Statistics           statistics;
+    private Long                 customerId;
+
+    @Before
+    public void setUp() {
+        emf = H2ServiceJPA.createEntityManagerFactory("fetchplan", Collections.emptyMap());
+        em = emf.createEntityManager();
+        service = new H2ServiceJPA(H2ServiceJPA.url("fetchplan"), em);
+        service.inTransaction(s -> {
+            for (int i = 0; i < 4; i++) {
+                Customer customer = new Customer("Customer " + i, "customer" + i + "@example.com", "Recife");
+                s.save(customer);
+                s.save(new Purchase(customer, BigDecimal.valueOf(i), "OPEN"));
+                s.save(new Purchase(customer, BigDecimal.valueOf(i + 10), "CLOSED"));
+                customerId = customer.getId();
+            }
+        });
+        em.clear();
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @After
+    public void tearDown() {
+        em.close();
+        emf.close();
+    }
+
+    @Test
+    public void testWithoutPlanLoadsOneAssociationPerRow() {
+        List<Purchase> purchases = service.findAllByParams(Purchase.class, PredicateBuilder.where("status", "OPEN").build());
+        purchases.forEach(p -> p.getCustomer().getName());
+
+        assertEquals(5, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testJoinFetch() {
+        List<Purchase> purchases = service.findAllByParams(Purchase.class, PredicateBuilder.where("status", "OPEN").build(), FetchPlan.joinFetch("customer"));
+        purchases.forEach(p -> p.getCustomer().getName());
+
+        assertEquals(4, purchases.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testJoinFetchCollectionIsDistinct() {
+        List<Customer> customers = service.findAllByParams(Customer.class, null, FetchPlan.joinFetch("purchases", "purchases.customer"));
+
+        assertEquals(4, customers.size());
+        customers.forEach(c -> assertEquals(2, c.getPurchases().size()));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testFetchGraphOnFindById() {
+        PersistenceUnitUtil util = emf.getPersistenceUnitUtil();
+        Customer lazy = service.findById(Customer.class, customerId).get();
+        assertFalse(util.isLoaded(lazy, "purchases"));
+        em.clear();
+
+        Customer customer = service.findById(Customer.class, customerId, FetchPlan.fetchGraph("purchases")).get();
+        assertTrue(util.isLoaded(customer, "purchases"));
+        assertEquals(2, customer.getPurchases().size());
+    }
+
+    @Test
+    public void testLoadGraph() {
+        List<Purchase> purchases = service.findAllByParams(Purchase.class, PredicateBuilder.where("status", "CLOSED").build(), FetchPlan.loadGraph("customer"));
+        purchases.forEach(p -> p.getCustomer().getName());
+
+        assertEquals(4, purchases.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+}
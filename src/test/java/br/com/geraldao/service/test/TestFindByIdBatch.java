@@ -0,0 +1,217 @@
+package br.com.geraldao.service.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import br.com.geraldao.dao.FindByIdLoader;
+import br.com.geraldao.entity.Customer;
+import br.com.geraldao.service.H2ServiceJPA;
+
+public class TestFindByIdBatch {
+
+    private static final long    WINDOW   = 5000;
+
+    private EntityManagerFactory emf;
+    private EntityManager        em;
+    private H2ServiceJPA         service;
+    private Statistics           statistics;
+    private ExecutorService      executor = Executors.newFixedThreadPool(3);
+    private List<Long>           ids      = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        emf = H2ServiceJPA.createEntityManagerFactory("findbyidbatch", Collections.singletonMap("hibernate.session_factory.statement_inspector", Inspector.class.getName()));
+        em = emf.createEntityManager();
+        service = batching(em);
+        service.inTransaction(s -> {
+            for (int i = 0; i < 3; i++) {
+                ids.add(s.save(new Customer("Customer " + i, "customer" + i + "@example.com", "Recife")).get().getId());
+            }
+        });
+        em.clear();
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        Inspector.STATEMENTS.set(0);
+    }
+
+    @After
+    public void tearDown() {
+        if (Inspector.release != null) {
+            Inspector.release.countDown();
+            Inspector.release = null;
+        }
+        executor.shutdownNow();
+        em.close();
+        emf.close();
+    }
+
+    @Test
+    public void testCallsGatherWhileAQueryRuns() throws Exception {
+        Inspector.release = new CountDownLatch(1);
+        long start = System.currentTimeMillis();
+        Future<Optional<Customer>> first = executor.submit(() -> service.findById(Customer.class, ids.get(0)));
+        waitStatements(1);
+        List<Thread> waiters = Collections.synchronizedList(new ArrayList<>());
+        List<Future<Optional<Customer>>> futures = new ArrayList<>();
+        for (Long id : ids.subList(1, ids.size())) {
+            futures.add(executor.submit(() -> {
+                waiters.add(Thread.currentThread());
+                return service.findById(Customer.class, id);
+            }));
+        }
+        waitWaiting(waiters, futures.size());
+        assertEquals(1, Inspector.STATEMENTS.get());
+        Inspector.release.countDown();
+
+        futures.add(0, first);
+        for (int i = 0; i < ids.size(); i++) {
+            Customer customer = futures.get(i).get(30, TimeUnit.SECONDS).get();
+            assertEquals(ids.get(i), customer.getId());
+            assertTrue(em.contains(customer));
+        }
+        assertTrue(System.currentTimeMillis() - start < WINDOW);
+        assertEquals(2, Inspector.STATEMENTS.get());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testCallerAloneDoesNotWait() {
+        long start = System.currentTimeMillis();
+        for (Long id : ids) {
+            assertEquals(id, service.findById(Customer.class, id).get().getId());
+        }
+        assertFalse(service.findById(Customer.class, -1L).isPresent());
+
+        assertTrue(System.currentTimeMillis() - start < WINDOW / 2);
+        assertEquals(4, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testPersistenceContextsNotShared() throws Exception {
+        EntityManager other = emf.createEntityManager();
+        H2ServiceJPA otherService = batching(other);
+        for (int attempt = 0; attempt < 5; attempt++) {
+            em.clear();
+            other.clear();
+            CyclicBarrier barrier = new CyclicBarrier(2);
+            Future<Customer> first = executor.submit(() -> {
+                barrier.await();
+                return service.findById(Customer.class, ids.get(0)).get();
+            });
+            Future<Customer> second = executor.submit(() -> {
+                barrier.await();
+                return otherService.findById(Customer.class, ids.get(0)).get();
+            });
+
+            Customer mine = first.get(30, TimeUnit.SECONDS);
+            Customer theirs = second.get(30, TimeUnit.SECONDS);
+            assertNotSame(mine, theirs);
+            assertTrue(em.contains(mine));
+            assertTrue(other.contains(theirs));
+            assertFalse(em.contains(theirs));
+        }
+        other.close();
+    }
+
+    @Test
+    public void testLoaderResults() {
+        FindByIdLoader<Customer> loader = service.findByIdLoader(Customer.class);
+        List<Supplier<Optional<Customer>>> customers = new ArrayList<>();
+        for (Long id : ids) {
+            customers.add(loader.load(id));
+        }
+        Supplier<Optional<Customer>> missing = loader.load(-1L);
+
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals(ids.get(i), customers.get(i).get().get().getId());
+        }
+        assertFalse(missing.get().isPresent());
+        assertEquals(ids.get(1), loader.get(ids.get(1)).get().getId());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    /**
+     * Counts the selects and, while a release latch is set, blocks them until released
+     */
+    public static class Inspector implements StatementInspector {
+        private static final long              serialVersionUID = 1L;
+        private static final AtomicInteger     STATEMENTS       = new AtomicInteger();
+        private static volatile CountDownLatch release;
+
+        @Override
+        public String inspect(String sql) {
+            if (sql.startsWith("select")) {
+                STATEMENTS.incrementAndGet();
+                CountDownLatch latch = release;
+                if (latch != null) {
+                    try {
+                        latch.await(30, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+            return sql;
+        }
+    }
+
+    private static void waitStatements(int statements) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30000;
+        while (Inspector.STATEMENTS.get() < statements && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(statements, Inspector.STATEMENTS.get());
+    }
+
+    /**
+     * Waits until the threads wait for their entity, after joining the batch gathered behind the running query
+     */
+    private static void waitWaiting(List<Thread> threads, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30000;
+        while (!waiting(threads, count) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(waiting(threads, count));
+    }
+
+    private static boolean waiting(List<Thread> threads, int count) {
+        synchronized (threads) {
+            return threads.size() == count && threads.stream().allMatch(thread -> thread.getState() == Thread.State.WAITING);
+        }
+    }
+
+    private static H2ServiceJPA batching(EntityManager em) {
+        return new H2ServiceJPA(H2ServiceJPA.url("findbyidbatch"), em) {
+            @Override
+            protected long findByIdBatchWindowMillis() {
+                return WINDOW;
+            }
+        };
+    }
+
+}
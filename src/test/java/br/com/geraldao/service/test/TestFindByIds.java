@@ -0,0 +1,92 @@
+package br.com.geraldao.service.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import br.com.geraldao.entity.Customer;
+import br.com.geraldao.service.H2ServiceJPA;
+
+public class TestFindByIds {
+
+    private EntityManagerFactory emf;
+    private EntityManager        em;
+    private H2ServiceJPA         service;
+    private Statistics           statistics;
+    private List<Long>           ids = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        emf = H2ServiceJPA.createEntityManagerFactory("findbyids", Collections.emptyMap());
+        em = emf.createEntityManager();
+        service = new H2ServiceJPA(H2ServiceJPA.url("findbyids"), em) {
+            @Override
+            protected int inListChunkSize() {
+                return 4;
+            }
+        };
+        service.inTransaction(s -> {
+            for (int i = 0; i < 10; i++) {
+                ids.add(s.save(new Customer("Customer " + i, "customer" + i + "@example.com", "Recife")).get().getId());
+            }
+        });
+        em.clear();
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @After
+    public void tearDown() {
+        em.close();
+        emf.close();
+    }
+
+    @Test
+    public void testManagedEntitiesAreNotQueried() {
+        Customer managed = em.find(Customer.class, ids.get(0));
+        statistics.clear();
+
+        Map<Long, Customer> found = service.findByIds(Customer.class, Arrays.asList(ids.get(0), ids.get(1), ids.get(2), -1L));
+
+        assertEquals(3, found.size());
+        assertSame(managed, found.get(ids.get(0)));
+        assertFalse(found.containsKey(-1L));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testChunks() {
+        Map<Long, Customer> found = service.findByIds(Customer.class, ids);
+
+        assertEquals(10, found.size());
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertTrue(em.contains(found.get(ids.get(9))));
+        assertTrue(service.findByIds(Customer.class, Collections.emptyList()).isEmpty());
+    }
+
+    @Test
+    public void testParallelChunks() {
+        Map<Long, Customer> found = service.findByIds(Customer.class, ids, 3);
+
+        assertEquals(10, found.size());
+        assertEquals("Customer 7", found.get(ids.get(7)).getName());
+        assertFalse(em.contains(found.get(ids.get(7))));
+    }
+
+}
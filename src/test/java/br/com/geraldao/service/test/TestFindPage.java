@@ -0,0 +1,93 @@
+package br.com.geraldao.service.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import br.com.geraldao.constant.QueryOrder;
+import br.com.geraldao.dao.Page;
+import br.com.geraldao.entity.Customer;
+import br.com.geraldao.predicate.PredicateBuilder;
+import br.com.geraldao.service.H2ServiceJPA;
+
+public class TestFindPage {
+
+    private EntityManagerFactory emf;
+    private EntityManager        em;
+    private H2ServiceJPA         service;
+    private Statistics           statistics;
+
+    @Before
+    public void setUp() {
+        emf = H2ServiceJPA.createEntityManagerFactory("findpage", Collections.emptyMap());
+        em = emf.createEntityManager();
+        service = new H2ServiceJPA(H2ServiceJPA.url("findpage"), em) {
+            @Override
+            protected long pageCountTtlMillis() {
+                return 60000;
+            }
+        };
+        service.inTransaction(s -> {
+            for (int i = 0; i < 30; i++) {
+                s.save(new Customer(String.format("Customer %02d", i), "customer" + i + "@example.com", i < 25 ? "Recife" : "Natal"));
+            }
+        });
+        em.clear();
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @After
+    public void tearDown() {
+        em.close();
+        emf.close();
+    }
+
+    @Test
+    public void testLastPageIsNotCounted() {
+        Page<Customer> page = service.findPage(Customer.class, PredicateBuilder.where("city", "Recife").build(), QueryOrder.DESC, 2, 10, "name");
+
+        assertEquals(5, page.getItems().size());
+        assertEquals("Customer 04", page.getItems().get(0).getName());
+        assertEquals(25, page.getTotal());
+        assertEquals(3, page.getTotalPages());
+        assertFalse(page.hasNext());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testCountReusedAcrossPages() {
+        Page<Customer> first = service.findPage(Customer.class, PredicateBuilder.where("city", "Recife").build(), QueryOrder.ASC, 0, 10);
+        Page<Customer> second = service.findPage(Customer.class, PredicateBuilder.where("city", "Recife").build(), QueryOrder.ASC, 1, 10);
+
+        assertEquals(25, first.getTotal());
+        assertEquals(25, second.getTotal());
+        assertTrue(second.hasNext());
+        assertEquals(first.getItems().get(9).getId() + 1, (long) second.getItems().get(0).getId());
+        assertEquals(3, statistics.getPrepareStatementCount());
+
+        service.inTransaction(s -> s.save(new Customer("Customer 99", "customer99@example.com", "Recife")));
+        assertEquals(26, service.findPage(Customer.class, PredicateBuilder.where("city", "Recife").build(), QueryOrder.ASC, 1, 10).getTotal());
+    }
+
+    @Test
+    public void testPastTheLastPage() {
+        Page<Customer> page = service.findPage(Customer.class, null, null, 7, 10);
+
+        assertTrue(page.getItems().isEmpty());
+        assertEquals(30, page.getTotal());
+        assertEquals(0, service.findPage(Customer.class, PredicateBuilder.where("city", "Manaus").build(), QueryOrder.ASC, 0, 10).getTotal());
+    }
+
+}
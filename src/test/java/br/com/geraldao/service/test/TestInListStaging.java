@@ -0,0 +1,140 @@
+package br.com.geraldao.service.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.Session;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import br.com.geraldao.constant.Operator;
+import br.com.geraldao.constant.QueryOrder;
+import br.com.geraldao.entity.Customer;
+import br.com.geraldao.entity.Purchase;
+import br.com.geraldao.predicate.PredicateBuilder;
+import br.com.geraldao.predicate.PredicateClause;
+import br.com.geraldao.predicate.PredicateTemplate;
+import br.com.geraldao.service.H2ServiceJPA;
+
+public class TestInListStaging {
+
+    private EntityManagerFactory emf;
+    private EntityManager        em;
+    private H2ServiceJPA         service;
+    private List<Long>           ids = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        emf = H2ServiceJPA.createEntityManagerFactory("inliststaging", Collections.emptyMap());
+        em = emf.createEntityManager();
+        service = new H2ServiceJPA(H2ServiceJPA.url("inliststaging"), em) {
+            @Override
+            protected int inListStagingThreshold() {
+                return 5;
+            }
+
+            @Override
+            protected boolean cacheQueryTemplates() {
+                return true;
+            }
+        };
+        service.inTransaction(s -> {
+            for (int i = 0; i < 20; i++) {
+                ids.add(s.save(new Customer("Customer " + i, "customer" + i + "@example.com", i % 2 == 0 ? "Recife" : "Natal")).get().getId());
+            }
+        });
+        em.clear();
+    }
+
+    @After
+    public void tearDown() {
+        em.close();
+        emf.close();
+    }
+
+    @Test
+    public void testStagedListsMatchBoundLists() {
+        List<Long> wanted = new ArrayList<>(ids.subList(0, 12));
+        wanted.add(-1L);
+        List<String> emails = new ArrayList<>();
+        for (int i = 5; i < 15; i++) {
+            emails.add("customer" + i + "@example.com");
+        }
+        PredicateClause byIds = PredicateBuilder.where("id", Operator.IN, wanted).and("city", "Recife").build();
+        PredicateClause notByEmails = PredicateBuilder.where("email", Operator.NOT_IN, emails).build();
+
+        List<Long> bound = ids(service.findAllOrderedByParams(Customer.class, byIds, QueryOrder.ASC, "id"));
+        List<Long> notBound = ids(service.findAllOrderedByParams(Customer.class, notByEmails, QueryOrder.ASC, "id"));
+        assertEquals(6, bound.size());
+        assertEquals(10, notBound.size());
+
+        service.inTransaction(s -> {
+            assertEquals(bound, ids(s.findAllOrderedByParams(Customer.class, byIds, QueryOrder.ASC, "id")));
+            assertEquals(notBound, ids(s.findAllOrderedByParams(Customer.class, notByEmails, QueryOrder.ASC, "id")));
+            assertEquals(6, s.findPage(Customer.class, byIds, QueryOrder.ASC, 0, 4).getTotal());
+            assertTrue(s.entityExists(Customer.class, notByEmails));
+            assertTrue(s.updateByParams(Customer.class, Collections.singletonMap("city", "Natal"), byIds));
+            assertFalse(s.entityExists(Customer.class, byIds));
+        });
+        assertEquals(0L, (long) em.createQuery("select count(v) from InListValue v", Long.class).getSingleResult());
+    }
+
+    @Test
+    public void testStagedListsShareOneShape() {
+        String small = PredicateTemplate.shape(PredicateBuilder.where("id", Operator.IN, ids.subList(0, 8)).build(), 5);
+        String big = PredicateTemplate.shape(PredicateBuilder.where("id", Operator.IN, ids).build(), 5);
+
+        assertEquals(small, big);
+        assertEquals(PredicateTemplate.of(PredicateBuilder.where("id", Operator.IN, ids.subList(0, 8)).build(), 5).getCondition(), PredicateTemplate.of(PredicateBuilder.where("id", Operator.IN, ids).build(), 5).getCondition());
+        assertFalse(big.equals(PredicateTemplate.shape(PredicateBuilder.where("id", Operator.IN, ids.subList(0, 3)).build(), 5)));
+    }
+
+    @Test
+    public void testStagedRowsDeletedWhenTheQueryFails() {
+        PredicateClause broken = PredicateBuilder.where("id", Operator.IN, ids).and("id", "not a number").build();
+        service.inTransaction(s -> {
+            try {
+                s.findAllByParams(Customer.class, broken);
+                fail("Expected the bind to fail");
+            } catch (IllegalArgumentException e) {
+                assertEquals(0L, (long) em.createQuery("select count(v) from InListValue v", Long.class).getSingleResult());
+            }
+        });
+    }
+
+    @Test
+    public void testStagingDoesNotFlushPendingChanges() {
+        service.inTransaction(s -> {
+            s.findById(Customer.class, ids.get(0)).get().setCity("Manaus");
+            assertTrue(s.findAllByParams(Purchase.class, PredicateBuilder.where("id", Operator.IN, ids.subList(0, 12)).build()).isEmpty());
+            assertTrue(em.unwrap(Session.class).isDirty());
+            assertEquals(1, em.unwrap(Session.class).getStatistics().getEntityCount());
+        });
+        assertEquals(0L, (long) em.createQuery("select count(v) from InListValue v", Long.class).getSingleResult());
+    }
+
+    @Test
+    public void testStagedRemove() {
+        service.inTransaction(s -> assertTrue(s.removeByParams(Customer.class, PredicateBuilder.where("id", Operator.IN, ids.subList(0, 10)).build())));
+
+        assertEquals(10, service.findAllOrderedByParams(Customer.class, null, QueryOrder.ASC, "id").size());
+        assertEquals(0L, (long) em.createQuery("select count(v) from InListValue v", Long.class).getSingleResult());
+    }
+
+    private static List<Long> ids(List<Customer> customers) {
+        List<Long> ids = new ArrayList<>();
+        customers.forEach(customer -> ids.add(customer.getId()));
+        return ids;
+    }
+
+}
@@ -0,0 +1,53 @@
+package br.com.geraldao.service.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import br.com.geraldao.query.QueryBuilder;
+import br.com.geraldao.query.QueryResultReader;
+import br.com.geraldao.service.H2ServiceQuery;
+
+public class TestNamedParameters {
+
+    private H2ServiceQuery service;
+
+    @Before
+    public void setUp() throws SQLException {
+        service = new H2ServiceQuery("named");
+        service.script("DROP TABLE IF EXISTS Named", "CREATE TABLE Named (id INT, parentId INT, login VARCHAR(50))", "INSERT INTO Named VALUES (1, NULL, 'a:b'), (2, 1, 'c'), (3, 2, 'd')");
+    }
+
+    @Test
+    public void testReuseNamedParameter() throws SQLException {
+        String sql = "SELECT id FROM Named WHERE (id = :id OR parentId = :id) AND login <> ':id' /* :ignored */ ORDER BY id";
+        QueryBuilder builder = QueryBuilder.create(sql, Collections.singletonMap("id", 2));
+        assertEquals("SELECT id FROM Named WHERE (id = ? OR parentId = ?) AND login <> ':id' /* :ignored */ ORDER BY id", builder.build());
+        List<Integer> ids = service.findAll(builder, new QueryResultReader<>(Integer.class, 1));
+        assertEquals(Arrays.asList(2, 3), ids);
+    }
+
+    @Test
+    public void testSameTemplateForRepeatedQueries() {
+        Map<String, Object> params = new HashMap<>();
+        params.put("login", "c");
+        String sql = "SELECT id FROM Named WHERE login = :login";
+        assertSame(QueryBuilder.create(sql, params).build(), QueryBuilder.create(sql, params).build());
+        assertEquals(Arrays.asList("c"), QueryBuilder.create(sql, params).getParameters());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMissingParameter() {
+        QueryBuilder.create("SELECT id FROM Named WHERE login = :login", Collections.singletonMap("id", 1));
+    }
+
+}
@@ -0,0 +1,101 @@
+package br.com.geraldao.service.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import br.com.geraldao.bean.CustomerRow;
+import br.com.geraldao.entity.Customer;
+import br.com.geraldao.query.QueryResultReader;
+import br.com.geraldao.service.H2ServiceJPA;
+
+public class TestNativeDto {
+
+    private EntityManagerFactory emf;
+    private EntityManager        em;
+    private DtoService           service;
+
+    @Before
+    public void setUp() {
+        emf = H2ServiceJPA.createEntityManagerFactory("nativedto", Collections.emptyMap());
+        em = emf.createEntityManager();
+        service = new DtoService(em);
+        service.inTransaction(s -> {
+            for (int i = 0; i < 8; i++) {
+                s.save(new Customer("Customer " + i, "customer" + i + "@example.com", i < 5 ? "Recife" : "Natal"));
+            }
+        });
+        em.clear();
+    }
+
+    @After
+    public void tearDown() {
+        em.close();
+        emf.close();
+    }
+
+    @Test
+    public void testRowsAreMappedWithoutEntities() throws SQLException {
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<CustomerRow> rows = service.findAll("select id, name, email, city from Customer where city = ? order by id", "Recife");
+
+        assertEquals(5, rows.size());
+        assertEquals("Customer 0", rows.get(0).getName());
+        assertEquals("customer4@example.com", rows.get(4).getEmail());
+        assertTrue(rows.get(0).getId() > 0);
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(Optional.of("Natal"), service.findItem("select id, name, email, city from Customer where city = ? order by id", "Natal").map(CustomerRow::getCity));
+        assertFalse(service.findItem("select id, name, email, city from Customer where city = ?", "Manaus").isPresent());
+    }
+
+    @Test
+    public void testStreamSeesTheTransaction() {
+        service.inTransaction(s -> {
+            s.save(new Customer("Customer 8", "customer8@example.com", "Natal"));
+            try (Stream<CustomerRow> rows = service.stream("select id, name, email, city from Customer where city = ? order by id", "Natal")) {
+                assertEquals(4, rows.map(CustomerRow::getName).collect(Collectors.toList()).size());
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(em.isOpen());
+    }
+
+    private static class DtoService extends H2ServiceJPA {
+
+        private DtoService(EntityManager em) {
+            super(H2ServiceJPA.url("nativedto"), em);
+        }
+
+        private List<CustomerRow> findAll(String query, Object... params) throws SQLException {
+            return findAllByNativeQuery(query, new QueryResultReader<>(CustomerRow.class), params);
+        }
+
+        private Optional<CustomerRow> findItem(String query, Object... params) throws SQLException {
+            return findItemByNativeQuery(query, new QueryResultReader<>(CustomerRow.class), params);
+        }
+
+        private Stream<CustomerRow> stream(String query, Object... params) throws SQLException {
+            return streamByNativeQuery(query, new QueryResultReader<>(CustomerRow.class), params);
+        }
+    }
+
+}
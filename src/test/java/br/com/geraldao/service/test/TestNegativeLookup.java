@@ -0,0 +1,123 @@
+package br.com.geraldao.service.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import br.com.geraldao.dao.NegativeLookupFilter;
+import br.com.geraldao.entity.Customer;
+import br.com.geraldao.predicate.PredicateBuilder;
+import br.com.geraldao.service.H2ServiceJPA;
+
+public class TestNegativeLookup {
+
+    private EntityManagerFactory emf;
+    private EntityManager        em;
+    private NegativeLookupFilter filter;
+    private H2ServiceJPA         service;
+    private Statistics           statistics;
+    private Long                 lastId;
+
+    @Before
+    public void setUp() {
+        emf = H2ServiceJPA.createEntityManagerFactory("negativelookup", Collections.emptyMap());
+        em = emf.createEntityManager();
+        filter = NegativeLookupFilter.of(1000, 0.001).rebuildEvery(1, TimeUnit.HOURS).entities(Customer.class);
+        service = new H2ServiceJPA(H2ServiceJPA.url("negativelookup"), em) {
+            @Override
+            protected NegativeLookupFilter negativeLookupFilter() {
+                return filter;
+            }
+        };
+        service.inTransaction(s -> {
+            for (int i = 0; i < 50; i++) {
+                lastId = s.save(new Customer("Customer " + i, "customer" + i + "@example.com", "Recife")).get().getId();
+            }
+        });
+        em.clear();
+        service.warmUpNegativeLookupFilter(Customer.class);
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @After
+    public void tearDown() {
+        em.close();
+        emf.close();
+    }
+
+    @Test
+    public void testMissesSkipTheDatabase() {
+        assertTrue(service.findById(Customer.class, lastId).isPresent());
+        statistics.clear();
+
+        for (long id = lastId + 1; id < lastId + 100; id++) {
+            assertFalse(service.findById(Customer.class, id).isPresent());
+        }
+        assertFalse(service.entityExists(Customer.class, PredicateBuilder.where("id", lastId + 500).build()));
+        assertTrue(statistics.getPrepareStatementCount() <= 2);
+        assertTrue(filter.getSkippedLookups() >= 98);
+
+        assertTrue(service.entityExists(Customer.class, PredicateBuilder.where("id", lastId).build()));
+        assertEquals(Collections.singleton(lastId), service.findExistingKeys(Customer.class, "id", Arrays.asList(lastId, lastId + 1)));
+    }
+
+    @Test
+    public void testSavedIdsAreAdded() {
+        assertFalse(service.findById(Customer.class, lastId + 1).isPresent());
+
+        service.inTransaction(s -> s.save(new Customer("New", "new@example.com", "Natal")));
+        em.clear();
+
+        assertTrue(service.findById(Customer.class, lastId + 1).isPresent());
+    }
+
+    @Test
+    public void testMergedInsertsAreAdded() {
+        Customer detached = new Customer("Merged", "merged@example.com", "Natal");
+        detached.setId(lastId + 1000);
+        Long[] id = new Long[1];
+        service.inTransaction(s -> id[0] = s.save(detached).get().getId());
+        em.clear();
+
+        assertTrue(service.findById(Customer.class, id[0]).isPresent());
+    }
+
+    @Test
+    public void testFirstLookupBuildsInBackground() throws InterruptedException {
+        filter.invalidate(Customer.class);
+        service.inTransaction(s -> assertFalse(s.findById(Customer.class, lastId + 1).isPresent()));
+        for (int i = 0; i < 100 && !filter.isBuilt(Customer.class); i++) {
+            Thread.sleep(50);
+        }
+
+        assertTrue(filter.isBuilt(Customer.class));
+        long skipped = filter.getSkippedLookups();
+        assertFalse(service.findById(Customer.class, lastId + 1).isPresent());
+        assertEquals(skipped + 1, filter.getSkippedLookups());
+    }
+
+    @Test
+    public void testInvalidateRebuilds() {
+        assertFalse(service.findById(Customer.class, lastId + 1).isPresent());
+
+        service.inTransaction(s -> s.getEm().createNativeQuery("INSERT INTO Customer (id, name, email, city, active) VALUES (" + (lastId + 1) + ", 'Native', 'native@example.com', 'Natal', true)").executeUpdate());
+        assertFalse(service.findById(Customer.class, lastId + 1).isPresent());
+
+        filter.invalidate(Customer.class);
+        assertTrue(service.findById(Customer.class, lastId + 1).isPresent());
+    }
+
+}
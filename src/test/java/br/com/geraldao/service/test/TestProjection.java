@@ -0,0 +1,79 @@
+package br.com.geraldao.service.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Tuple;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import br.com.geraldao.bean.CustomerSummary;
+import br.com.geraldao.constant.QueryOrder;
+import br.com.geraldao.entity.Customer;
+import br.com.geraldao.entity.Purchase;
+import br.com.geraldao.predicate.PredicateBuilder;
+import br.com.geraldao.query.Projection;
+import br.com.geraldao.service.H2ServiceJPA;
+
+public class TestProjection {
+
+    private EntityManagerFactory emf;
+    private EntityManager        em;
+    private H2ServiceJPA         service;
+
+    @Before
+    public void setUp() {
+        emf = H2ServiceJPA.createEntityManagerFactory("projection", Collections.emptyMap());
+        em = emf.createEntityManager();
+        service = new H2ServiceJPA(H2ServiceJPA.url("projection"), em);
+        service.inTransaction(s -> {
+            for (int i = 0; i < 4; i++) {
+                Customer customer = new Customer("Customer " + i, "customer" + i + "@example.com", i < 2 ? "Recife" : "Natal");
+                customer.setNotes("Long notes " + i);
+                s.save(customer);
+                s.save(new Purchase(customer, BigDecimal.valueOf(10 + i), "OPEN"));
+            }
+        });
+        em.clear();
+    }
+
+    @After
+    public void tearDown() {
+        em.close();
+        emf.close();
+    }
+
+    @Test
+    public void testConstructorProjection() {
+        List<CustomerSummary> rows = service.findAllProjectedByParams(Customer.class, Projection.constructor(CustomerSummary.class, "id", "name", "city"), PredicateBuilder.where("city", "Natal").build(), QueryOrder.DESC, "name");
+
+        assertEquals(2, rows.size());
+        assertEquals("Customer 3", rows.get(0).getName());
+        assertEquals("Natal", rows.get(1).getCity());
+    }
+
+    @Test
+    public void testTupleProjectionWithAssociationPath() {
+        List<Tuple> rows = service.findAllProjectedByParams(Purchase.class, Projection.tuple("amount", "customer.name"), PredicateBuilder.where("status", "OPEN").build(), QueryOrder.ASC, "amount");
+
+        assertEquals(4, rows.size());
+        assertEquals(new BigDecimal("10.00"), rows.get(0).get("amount"));
+        assertEquals("Customer 0", rows.get(0).get("customer.name"));
+    }
+
+    @Test
+    public void testArrayProjection() {
+        Object[] row = service.findFirstProjectedByParams(Customer.class, Projection.array("email", "active"), null, QueryOrder.ASC, "email").get();
+
+        assertArrayEquals(new Object[] { "customer0@example.com", true }, row);
+    }
+
+}
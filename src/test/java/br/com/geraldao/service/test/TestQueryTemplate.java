@@ -0,0 +1,178 @@
+package br.com.geraldao.service.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import br.com.geraldao.constant.Operator;
+import br.com.geraldao.constant.QueryOrder;
+import br.com.geraldao.entity.BaseEntity;
+import br.com.geraldao.entity.Customer;
+import br.com.geraldao.entity.Purchase;
+import br.com.geraldao.predicate.PredicateBuilder;
+import br.com.geraldao.predicate.PredicateClause;
+import br.com.geraldao.predicate.PredicateTemplate;
+import br.com.geraldao.service.H2ServiceJPA;
+
+public class TestQueryTemplate {
+
+    private EntityManagerFactory emf;
+    private EntityManager        em;
+    private H2ServiceJPA         service;
+    private H2ServiceJPA         criteriaService;
+
+    @Before
+    public void setUp() {
+        emf = H2ServiceJPA.createEntityManagerFactory("template", Collections.emptyMap());
+        em = emf.createEntityManager();
+        service = new H2ServiceJPA(H2ServiceJPA.url("template"), em) {
+            @Override
+            protected boolean cacheQueryTemplates() {
+                return true;
+            }
+        };
+        criteriaService = new H2ServiceJPA(H2ServiceJPA.url("template"), em);
+        service.inTransaction(s -> {
+            for (int i = 0; i < 10; i++) {
+                Customer customer = new Customer("Customer " + i, i % 3 == 0 ? null : "customer" + i + "@example.com", i % 2 == 0 ? "Recife" : "Natal");
+                customer.setActive(i < 6);
+                s.save(customer);
+                s.save(new Purchase(customer, BigDecimal.valueOf(i), i % 2 == 0 ? "OPEN" : "CLOSED"));
+            }
+        });
+        em.clear();
+    }
+
+    @After
+    public void tearDown() {
+        em.close();
+        emf.close();
+    }
+
+    @Test
+    public void testShapeIgnoresValues() {
+        String recife = PredicateTemplate.shape(PredicateBuilder.where("city", "Recife").or("name", Operator.IN, Arrays.asList("a", "b")).build());
+        String natal = PredicateTemplate.shape(PredicateBuilder.where("city", "Natal").or("name", Operator.IN, Arrays.asList("c", "d")).build());
+        String bigger = PredicateTemplate.shape(PredicateBuilder.where("city", "Natal").or("name", Operator.IN, Arrays.asList("c", "d", "e")).build());
+        String and = PredicateTemplate.shape(PredicateBuilder.where("city", "Natal").and("name", Operator.IN, Arrays.asList("c", "d")).build());
+
+        assertEquals(recife, natal);
+        assertNotEquals(natal, bigger);
+        assertNotEquals(natal, and);
+    }
+
+    @Test
+    public void testSameResultsAsCriteria() {
+        List<PredicateClause> clauses = Arrays.asList(
+                PredicateBuilder.where("city", "Recife").or("active", false).andIsNotNull("email").build(),
+                PredicateBuilder.where("name", Operator.STARTS_WITH, "Customer").andBlock(PredicateBuilder.where("city", "Natal").orIsNull("email").build()).build(),
+                PredicateBuilder.where("name", Operator.CONTAINS, "mer 1").orBlock(PredicateBuilder.where("active", true).and("city", Operator.NOT_EQUAL, "Recife").build()).build(),
+                PredicateBuilder.where("city", Operator.IN, Arrays.asList("Natal", "Manaus")).and("name", Operator.NOT_IN, Collections.emptyList()).build(),
+                PredicateBuilder.where("city", Operator.IN, Collections.emptyList()).or("email", Operator.ENDS_WITH, "4@example.com").build(),
+                PredicateBuilder.where("name", Operator.NOT_IN, Arrays.asList("Customer 1", "Customer 2")).and("name", Operator.LESS_THAN_OR_EQUAL, "Customer 5").build());
+
+        for (PredicateClause clause : clauses) {
+            assertEquals(clause.toString(), ids(criteriaService.findAllOrderedByParams(Customer.class, clause, QueryOrder.ASC, "id")), ids(service.findAllOrderedByParams(Customer.class, clause, QueryOrder.ASC, "id")));
+        }
+    }
+
+    @Test
+    public void testValuesConvertedToTheFieldType() {
+        Long id = service.findAll(Customer.class).get(2).getId();
+        List<PredicateClause> clauses = Arrays.asList(
+                PredicateBuilder.where("id", id.intValue()).build(),
+                PredicateBuilder.where("id", Operator.NOT_EQUAL, id.intValue()).build(),
+                PredicateBuilder.where("id", Operator.LESS_THAN_OR_EQUAL, id).build(),
+                PredicateBuilder.where("id", Operator.LESS_THAN_OR_EQUAL, id.intValue()).build());
+        for (PredicateClause clause : clauses) {
+            List<Long> expected = ids(criteriaService.findAllOrderedByParams(Customer.class, clause, QueryOrder.ASC, "id"));
+            assertFalse(clause.toString(), expected.isEmpty());
+            assertEquals(clause.toString(), expected, ids(service.findAllOrderedByParams(Customer.class, clause, QueryOrder.ASC, "id")));
+            assertTrue(clause.toString(), service.entityExists(Customer.class, clause));
+        }
+
+        assertEquals(Arrays.asList(id, id + 1), ids(service.findAllOrderedByParams(Customer.class, PredicateBuilder.where("id", Operator.IN, Arrays.asList(id.intValue(), id.intValue() + 1)).build(), QueryOrder.ASC, "id")));
+
+        PredicateClause amount = PredicateBuilder.where("amount", Operator.LESS_THAN_OR_EQUAL, 4).and("id", Operator.NOT_EQUAL, 0).build();
+        assertEquals(ids(criteriaService.findAllOrderedByParams(Purchase.class, amount, QueryOrder.ASC, "id")), ids(service.findAllOrderedByParams(Purchase.class, amount, QueryOrder.ASC, "id")));
+        assertEquals(5, service.findAllByParams(Purchase.class, amount).size());
+
+        assertTrue(service.entityExists(Customer.class, PredicateBuilder.where("id", id.intValue()).build()));
+        service.inTransaction(s -> {
+            assertTrue(s.updateByParams(Purchase.class, Collections.singletonMap("amount", 20), PredicateBuilder.where("customer.id", id.intValue()).build()));
+            assertTrue(s.removeByParams(Purchase.class, PredicateBuilder.where("amount", 20).build()));
+        });
+        assertEquals(9, service.findAll(Purchase.class).size());
+    }
+
+    @Test
+    public void testStatementReusedAcrossValues() {
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        for (String city : Arrays.asList("Recife", "Natal", "Manaus")) {
+            service.findAllOrderedByParams(Customer.class, PredicateBuilder.where("city", city).andIsNotNull("email").build(), QueryOrder.DESC, "name");
+        }
+
+        assertEquals(1, statistics.getQueries().length);
+        assertEquals(3, statistics.getQueryStatistics(statistics.getQueries()[0]).getExecutionCount());
+    }
+
+    @Test
+    public void testUpdateAndRemoveByTemplate() {
+        service.inTransaction(s -> {
+            assertTrue(s.updateByParams(Customer.class, Collections.singletonMap("city", "Manaus"), PredicateBuilder.where("city", "Natal").and("active", true).build()));
+            assertFalse(s.removeByParams(Purchase.class, PredicateBuilder.where("status", "PAID").build()));
+            assertTrue(s.removeByParams(Purchase.class, PredicateBuilder.where("status", "CLOSED").build()));
+        });
+
+        assertEquals(3, service.findAllByParams(Customer.class, PredicateBuilder.where("city", "Manaus").build()).size());
+        assertEquals(5, service.findAll(Purchase.class).size());
+    }
+
+    @Test
+    public void testNamesCheckedAgainstMetamodel() {
+        assertEquals(5, service.findAllByParams(Purchase.class, PredicateBuilder.where("customer.city", "Recife").build()).size());
+        assertEquals(10, service.findAllOrderedByParams(Purchase.class, null, QueryOrder.ASC, "customer.name").size());
+
+        assertRejected(() -> service.findAllByParams(Customer.class, PredicateBuilder.where("name = name or 1", 1).build()));
+        assertRejected(() -> service.findAllByParams(Customer.class, PredicateBuilder.where("password", "x").build()));
+        assertRejected(() -> service.findAllByParams(Purchase.class, PredicateBuilder.where("customer.password", "x").build()));
+        assertRejected(() -> service.findAllOrderedByParams(Customer.class, null, QueryOrder.ASC, "id, (select count(p) from Purchase p)"));
+        assertRejected(() -> service.findExistingKeys(Customer.class, "id) or (1 = 1", Arrays.asList(1L)));
+        service.inTransaction(s -> assertRejected(() -> s.updateByParams(Customer.class, Collections.singletonMap("city = 'Natal', e.name", "x"), null)));
+
+        assertEquals(10, service.findAllByParams(Customer.class, PredicateBuilder.where("name", Operator.STARTS_WITH, "Customer").build()).size());
+    }
+
+    private static void assertRejected(Runnable call) {
+        try {
+            call.run();
+            fail("Expected the name to be rejected");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("Invalid field name") || e.getMessage().contains("is not an attribute of"));
+        }
+    }
+
+    private static List<Long> ids(List<? extends BaseEntity> entities) {
+        return entities.stream().map(BaseEntity::getId).collect(Collectors.toList());
+    }
+
+}
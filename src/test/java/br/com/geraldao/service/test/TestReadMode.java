@@ -0,0 +1,88 @@
+package br.com.geraldao.service.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.Session;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import br.com.geraldao.constant.QueryOrder;
+import br.com.geraldao.constant.ReadMode;
+import br.com.geraldao.entity.Customer;
+import br.com.geraldao.predicate.PredicateBuilder;
+import br.com.geraldao.service.H2ServiceJPA;
+
+public class TestReadMode {
+
+    private EntityManagerFactory emf;
+    private EntityManager        em;
+    private H2ServiceJPA         service;
+
+    @Before
+    public void setUp() {
+        emf = H2ServiceJPA.createEntityManagerFactory("readmode", Collections.emptyMap());
+        em = emf.createEntityManager();
+        service = new H2ServiceJPA(H2ServiceJPA.url("readmode"), em);
+        service.inTransaction(s -> {
+            for (int i = 0; i < 5; i++) {
+                s.save(new Customer("Customer " + i, "customer" + i + "@example.com", "Recife"));
+            }
+        });
+        em.clear();
+    }
+
+    @After
+    public void tearDown() {
+        em.close();
+        emf.close();
+    }
+
+    @Test
+    public void testReadOnlyChangesAreNotSaved() {
+        service.inTransaction(s -> {
+            List<Customer> customers = s.findAllOrderedByParams(Customer.class, null, null, ReadMode.READ_ONLY, QueryOrder.ASC, "id");
+            assertEquals(5, customers.size());
+            assertTrue(em.contains(customers.get(0)));
+            assertTrue(em.unwrap(Session.class).isReadOnly(customers.get(0)));
+            customers.forEach(customer -> customer.setCity("Natal"));
+        });
+        em.clear();
+
+        assertFalse(service.entityExists(Customer.class, PredicateBuilder.where("city", "Natal").build()));
+        assertFalse(em.unwrap(Session.class).isReadOnly(service.findFirstOrdered(Customer.class, QueryOrder.ASC, "id").get()));
+    }
+
+    @Test
+    public void testDetachedResults() {
+        Customer customer = service.findFirstOrderedByParams(Customer.class, PredicateBuilder.where("name", "Customer 3").build(), null, ReadMode.DETACHED, QueryOrder.ASC, "id").get();
+
+        assertEquals("Customer 3", customer.getName());
+        assertFalse(em.contains(customer));
+    }
+
+    @Test
+    public void testServiceReadMode() {
+        H2ServiceJPA readOnlyService = new H2ServiceJPA(H2ServiceJPA.url("readmode"), em) {
+            @Override
+            protected ReadMode readMode() {
+                return ReadMode.DETACHED;
+            }
+        };
+
+        List<Customer> customers = readOnlyService.findAllByParams(Customer.class, PredicateBuilder.where("city", "Recife").build());
+        assertEquals(5, customers.size());
+        customers.forEach(customer -> assertFalse(em.contains(customer)));
+        assertFalse(em.contains(readOnlyService.findPage(Customer.class, null, QueryOrder.ASC, 0, 2).getItems().get(0)));
+        assertTrue(em.contains(readOnlyService.findFirstOrderedByParams(Customer.class, null, null, ReadMode.MANAGED, QueryOrder.ASC, "id").get()));
+    }
+
+}
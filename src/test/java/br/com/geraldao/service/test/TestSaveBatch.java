@@ -0,0 +1,209 @@
+package br.com.geraldao.service.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import br.com.geraldao.constant.CommitMode;
+import br.com.geraldao.dao.BatchResult;
+import br.com.geraldao.dao.NegativeLookupFilter;
+import br.com.geraldao.entity.Customer;
+import br.com.geraldao.predicate.PredicateBuilder;
+import br.com.geraldao.service.H2ServiceJPA;
+
+public class TestSaveBatch {
+
+    private EntityManagerFactory emf;
+    private EntityManager        em;
+    private H2ServiceJPA         service;
+
+    @Before
+    public void setUp() {
+        emf = H2ServiceJPA.createEntityManagerFactory("savebatch", Collections.emptyMap());
+        em = emf.createEntityManager();
+        service = new H2ServiceJPA(H2ServiceJPA.url("savebatch"), em) {
+            @Override
+            protected int batchFlushSize() {
+                return 40;
+            }
+        };
+    }
+
+    @After
+    public void tearDown() {
+        em.close();
+        emf.close();
+    }
+
+    @Test
+    public void testFlushAndClearEveryChunk() {
+        List<Customer> customers = customers(100, "Recife");
+        em.getTransaction().begin();
+        BatchResult result = service.saveBatch(customers);
+        em.getTransaction().commit();
+
+        assertEquals(100, result.getInserted());
+        assertEquals(0, result.getMerged());
+        assertEquals(3, result.getFlushes());
+        assertFalse(em.contains(customers.get(0)));
+        assertNotNull(customers.get(99).getId());
+        assertEquals(100, service.findAll(Customer.class).size());
+    }
+
+    @Test
+    public void testDefaultKeepsEntitiesManaged() {
+        H2ServiceJPA plain = new H2ServiceJPA(H2ServiceJPA.url("savebatch"), em);
+        plain.inTransaction(s -> s.saveBatch(customers(1, "Recife")));
+        Customer loaded = plain.findAll(Customer.class).get(0);
+        List<Customer> customers = customers(100, "Natal");
+
+        plain.inTransaction(s -> {
+            BatchResult result = s.saveBatch(customers);
+            assertEquals(0, result.getFlushes());
+            assertTrue(em.contains(loaded));
+            assertTrue(em.contains(customers.get(0)));
+            loaded.setCity("Belem");
+            customers.get(0).setCity("Belem");
+        });
+
+        em.clear();
+        assertEquals(2, plain.findAllByParams(Customer.class, PredicateBuilder.where("city", "Belem").build()).size());
+    }
+
+    @Test
+    public void testInsertAndMergeFromStream() {
+        em.getTransaction().begin();
+        service.saveBatch(IntStream.range(0, 10).mapToObj(i -> new Customer("Customer " + i, "customer" + i + "@example.com", "Natal")));
+        em.getTransaction().commit();
+
+        List<Customer> existing = service.findAll(Customer.class);
+        em.clear();
+        existing.forEach(c -> c.setCity("Belem"));
+        List<Customer> items = new ArrayList<>(existing);
+        items.add(new Customer("New", "new@example.com", "Belem"));
+
+        em.getTransaction().begin();
+        BatchResult result = service.saveBatch(items.stream());
+        em.getTransaction().commit();
+
+        assertEquals(1, result.getInserted());
+        assertEquals(10, result.getMerged());
+        assertEquals(1, result.getFlushes());
+        assertEquals(11, service.findAll(Customer.class).stream().filter(c -> "Belem".equals(c.getCity())).count());
+    }
+
+    @Test
+    public void testParallelAllOrNothing() {
+        BatchResult result = service.saveBatchParallel(customers(90, "Manaus"), 4, CommitMode.ALL_OR_NOTHING);
+
+        assertEquals(90, result.getInserted());
+        assertEquals(4, result.getPartitions());
+        assertEquals(90, service.findAll(Customer.class).size());
+
+        List<Customer> invalid = customers(90, "Vitoria");
+        invalid.get(80).setName(String.join("", Collections.nCopies(300, "x")));
+        try {
+            service.saveBatchParallel(invalid, 4, CommitMode.ALL_OR_NOTHING);
+            fail("Name too long must fail");
+        } catch (PersistenceException e) {
+            assertEquals(0, service.findAllByParams(Customer.class, PredicateBuilder.where("city", "Vitoria").build()).size());
+        }
+    }
+
+    @Test
+    public void testParallelInterruptStopsPartitionsFirst() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(3);
+        AtomicInteger running = new AtomicInteger();
+        List<EntityManager> ems = Collections.synchronizedList(new ArrayList<>());
+        H2ServiceJPA blocking = new H2ServiceJPA(H2ServiceJPA.url("savebatch"), em) {
+            @Override
+            protected EntityManager createEntityManager() {
+                EntityManager partitionEm = super.createEntityManager();
+                ems.add(partitionEm);
+                return partitionEm;
+            }
+
+            @Override
+            protected NegativeLookupFilter negativeLookupFilter() {
+                if (Thread.currentThread().getName().startsWith("geraldao-save-")) {
+                    running.incrementAndGet();
+                    started.countDown();
+                    try {
+                        Thread.sleep(60000);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("Partition interrupted", e);
+                    } finally {
+                        running.decrementAndGet();
+                    }
+                }
+                return null;
+            }
+        };
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        AtomicInteger runningOnError = new AtomicInteger(-1);
+        AtomicBoolean interrupted = new AtomicBoolean();
+        Thread caller = new Thread(() -> {
+            try {
+                blocking.saveBatchParallel(customers(90, "Belem"), 3, CommitMode.ALL_OR_NOTHING);
+            } catch (RuntimeException e) {
+                runningOnError.set(running.get());
+                error.set(e);
+                interrupted.set(Thread.currentThread().isInterrupted());
+            }
+        });
+        caller.start();
+        assertTrue(started.await(30, TimeUnit.SECONDS));
+        caller.interrupt();
+        caller.join(30000);
+
+        assertTrue(error.get() instanceof IllegalStateException);
+        assertTrue(error.get().getMessage().startsWith("Interrupted"));
+        assertEquals(0, runningOnError.get());
+        assertTrue(interrupted.get());
+        assertEquals(3, ems.size());
+        ems.forEach(partitionEm -> assertFalse(partitionEm.isOpen()));
+        assertEquals(0, service.findAll(Customer.class).size());
+    }
+
+    @Test
+    public void testParallelPerPartition() {
+        List<Customer> items = customers(90, "Curitiba");
+        items.get(80).setName(String.join("", Collections.nCopies(300, "x")));
+        BatchResult result = service.saveBatchParallel(items, 3, CommitMode.PER_PARTITION);
+
+        assertEquals(60, result.getInserted());
+        assertEquals(3, result.getPartitions());
+        assertEquals(1, result.getFailures().size());
+        assertEquals(60, service.findAll(Customer.class).size());
+    }
+
+    private static List<Customer> customers(int count, String city) {
+        List<Customer> customers = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            customers.add(new Customer("Customer " + i, "customer" + i + "@example.com", city));
+        }
+        return customers;
+    }
+
+}
@@ -0,0 +1,75 @@
+package br.com.geraldao.service.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import br.com.geraldao.dao.ResultBudget;
+import br.com.geraldao.dao.SpillableList;
+import br.com.geraldao.query.QueryBuilder;
+import br.com.geraldao.query.QueryResultReader;
+import br.com.geraldao.service.H2ServiceQuery;
+
+public class TestSpill {
+
+    private H2ServiceQuery service;
+
+    @Before
+    public void setUp() throws SQLException {
+        service = new H2ServiceQuery("spill");
+        service.script("DROP TABLE IF EXISTS Spill", "CREATE TABLE Spill (id BIGINT, login VARCHAR(50), amount DECIMAL(10,2))");
+        for (int i = 1; i <= 5; i++) {
+            service.script("INSERT INTO Spill VALUES (" + i + ", 'user" + i + "', " + i + ".50)");
+        }
+    }
+
+    @Test
+    public void testSpillRowsPastBudget() throws SQLException {
+        QueryResultReader<Object[]> reader = new QueryResultReader<>(Arrays.asList("id", "login", 3));
+        try (SpillableList<Object[]> rows = service.findAll(QueryBuilder.create("SELECT * FROM Spill ORDER BY id"), reader, ResultBudget.rows(2))) {
+            assertEquals(5, rows.size());
+            assertEquals(3, rows.getSpilledRows());
+            assertArrayEquals(new Object[] { 1L, "user1", new BigDecimal("1.50") }, rows.get(0));
+            assertArrayEquals(new Object[] { 5L, "user5", new BigDecimal("5.50") }, rows.get(4));
+        }
+    }
+
+    @Test
+    public void testSpillByBytes() throws SQLException {
+        QueryResultReader<String> reader = new QueryResultReader<>(String.class, "login");
+        try (SpillableList<String> rows = service.findAll(QueryBuilder.create("SELECT * FROM Spill ORDER BY id"), reader, ResultBudget.bytes(0))) {
+            assertEquals(5, rows.getSpilledRows());
+            assertEquals(Arrays.asList("user1", "user2", "user3", "user4", "user5"), new ArrayList<>(rows));
+        }
+    }
+
+    @Test
+    public void testMeasuredRowsMappedOnce() throws SQLException {
+        QueryResultReader<Object[]> reader = new QueryResultReader<>(Arrays.asList("id", "login", 3));
+        try (SpillableList<Object[]> rows = service.findAll(QueryBuilder.create("SELECT * FROM Spill ORDER BY id"), reader, ResultBudget.of(2, Long.MAX_VALUE - 1))) {
+            assertEquals(3, rows.getSpilledRows());
+            assertArrayEquals(new Object[] { 1L, "user1", new BigDecimal("1.50") }, rows.get(0));
+            assertArrayEquals(new Object[] { 2L, "user2", new BigDecimal("2.50") }, rows.get(1));
+            assertArrayEquals(new Object[] { 3L, "user3", new BigDecimal("3.50") }, rows.get(2));
+        }
+    }
+
+    @Test
+    public void testKeepOnHeapWithinBudget() throws SQLException {
+        QueryResultReader<Long> reader = new QueryResultReader<>(Long.class, 1);
+        try (SpillableList<Long> rows = service.findAll(QueryBuilder.create("SELECT id FROM Spill ORDER BY id"), reader, ResultBudget.of(10, 1024))) {
+            List<Long> ids = new ArrayList<>(rows);
+            assertEquals(0, rows.getSpilledRows());
+            assertEquals(Arrays.asList(1L, 2L, 3L, 4L, 5L), ids);
+        }
+    }
+
+}
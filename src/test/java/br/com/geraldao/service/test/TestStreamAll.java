@@ -0,0 +1,83 @@
+package br.com.geraldao.service.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import br.com.geraldao.constant.QueryOrder;
+import br.com.geraldao.entity.Customer;
+import br.com.geraldao.predicate.PredicateBuilder;
+import br.com.geraldao.service.H2ServiceJPA;
+
+public class TestStreamAll {
+
+    private EntityManagerFactory emf;
+    private EntityManager        em;
+    private H2ServiceJPA         service;
+
+    @Before
+    public void setUp() {
+        emf = H2ServiceJPA.createEntityManagerFactory("streamall", Collections.emptyMap());
+        em = emf.createEntityManager();
+        service = new H2ServiceJPA(H2ServiceJPA.url("streamall"), em) {
+            @Override
+            protected int streamFetchSize() {
+                return 10;
+            }
+        };
+        List<Customer> customers = new ArrayList<>();
+        for (int i = 0; i < 35; i++) {
+            customers.add(new Customer("Customer " + i, "customer" + i + "@example.com", i % 2 == 0 ? "Recife" : "Natal"));
+        }
+        service.inTransaction(s -> s.saveBatch(customers));
+    }
+
+    @After
+    public void tearDown() {
+        em.close();
+        emf.close();
+    }
+
+    @Test
+    public void testStreamDetachesInChunks() {
+        List<Customer> seen = new ArrayList<>();
+        try (Stream<Customer> customers = service.streamAllByParams(Customer.class, null)) {
+            customers.forEach(customer -> {
+                if (seen.size() == 5) {
+                    assertTrue(em.contains(seen.get(0)));
+                } else if (seen.size() == 15) {
+                    assertFalse(em.contains(seen.get(0)));
+                    assertTrue(em.contains(seen.get(12)));
+                }
+                seen.add(customer);
+            });
+        }
+        assertEquals(35, seen.size());
+        assertFalse(seen.stream().anyMatch(em::contains));
+    }
+
+    @Test
+    public void testStreamOrderedByParams() {
+        try (Stream<Customer> customers = service.streamAllOrderedByParams(Customer.class, PredicateBuilder.where("city", "Natal").build(), QueryOrder.DESC, "id")) {
+            List<Long> ids = customers.map(Customer::getId).collect(Collectors.toList());
+            assertEquals(17, ids.size());
+            List<Long> sorted = new ArrayList<>(ids);
+            sorted.sort(Collections.reverseOrder());
+            assertEquals(sorted, ids);
+        }
+    }
+
+}
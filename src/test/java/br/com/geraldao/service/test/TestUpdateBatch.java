@@ -0,0 +1,174 @@
+package br.com.geraldao.service.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import br.com.geraldao.constant.Operator;
+import br.com.geraldao.dao.BulkUpdate;
+import br.com.geraldao.entity.Customer;
+import br.com.geraldao.predicate.PredicateBuilder;
+import br.com.geraldao.predicate.PredicateClause;
+import br.com.geraldao.service.H2ServiceJPA;
+
+public class TestUpdateBatch {
+
+    private EntityManagerFactory emf;
+    private EntityManager        em;
+    private H2ServiceJPA         service;
+    private List<Long>           ids = new ArrayList<>();
+    private Statistics           statistics;
+
+    @Before
+    public void setUp() {
+        emf = H2ServiceJPA.createEntityManagerFactory("updatebatch", Collections.singletonMap("hibernate.session_factory.statement_inspector", Inspector.class.getName()));
+        em = emf.createEntityManager();
+        service = new H2ServiceJPA(H2ServiceJPA.url("updatebatch"), em) {
+            @Override
+            protected int inListStagingThreshold() {
+                return 2;
+            }
+        };
+        service.inTransaction(s -> {
+            for (int i = 0; i < 10; i++) {
+                ids.add(s.save(new Customer("Customer " + i, "customer" + i + "@example.com", "Recife")).get().getId());
+            }
+        });
+        em.clear();
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @After
+    public void tearDown() {
+        em.close();
+        emf.close();
+    }
+
+    @Test
+    public void testUpdatesByIdAreGroupedByFields() {
+        BulkUpdate updates = new BulkUpdate();
+        for (int i = 0; i < 6; i++) {
+            updates.byId(ids.get(i), Collections.singletonMap("city", "City " + i));
+        }
+        Map<String, Object> values = new HashMap<>();
+        values.put("active", false);
+        values.put("city", "Natal");
+        updates.byId(ids.get(8), values);
+        updates.byId(ids.get(9), values);
+        updates.byId(ids.get(0), Collections.singletonMap("city", "Manaus"));
+
+        service.inTransaction(s -> assertEquals(8, s.updateBatch(Customer.class, updates)));
+        assertEquals(2, statistics.getPrepareStatementCount());
+
+        em.clear();
+        assertEquals("Manaus", city(0));
+        assertEquals("City 5", city(5));
+        assertEquals("Recife", city(7));
+        assertEquals("Natal", city(9));
+        assertFalse(service.findById(Customer.class, ids.get(9)).get().getActive());
+    }
+
+    @Test
+    public void testUpdatesByConditionKeepTheLastValues() {
+        BulkUpdate updates = new BulkUpdate();
+        updates.where(Collections.singletonMap("city", "Natal"), PredicateBuilder.where("name", Operator.IN, Arrays.asList("Customer 1", "Customer 2", "Customer 3")).build());
+        updates.where(Collections.singletonMap("city", "Manaus"), PredicateBuilder.where("name", Operator.IN, Arrays.asList("Customer 3", "Customer 4", "Customer 5")).build());
+        updates.where(Collections.singletonMap("city", "Olinda"), PredicateBuilder.where("email", "customer7@example.com").build());
+
+        service.inTransaction(s -> assertEquals(6, s.updateBatch(Customer.class, updates)));
+
+        em.clear();
+        assertEquals("Natal", city(2));
+        assertEquals("Manaus", city(3));
+        assertEquals("Manaus", city(5));
+        assertEquals("Recife", city(6));
+        assertEquals("Olinda", city(7));
+        assertEquals(4, service.findAllByParams(Customer.class, PredicateBuilder.where("city", "Recife").build()).size());
+        assertEquals(0L, (long) em.createQuery("select count(v) from InListValue v", Long.class).getSingleResult());
+    }
+
+    @Test
+    public void testInterleavedUpdatesKeepTheirOrder() {
+        PredicateClause first = PredicateBuilder.where("name", Operator.IN, Arrays.asList("Customer 1", "Customer 2")).build();
+        Map<String, Object> values = new HashMap<>();
+        values.put("active", false);
+        values.put("city", "Manaus");
+        BulkUpdate updates = new BulkUpdate();
+        updates.where(Collections.singletonMap("city", "Natal"), first);
+        updates.where(values, PredicateBuilder.where("name", Operator.IN, Arrays.asList("Customer 1", "Customer 3")).build());
+        updates.where(Collections.singletonMap("city", "Olinda"), PredicateBuilder.where("name", Operator.IN, Arrays.asList("Customer 1", "Customer 4")).build());
+
+        service.inTransaction(s -> s.updateBatch(Customer.class, updates));
+
+        em.clear();
+        assertEquals("Olinda", city(1));
+        assertEquals("Natal", city(2));
+        assertEquals("Manaus", city(3));
+        assertEquals("Olinda", city(4));
+        assertFalse(service.findById(Customer.class, ids.get(1)).get().getActive());
+    }
+
+    @Test
+    public void testParametersStayWithinTheChunkSize() {
+        H2ServiceJPA chunked = new H2ServiceJPA(H2ServiceJPA.url("updatebatch"), em) {
+            @Override
+            protected int inListChunkSize() {
+                return 12;
+            }
+        };
+        BulkUpdate updates = new BulkUpdate();
+        Map<String, Object> values = new HashMap<>();
+        values.put("active", false);
+        values.put("city", "Natal");
+        ids.forEach(id -> updates.byId(id, values));
+        for (int i = 0; i < 3; i++) {
+            updates.where(Collections.singletonMap("email", "updated" + i + "@example.com"), PredicateBuilder.where("name", Operator.IN, Arrays.asList("Customer " + i, "Customer " + (i + 3))).build());
+        }
+        Inspector.STATEMENTS.clear();
+
+        chunked.inTransaction(s -> assertEquals(16, s.updateBatch(Customer.class, updates)));
+
+        assertEquals(7, Inspector.STATEMENTS.size());
+        for (String sql : Inspector.STATEMENTS) {
+            assertTrue(sql, sql.chars().filter(c -> c == '?').count() <= 12);
+        }
+        em.clear();
+        assertEquals("Natal", city(9));
+    }
+
+    public static class Inspector implements StatementInspector {
+        private static final long         serialVersionUID = 1L;
+        private static final List<String> STATEMENTS       = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public String inspect(String sql) {
+            if (sql.startsWith("update")) {
+                STATEMENTS.add(sql);
+            }
+            return sql;
+        }
+    }
+
+    private String city(int index) {
+        return service.findById(Customer.class, ids.get(index)).get().getCity();
+    }
+
+}
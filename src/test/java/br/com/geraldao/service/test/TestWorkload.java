@@ -0,0 +1,78 @@
+package br.com.geraldao.service.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import br.com.geraldao.dao.WorkloadScheduler;
+import br.com.geraldao.exception.WorkloadRejectedException;
+import br.com.geraldao.query.Workload;
+
+public class TestWorkload {
+
+    @Test(expected = WorkloadRejectedException.class)
+    public void testRejectWhenQueueIsFull() throws Exception {
+        WorkloadScheduler scheduler = new WorkloadScheduler(0);
+        Workload reports = Workload.create("reports", 1, 1, 0);
+        scheduler.acquire(reports);
+        scheduler.acquire(reports);
+    }
+
+    @Test(expected = WorkloadRejectedException.class)
+    public void testRejectAfterMaxWait() throws Exception {
+        WorkloadScheduler scheduler = new WorkloadScheduler(0);
+        Workload reports = Workload.create("reports", 1, 1, 1, 50);
+        scheduler.acquire(reports);
+        scheduler.acquire(reports);
+    }
+
+    @Test
+    public void testHigherPriorityIsAdmittedFirst() throws Exception {
+        WorkloadScheduler scheduler = new WorkloadScheduler(1);
+        Workload interactive = Workload.create("interactive", 10, 4, 4);
+        Workload reports = Workload.create("reports", 1, 4, 4);
+        scheduler.acquire(reports);
+
+        List<String> admitted = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(2);
+        Thread batch = start(scheduler, reports, admitted, done);
+        waitQueued(scheduler, reports, 1);
+        Thread lookup = start(scheduler, interactive, admitted, done);
+        waitQueued(scheduler, interactive, 1);
+
+        scheduler.release(reports);
+        done.await(5, TimeUnit.SECONDS);
+        batch.join();
+        lookup.join();
+        assertEquals("interactive", admitted.get(0));
+        assertEquals("reports", admitted.get(1));
+    }
+
+    private Thread start(WorkloadScheduler scheduler, Workload workload, List<String> admitted, CountDownLatch done) {
+        Thread thread = new Thread(() -> {
+            try {
+                scheduler.acquire(workload);
+                admitted.add(workload.getName());
+                scheduler.release(workload);
+            } catch (WorkloadRejectedException e) {
+                admitted.add(e.getMessage());
+            }
+            done.countDown();
+        });
+        thread.start();
+        return thread;
+    }
+
+    private void waitQueued(WorkloadScheduler scheduler, Workload workload, int queued) throws InterruptedException {
+        while (scheduler.getQueued(workload) < queued) {
+            Thread.sleep(5);
+        }
+    }
+
+}